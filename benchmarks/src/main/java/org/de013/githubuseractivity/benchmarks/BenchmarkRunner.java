@@ -0,0 +1,49 @@
+package org.de013.githubuseractivity.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Runs the benchmarks with the GC profiler always attached, writes {@code jmh-result.json} and
+ * prints allocated bytes per event, the number to compare between runs.
+ * Accepts the usual JMH arguments, e.g. {@code java -jar target/benchmarks.jar Format -p events=300}.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(cli)
+                .addProfiler(GCProfiler.class);
+        if (!cli.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON).result("jmh-result.json");
+        }
+
+        Collection<RunResult> results = new Runner(options.build()).run();
+        printBytesPerEvent(results);
+    }
+
+    private static void printBytesPerEvent(Collection<RunResult> results) {
+        System.out.println();
+        System.out.println("Allocation per event (gc.alloc.rate.norm / events):");
+        for (RunResult run : results) {
+            String events = run.getParams().getParam("events");
+            Result<?> allocated = run.getSecondaryResults().get("gc.alloc.rate.norm");
+            if (events == null || allocated == null) continue;
+
+            String benchmark = run.getParams().getBenchmark();
+            String name = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+            System.out.printf(Locale.ROOT, "  %-40s %9s events %12.1f B/event%n",
+                    name, events, allocated.getScore() / Integer.parseInt(events));
+        }
+    }
+}
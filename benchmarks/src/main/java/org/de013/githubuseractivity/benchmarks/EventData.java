@@ -0,0 +1,125 @@
+package org.de013.githubuseractivity.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Builds synthetic /users/{name}/events responses shaped like GitHub's.
+ * The mix is dominated by PushEvents with one to twenty commits, as on an active account, and the
+ * generator is seeded so every fork of a benchmark sees the same bytes.
+ */
+public final class EventData {
+    private static final String[] REPOS = {
+            "octocat/hello-world", "kamranahmedse/developer-roadmap", "torvalds/linux",
+            "openjdk/jdk", "spring-projects/spring-boot", "de013/github-user-activity"
+    };
+
+    private EventData() {}
+
+    /** A JSON array of {@code count} events. */
+    public static String eventArray(int count) {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder(count * 1200);
+        sb.append('[');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(',');
+            appendEvent(sb, random, 40_000_000_000L + i);
+        }
+        return sb.append(']').toString();
+    }
+
+    /** One PullRequestEvent whose payload nests the pull request, its branches, repositories and owners. */
+    public static String deepPayloadEvent() {
+        StringBuilder sb = new StringBuilder(8192);
+        appendHeader(sb, 1L, "PullRequestEvent", REPOS[0]);
+        appendPullRequestPayload(sb, new Random(7), "opened");
+        return sb.append('}').toString();
+    }
+
+    private static void appendEvent(StringBuilder sb, Random random, long id) {
+        String repo = REPOS[random.nextInt(REPOS.length)];
+        int kind = random.nextInt(100);
+        if (kind < 60) {
+            appendHeader(sb, id, "PushEvent", repo);
+            appendPushPayload(sb, random, 1 + random.nextInt(20));
+        } else if (kind < 72) {
+            appendHeader(sb, id, "PullRequestEvent", repo);
+            appendPullRequestPayload(sb, random, random.nextBoolean() ? "opened" : "closed");
+        } else if (kind < 82) {
+            appendHeader(sb, id, "IssueCommentEvent", repo);
+            sb.append("\"payload\":{\"action\":\"created\",\"issue\":{\"number\":").append(random.nextInt(5000))
+                    .append(",\"title\":\"Crash when parsing \\\"quoted\\\" names\",\"state\":\"open\"},")
+                    .append("\"comment\":{\"id\":").append(random.nextInt(1_000_000))
+                    .append(",\"body\":\"Reproduced on main.\\nStack trace attached below.\"}}");
+        } else if (kind < 90) {
+            appendHeader(sb, id, "WatchEvent", repo);
+            sb.append("\"payload\":{\"action\":\"started\"}");
+        } else if (kind < 96) {
+            appendHeader(sb, id, "CreateEvent", repo);
+            sb.append("\"payload\":{\"ref\":\"feature-").append(random.nextInt(1000))
+                    .append("\",\"ref_type\":\"branch\",\"master_branch\":\"main\",\"description\":null,\"pusher_type\":\"user\"}");
+        } else {
+            appendHeader(sb, id, "ForkEvent", repo);
+            sb.append("\"payload\":{\"forkee\":{\"id\":").append(random.nextInt(1_000_000))
+                    .append(",\"full_name\":\"octocat/fork\",\"private\":false}}");
+        }
+        sb.append(",\"public\":true,\"created_at\":\"2024-05-0").append(1 + random.nextInt(9))
+                .append("T12:00:00Z\"}");
+    }
+
+    private static void appendHeader(StringBuilder sb, long id, String type, String repo) {
+        sb.append("{\"id\":\"").append(id).append("\",\"type\":\"").append(type).append("\",")
+                .append("\"actor\":{\"id\":583231,\"login\":\"octocat\",\"display_login\":\"octocat\",")
+                .append("\"gravatar_id\":\"\",\"url\":\"https://api.github.com/users/octocat\",")
+                .append("\"avatar_url\":\"https://avatars.githubusercontent.com/u/583231?\"},")
+                .append("\"repo\":{\"id\":1296269,\"name\":\"").append(repo)
+                .append("\",\"url\":\"https://api.github.com/repos/").append(repo).append("\"},");
+    }
+
+    private static void appendPushPayload(StringBuilder sb, Random random, int commits) {
+        sb.append("\"payload\":{\"repository_id\":1296269,\"push_id\":").append(random.nextInt(Integer.MAX_VALUE))
+                .append(",\"size\":").append(commits).append(",\"distinct_size\":").append(commits)
+                .append(",\"ref\":\"refs/heads/main\",\"head\":\"").append(sha(random))
+                .append("\",\"before\":\"").append(sha(random)).append("\",\"commits\":[");
+        for (int c = 0; c < commits; c++) {
+            if (c > 0) sb.append(',');
+            String sha = sha(random);
+            sb.append("{\"sha\":\"").append(sha).append("\",\"author\":{\"email\":\"octocat@github.com\",")
+                    .append("\"name\":\"The Octocat\"},\"message\":\"Fix off-by-one in pagination (#")
+                    .append(random.nextInt(10_000)).append(")\\n\\nSigned-off-by: The Octocat\",")
+                    .append("\"distinct\":true,\"url\":\"https://api.github.com/repos/octocat/hello-world/commits/")
+                    .append(sha).append("\"}");
+        }
+        sb.append("]}");
+    }
+
+    private static void appendPullRequestPayload(StringBuilder sb, Random random, String action) {
+        int number = random.nextInt(5000);
+        sb.append("\"payload\":{\"action\":\"").append(action).append("\",\"number\":").append(number)
+                .append(",\"pull_request\":{\"number\":").append(number)
+                .append(",\"title\":\"Stream events instead of buffering\",\"state\":\"open\",")
+                .append("\"user\":").append(user()).append(",\"labels\":[{\"name\":\"performance\",\"color\":\"f29513\"}],")
+                .append("\"head\":").append(branch(random, "feature")).append(",")
+                .append("\"base\":").append(branch(random, "main")).append(",")
+                .append("\"_links\":{\"self\":{\"href\":\"https://api.github.com/pulls/").append(number).append("\"},")
+                .append("\"html\":{\"href\":\"https://github.com/pull/").append(number).append("\"}},")
+                .append("\"merged\":false,\"commits\":").append(1 + random.nextInt(10))
+                .append(",\"additions\":").append(random.nextInt(500))
+                .append(",\"deletions\":").append(random.nextInt(500)).append("}}");
+    }
+
+    private static String branch(Random random, String ref) {
+        return "{\"label\":\"octocat:" + ref + "\",\"ref\":\"" + ref + "\",\"sha\":\"" + sha(random) + "\"," +
+                "\"user\":" + user() + ",\"repo\":{\"id\":1296269,\"name\":\"hello-world\"," +
+                "\"full_name\":\"octocat/hello-world\",\"owner\":" + user() + ",\"topics\":[\"cli\",\"github\"]," +
+                "\"license\":{\"key\":\"mit\",\"name\":\"MIT License\"}}}";
+    }
+
+    private static String user() {
+        return "{\"login\":\"octocat\",\"id\":583231,\"type\":\"User\",\"site_admin\":false}";
+    }
+
+    private static String sha(Random random) {
+        return Long.toHexString(random.nextLong() | Long.MIN_VALUE) + Long.toHexString(random.nextLong() | Long.MIN_VALUE)
+                + Integer.toHexString(random.nextInt() | Integer.MIN_VALUE);
+    }
+}
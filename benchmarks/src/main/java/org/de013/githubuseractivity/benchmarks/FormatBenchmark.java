@@ -0,0 +1,56 @@
+package org.de013.githubuseractivity.benchmarks;
+
+import org.de013.githubuseractivity.util.EventFormatter;
+import org.de013.githubuseractivity.util.Messages;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Parse and render a whole response, as the CLI does for every page. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class FormatBenchmark {
+
+    @Param({"30", "300", "10000", "1000000"})
+    public int events;
+
+    private String json;
+
+    @Setup
+    public void setUp() {
+        Messages.currentLanguage = Messages.Language.EN;
+        json = EventData.eventArray(events);
+    }
+
+    @Benchmark
+    public List<String> format() {
+        return EventFormatter.format(json);
+    }
+
+    /** Most events are PushEvents, so nearly everything is rendered and commits are counted. */
+    @Benchmark
+    public List<String> formatFilteredPush() {
+        return EventFormatter.format(json, "push");
+    }
+
+    /** Rare type: measures the cost of walking events that are then dropped. */
+    @Benchmark
+    public List<String> formatFilteredFork() {
+        return EventFormatter.format(json, "fork");
+    }
+}
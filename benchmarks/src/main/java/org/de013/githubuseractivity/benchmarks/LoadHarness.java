@@ -0,0 +1,121 @@
+package org.de013.githubuseractivity.benchmarks;
+
+import org.de013.githubuseractivity.server.MockGitHubServer;
+import org.de013.githubuseractivity.service.FetchResult;
+import org.de013.githubuseractivity.service.HttpTransport;
+import org.de013.githubuseractivity.service.RateLimiter;
+import org.de013.githubuseractivity.service.UserActivityServiceImpl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * End-to-end load test of the fetch path against a local {@link MockGitHubServer}, entirely offline:
+ * real HTTP, gzip, Link-header pagination and parsing, with the server's latency simulating the network.
+ * Each scenario runs for a fixed time after a warm-up and reports requests per second and percentiles
+ * of the fetch latency seen by callers.
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar org.de013.githubuseractivity.benchmarks.LoadHarness [seconds] [latency-ms]
+ * </pre>
+ */
+public class LoadHarness {
+
+    public static void main(String[] args) throws Exception {
+        Duration duration = Duration.ofSeconds(args.length > 0 ? Long.parseLong(args[0]) : 10);
+        Duration latency = Duration.ofMillis(args.length > 1 ? Long.parseLong(args[1]) : 20);
+
+        MockGitHubServer mock = new MockGitHubServer(0, MockGitHubServer.DEFAULT_EVENTS_PER_USER, latency, Long.MAX_VALUE);
+        mock.start();
+        try {
+            System.out.printf(Locale.ROOT, "Mock server latency %d ms, %d s per scenario%n%n", latency.toMillis(), duration.getSeconds());
+            System.out.printf(Locale.ROOT, "%-34s %8s %9s %9s %8s %8s %8s %8s%n",
+                    "scenario", "fetches", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+            run(mock, "single user, 30 events", 1, 1, 30, duration);
+            run(mock, "batch of 64 users, 16 concurrent", 16, 64, 30, duration);
+            run(mock, "paginated, 300 events (3 pages)", 4, 4, 300, duration);
+            run(mock, "one hot user, 16 concurrent", 16, 1, 30, duration);
+        } finally {
+            mock.stop();
+        }
+    }
+
+    /**
+     * {@code concurrency} callers fetch {@code limit} events each, cycling through {@code users}, on one
+     * service without caches, so every fetch goes to the server.
+     */
+    private static void run(MockGitHubServer mock, String name, int concurrency, int users, int limit, Duration duration)
+            throws Exception {
+        UserActivityServiceImpl service = new UserActivityServiceImpl(new HttpTransport(), mock.baseUrl(), null, null,
+                new RateLimiter(Integer.MAX_VALUE, 1e9, Duration.ZERO), null, null);
+
+        measure(service, concurrency, users, limit, duration.dividedBy(5));
+        long requestsBefore = mock.requests();
+        long started = System.nanoTime();
+        Sample sample = measure(service, concurrency, users, limit, duration);
+        double seconds = (System.nanoTime() - started) / 1e9;
+        long requests = mock.requests() - requestsBefore;
+
+        long[] latencies = sample.latencies();
+        System.out.printf(Locale.ROOT, "%-34s %8d %9d %9.0f %8.2f %8.2f %8.2f %8.2f%n",
+                name, latencies.length, requests, requests / seconds,
+                millis(percentile(latencies, 50)), millis(percentile(latencies, 90)),
+                millis(percentile(latencies, 99)), millis(percentile(latencies, 100)));
+        if (sample.failures > 0) System.out.printf(Locale.ROOT, "  %d fetch(es) failed%n", sample.failures);
+    }
+
+    private static Sample measure(UserActivityServiceImpl service, int concurrency, int users, int limit,
+                                  Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        LongAdder failures = new LongAdder();
+        ExecutorService callers = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<long[]>> workers = new ArrayList<>();
+            for (int w = 0; w < concurrency; w++) {
+                int worker = w;
+                workers.add(callers.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    for (int i = worker; System.nanoTime() < deadline; i += concurrency) {
+                        long start = System.nanoTime();
+                        FetchResult result = service.fetchEvents("user" + (i % users), limit, event -> {});
+                        if (!result.isSuccess() || result.eventCount() != limit) failures.increment();
+                        if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+            long[] all = new long[0];
+            for (Future<long[]> worker : workers) {
+                long[] latencies = worker.get();
+                int offset = all.length;
+                all = Arrays.copyOf(all, offset + latencies.length);
+                System.arraycopy(latencies, 0, all, offset, latencies.length);
+            }
+            Arrays.sort(all);
+            return new Sample(all, failures.sum());
+        } finally {
+            callers.shutdown();
+        }
+    }
+
+    /** Nearest-rank percentile of sorted values. */
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private record Sample(long[] latencies, long failures) {}
+}
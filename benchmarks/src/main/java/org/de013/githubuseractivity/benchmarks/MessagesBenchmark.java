@@ -0,0 +1,64 @@
+package org.de013.githubuseractivity.benchmarks;
+
+import org.de013.githubuseractivity.util.Messages;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Message lookup and placeholder substitution, called once per rendered event. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessagesBenchmark {
+
+    @Param({"EN", "VI"})
+    public Messages.Language language;
+
+    @Setup
+    public void setUp() {
+        Messages.currentLanguage = language;
+    }
+
+    @Benchmark
+    public String noParams() {
+        return Messages.get("batch.summary.header");
+    }
+
+    @Benchmark
+    public String oneParam() {
+        return Messages.get("event.watch", "kamranahmedse/developer-roadmap");
+    }
+
+    @Benchmark
+    public String twoParams() {
+        return Messages.get("event.push", 3, "kamranahmedse/developer-roadmap");
+    }
+
+    @Benchmark
+    public String twoParamsExplicitLanguage() {
+        return Messages.get(language, "event.push", 3, "kamranahmedse/developer-roadmap");
+    }
+
+    @Benchmark
+    public StringBuilder appendTwoParams() {
+        return Messages.append(new StringBuilder(64), language, "event.push", 3, "kamranahmedse/developer-roadmap");
+    }
+
+    @Benchmark
+    public String missingKey() {
+        return Messages.get("event.does_not_exist");
+    }
+}
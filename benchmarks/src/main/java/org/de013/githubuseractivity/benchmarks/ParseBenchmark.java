@@ -0,0 +1,62 @@
+package org.de013.githubuseractivity.benchmarks;
+
+import org.de013.githubuseractivity.model.GitHubEvent;
+import org.de013.githubuseractivity.util.EventParser;
+import org.de013.githubuseractivity.util.JsonTokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splitting a response into events, the tokenizer path that replaced cutting the array into
+ * object strings. See {@link PayloadBenchmark} for the per-event block extraction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class ParseBenchmark {
+
+    @Param({"30", "300", "10000", "1000000"})
+    public int events;
+
+    private String json;
+
+    @Setup
+    public void setUp() {
+        json = EventData.eventArray(events);
+    }
+
+    /** Split the array into events, keeping each payload as raw text. */
+    @Benchmark
+    public List<GitHubEvent> splitEvents() {
+        return EventParser.parse(json);
+    }
+
+    /** Same split through a Reader, as a network response is read, without collecting a list. */
+    @Benchmark
+    public int splitEventsStreaming(Blackhole blackhole) {
+        return EventParser.parse(new JsonTokenizer(new StringReader(json)), blackhole::consume);
+    }
+
+    /** Structural pass only: the floor for any parse of this input. */
+    @Benchmark
+    public int countEvents() {
+        return new JsonTokenizer(json).countArrayElements();
+    }
+}
@@ -0,0 +1,55 @@
+package org.de013.githubuseractivity.benchmarks;
+
+import org.de013.githubuseractivity.model.Payload;
+import org.de013.githubuseractivity.util.EventParser;
+import org.de013.githubuseractivity.util.JsonTokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Block extraction on one event whose payload nests a pull request, its branches, repositories
+ * and owners: capturing the payload text, and decoding the few fields the formatter reads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadBenchmark {
+
+    private String deepEvent;
+    private String deepPayload;
+
+    @Setup
+    public void setUp() {
+        deepEvent = EventData.deepPayloadEvent();
+        deepPayload = EventParser.parse(deepEvent).get(0).payload().raw();
+    }
+
+    @Benchmark
+    public String extractDeepPayload() {
+        JsonTokenizer tokenizer = new JsonTokenizer(deepEvent);
+        tokenizer.beginObject();
+        while (tokenizer.hasNext()) {
+            if ("payload".equals(tokenizer.nextName())) return tokenizer.readRawValue();
+            tokenizer.skipValue();
+        }
+        return null;
+    }
+
+    @Benchmark
+    public String decodeDeepPayload() {
+        return new Payload(deepPayload).action();
+    }
+}
@@ -0,0 +1,80 @@
+package org.de013.githubuseractivity.benchmarks;
+
+import org.de013.githubuseractivity.input.EventInput;
+import org.de013.githubuseractivity.util.EventFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code --input} over a memory-mapped file: chunk splitting plus parsing, on one thread and on the
+ * common pool. The difference between the two is the parallel speedup the machine allows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class ReplayBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int events;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("replay", ".json");
+        Files.writeString(file, EventData.eventArray(events));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int replaySequential(Blackhole blackhole) throws IOException {
+        int count = 0;
+        try (EventInput input = EventInput.of(file, EventInput.DEFAULT_CHUNK_BYTES)) {
+            EventInput.Chunk chunk;
+            while ((chunk = input.next()) != null) count += chunk.parse(EventFilter.ALL, blackhole::consume);
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int replayParallel(Blackhole blackhole) throws IOException {
+        List<CompletableFuture<Integer>> chunks = new ArrayList<>();
+        try (EventInput input = EventInput.of(file, EventInput.DEFAULT_CHUNK_BYTES)) {
+            EventInput.Chunk chunk;
+            while ((chunk = input.next()) != null) {
+                EventInput.Chunk next = chunk;
+                chunks.add(CompletableFuture.supplyAsync(() -> next.parse(EventFilter.ALL, blackhole::consume)));
+            }
+        }
+        int count = 0;
+        for (CompletableFuture<Integer> future : chunks) count += future.join();
+        return count;
+    }
+}
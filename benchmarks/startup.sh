@@ -0,0 +1,55 @@
+#!/usr/bin/env bash
+# Wall-clock startup of short CLI runs, with and without the AppCDS archive.
+#
+#   mvn -Pappcds package -DskipTests
+#   benchmarks/startup.sh [runs]
+#
+# Each command runs once to warm the page cache, then [runs] times (default 20); the mean and the
+# fastest run are reported in milliseconds. The fetch case builds the HTTP client and TLS context and
+# so includes network time, or a connection error when offline.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RUNS=${1:-20}
+JAR=target/github-user-activity-1.0-SNAPSHOT.jar
+JSA=target/github-activity.jsa
+EVENTS=src/appcds/training-events.json
+
+if [[ ! -f $JAR ]]; then
+    echo "Missing $JAR; run: mvn -Pappcds package -DskipTests" >&2
+    exit 1
+fi
+
+now_ns() { date +%s%N; }
+
+measure() {
+    local label=$1; shift
+    java "$@" > /dev/null 2>&1 || true
+    local total=0 best=
+    for ((i = 0; i < RUNS; i++)); do
+        local start end elapsed
+        start=$(now_ns)
+        java "$@" > /dev/null 2>&1 || true
+        end=$(now_ns)
+        elapsed=$(((end - start) / 1000000))
+        total=$((total + elapsed))
+        if [[ -z $best || $elapsed -lt $best ]]; then best=$elapsed; fi
+    done
+    printf '%-34s %8d %8d\n' "$label" $((total / RUNS)) "$best"
+}
+
+run_suite() {
+    local name=$1; shift
+    measure "$name --help" "$@" -jar "$JAR" --help
+    measure "$name --input (4 events)" "$@" -jar "$JAR" --input "$EVENTS"
+    measure "$name --input --format json" "$@" -jar "$JAR" --input "$EVENTS" --format json
+    measure "$name fetch (no cache)" "$@" -jar "$JAR" octocat --no-cache --max-wait 0 --limit 1
+}
+
+printf '%-34s %8s %8s\n' "command ($RUNS runs)" "mean ms" "min ms"
+run_suite "default" -Xshare:auto
+if [[ -f $JSA ]]; then
+    run_suite "appcds " "-XX:SharedArchiveFile=$JSA"
+else
+    echo "No $JSA; build it with: mvn -Pappcds package -DskipTests" >&2
+fi
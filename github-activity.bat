@@ -1,3 +1,7 @@
 @echo off
+setlocal
 chcp 65001 > nul
-java -Dfile.encoding=UTF-8 -Dstdout.encoding=UTF-8 -Dstderr.encoding=UTF-8 -jar "%~dp0target\github-user-activity-1.0-SNAPSHOT.jar" %*
\ No newline at end of file
+rem Use the class-data-sharing archive from "mvn -Pappcds package" when there is one
+set "CDS="
+if exist "%~dp0target\github-activity.jsa" set "CDS=-XX:SharedArchiveFile=%~dp0target\github-activity.jsa"
+java %CDS% -Dfile.encoding=UTF-8 -Dstdout.encoding=UTF-8 -Dstderr.encoding=UTF-8 -jar "%~dp0target\github-user-activity-1.0-SNAPSHOT.jar" %*
\ No newline at end of file
@@ -1,30 +1,125 @@
 package org.de013.githubuseractivity;
 
+import org.de013.githubuseractivity.cache.ActivityCache;
+import org.de013.githubuseractivity.cache.HttpDiskCache;
 import org.de013.githubuseractivity.cli.CommandParser;
 import org.de013.githubuseractivity.cli.command.Command;
+import org.de013.githubuseractivity.output.OutputSink;
+import org.de013.githubuseractivity.service.HttpTransport;
+import org.de013.githubuseractivity.service.PhaseStats;
+import org.de013.githubuseractivity.service.RateLimiter;
+import org.de013.githubuseractivity.service.TransferStats;
 import org.de013.githubuseractivity.service.UserActivityServiceImpl;
+import org.de013.githubuseractivity.store.EventStore;
 import org.de013.githubuseractivity.util.Messages;
 
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class Main {
     public static void main(String[] args) {
+        long started = System.nanoTime();
+        // Created before stdout so that console writes can be timed too
+        PhaseStats phaseStats = Arrays.asList(args).contains("--stats") ? new PhaseStats() : null;
+        // stdout is buffered and flushed by the commands once per batch of output; stderr stays unbuffered
         try {
-            System.setOut(new PrintStream(System.out, true, StandardCharsets.UTF_8));
+            OutputStream stdout = new FileOutputStream(FileDescriptor.out);
+            if (phaseStats != null) stdout = phaseStats.timeOutput(stdout);
+            System.setOut(new PrintStream(new BufferedOutputStream(stdout, OutputSink.BUFFER_SIZE),
+                    false, StandardCharsets.UTF_8));
             System.setErr(new PrintStream(System.err, true, StandardCharsets.UTF_8));
         } catch (Exception ignored) {}
+        PrintStream out = System.out;
+        // The hook covers watch and serve mode, which end with Ctrl+C
+        Runtime.getRuntime().addShutdownHook(new Thread(out::flush));
+        try {
+            run(args, phaseStats);
+        } finally {
+            out.flush();
+        }
+        if (phaseStats != null) phaseStats.print(System.err, System.nanoTime() - started);
+    }
 
-        CommandParser commandParser = new CommandParser(args);
-        UserActivityServiceImpl userActivityServiceImpl = new UserActivityServiceImpl();
+    private static void run(String[] args, PhaseStats phaseStats) {
+        // Global options shared by every command
+        List<String> argList = new ArrayList<>(Arrays.asList(args));
+        boolean useDiskCache = !argList.remove("--no-cache");
+        boolean keepHistory = argList.remove("--store");
+        boolean verbose = argList.remove("--verbose");
+        argList.remove("--stats");
+        boolean maxWaitGiven = argList.contains("--max-wait");
+        Duration maxWait = takeMaxWait(argList);
+        if (maxWait == null) return;
+        String apiUrl = takeApiUrl(argList);
+        if (apiUrl == null) return;
 
+        CommandParser commandParser = new CommandParser(argList.toArray(new String[0]));
         Command command = commandParser.parse();
 
         if (command == null) {
             System.err.println(Messages.get("error.parsing_failed"));
             return;
         }
+        if (!maxWaitGiven) maxWait = command.maxRateLimitWait();
+        RateLimiter rateLimiter = new RateLimiter(maxWait).onLongWait(wait ->
+                System.err.println(Messages.get("rate_limit.waiting", wait.toSeconds())));
 
+        // Cheap to build: the HTTP client inside is only created once a command sends a request
+        UserActivityServiceImpl userActivityServiceImpl = new UserActivityServiceImpl(
+                new HttpTransport(),
+                apiUrl,
+                useDiskCache ? HttpDiskCache.defaultCache() : null,
+                new ActivityCache(ActivityCache.DEFAULT_MAX_ENTRIES),
+                rateLimiter,
+                keepHistory ? EventStore.defaultStore() : null,
+                phaseStats);
         command.excute(userActivityServiceImpl);
+
+        TransferStats stats = userActivityServiceImpl.getTransferStats();
+        if (verbose && stats.responses() > 0) {
+            System.err.println(Messages.get("transfer.stats", stats.responses(), stats.http2Responses(),
+                    stats.wireBytes(), stats.decodedBytes(), stats.savedPercent()));
+        }
+    }
+
+    /** Removes "--api-url <url>" from the arguments; returns null after reporting an invalid value. */
+    private static String takeApiUrl(List<String> argList) {
+        int index = argList.indexOf("--api-url");
+        if (index < 0) return UserActivityServiceImpl.DEFAULT_BASE_URL;
+        String value = index + 1 < argList.size() ? argList.get(index + 1) : null;
+        argList.subList(index, Math.min(index + 2, argList.size())).clear();
+        try {
+            URI uri = value != null ? new URI(value) : null;
+            if (uri != null && ("http".equals(uri.getScheme()) || "https".equals(uri.getScheme()))
+                    && uri.getHost() != null && uri.getQuery() == null) {
+                return value;
+            }
+        } catch (URISyntaxException ignored) {}
+        System.err.println(Messages.get("error.api_url.invalid", value));
+        return null;
+    }
+
+    /** Removes "--max-wait <seconds>" from the arguments; returns null after reporting an invalid value. */
+    private static Duration takeMaxWait(List<String> argList) {
+        int index = argList.indexOf("--max-wait");
+        if (index < 0) return RateLimiter.DEFAULT_MAX_WAIT;
+        String value = index + 1 < argList.size() ? argList.get(index + 1) : null;
+        argList.subList(index, Math.min(index + 2, argList.size())).clear();
+        try {
+            long seconds = Long.parseLong(value);
+            if (seconds >= 0) return Duration.ofSeconds(seconds);
+        } catch (NumberFormatException ignored) {}
+        System.err.println(Messages.get("error.max_wait.invalid", value));
+        return null;
     }
 }
@@ -0,0 +1,76 @@
+package org.de013.githubuseractivity.cache;
+
+import org.de013.githubuseractivity.model.GitHubEvent;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-memory cache of parsed events, for processes that ask for the same user repeatedly.
+ * Entries expire after the poll interval GitHub advertised for them and the least recently used entry
+ * is dropped once the cache is full. A hit skips both the network and the JSON parse.
+ */
+public class ActivityCache {
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+    public static final Duration DEFAULT_TTL = Duration.ofSeconds(60);
+
+    /** Counters since the cache was created. */
+    public record Stats(long hits, long misses, long evictions, int size) {}
+
+    /** Cached events and the poll interval GitHub sent with them. */
+    public record Hit(List<GitHubEvent> events, Duration pollInterval) {}
+
+    private final int maxEntries;
+    private final LongSupplier clock;
+    private final Map<String, Entry> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ActivityCache(int maxEntries) {
+        this(maxEntries, System::nanoTime);
+    }
+
+    /** @param clock monotonic time source in nanoseconds */
+    public ActivityCache(int maxEntries, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= ActivityCache.this.maxEntries) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /** Returns the cached events for the key, or null if absent or expired. */
+    public synchronized Hit get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && clock.getAsLong() - entry.expiresAt >= 0) {
+            entries.remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.hit;
+    }
+
+    /** Caches {@code events} for {@code pollInterval}, which is handed back with them on every hit. */
+    public synchronized void put(String key, List<GitHubEvent> events, Duration pollInterval) {
+        entries.put(key, new Entry(new Hit(List.copyOf(events), pollInterval), clock.getAsLong() + pollInterval.toNanos()));
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size());
+    }
+
+    private record Entry(Hit hit, long expiresAt) {}
+}
@@ -0,0 +1,297 @@
+package org.de013.githubuseractivity.cache;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * On-disk cache of HTTP responses for conditional requests.
+ * Each URL maps to one file holding its ETag, Last-Modified and Link headers followed by the gzip-compressed body.
+ * Files are written to a temporary name and atomically moved into place, so several processes can share
+ * one directory: a reader always sees either the old or the new complete entry.
+ * <p>
+ * The directory is scanned on the first commit of a process, and afterwards only once the entries
+ * committed since push the size it found past the budget, so a commit normally costs no directory listing.
+ */
+public class HttpDiskCache {
+    public static final long DEFAULT_MAX_BYTES = 50L * 1024 * 1024;
+
+    private static final int MAGIC = 0x47484331; // "GHC1"
+    private static final String ENTRY_SUFFIX = ".entry";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final long STALE_TEMP_MILLIS = 60 * 60 * 1000L;
+
+    private final Path directory;
+    private final long maxBytes;
+    /** Size of the directory at the last scan plus everything committed since, or -1 before the first scan. */
+    private long estimatedBytes = -1;
+
+    /**
+     * @param etag         validator sent back as If-None-Match, or null
+     * @param lastModified validator sent back as If-Modified-Since, or null
+     * @param link         the Link header of the cached response, so pagination works from a 304
+     */
+    public record Entry(Path file, String etag, String lastModified, String link) {}
+
+    public HttpDiskCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /** The per-user cache under {@code ~/.github-activity/cache}. */
+    public static HttpDiskCache defaultCache() {
+        return new HttpDiskCache(Paths.get(System.getProperty("user.home"), ".github-activity", "cache"), DEFAULT_MAX_BYTES);
+    }
+
+    /** Returns the cached validators for a URL, or null when there is no usable entry. */
+    public Entry lookup(String url) {
+        Path file = entryFile(url);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1024))) {
+            if (in.readInt() != MAGIC || !url.equals(in.readUTF())) return null;
+            String etag = emptyToNull(in.readUTF());
+            String lastModified = emptyToNull(in.readUTF());
+            String link = emptyToNull(in.readUTF());
+            if (etag == null && lastModified == null) return null;
+            return new Entry(file, etag, lastModified, link);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /** Opens the decompressed body of an entry after a 304, or returns null if it has since been evicted. */
+    public InputStream openBody(Entry entry) {
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry.file())));
+            try {
+                in.readInt();
+                in.readUTF();
+                in.readUTF();
+                in.readUTF();
+                in.readUTF();
+                InputStream body = new GZIPInputStream(in);
+                touch(entry.file());
+                return body;
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Wraps a response body so that everything read through it is also written to the cache.
+     * The entry is committed when the stream is closed, and only if the body was read completely.
+     */
+    public InputStream record(String url, String etag, String lastModified, String link, InputStream body) {
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, key(url), TEMP_SUFFIX);
+            DataOutputStream header = new DataOutputStream(Files.newOutputStream(temp));
+            header.writeInt(MAGIC);
+            header.writeUTF(url);
+            header.writeUTF(nullToEmpty(etag));
+            header.writeUTF(nullToEmpty(lastModified));
+            header.writeUTF(nullToEmpty(link));
+            return new RecordingInputStream(body, new GZIPOutputStream(header, 8192), temp, entryFile(url));
+        } catch (IOException e) {
+            return body; // caching is best-effort
+        }
+    }
+
+    /**
+     * Adds a committed entry to the size estimate and evicts once the estimate exceeds the budget.
+     * Replaced entries are counted twice, which only brings the next scan forward; entries written by
+     * other processes are counted by their own estimate, and the scan then corrects both.
+     */
+    synchronized void committed(long bytes) {
+        if (estimatedBytes >= 0) {
+            estimatedBytes += bytes;
+            if (estimatedBytes <= maxBytes) return;
+        }
+        estimatedBytes = evict();
+    }
+
+    /**
+     * Deletes least recently used entries until the directory fits in the size budget and returns the
+     * size left, or 0 if the directory could not be listed.
+     */
+    long evict() {
+        List<Path> entries = new ArrayList<>();
+        List<BasicFileAttributes> attributes = new ArrayList<>();
+        long total = 0;
+        long now = System.currentTimeMillis();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    // Left behind by a process that died mid-write
+                    if (now - attrs.lastModifiedTime().toMillis() > STALE_TEMP_MILLIS) Files.deleteIfExists(file);
+                } else if (name.endsWith(ENTRY_SUFFIX)) {
+                    entries.add(file);
+                    attributes.add(attrs);
+                    total += attrs.size();
+                }
+            }
+        } catch (IOException e) {
+            return 0;
+        }
+        if (total <= maxBytes) return total;
+
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) order.add(i);
+        order.sort(Comparator.comparing(i -> attributes.get(i).lastModifiedTime()));
+        for (int i : order) {
+            if (total <= maxBytes) break;
+            try {
+                Files.deleteIfExists(entries.get(i));
+                total -= attributes.get(i).size();
+            } catch (IOException ignored) {
+                // Another process may hold or have removed it
+            }
+        }
+        return total;
+    }
+
+    private Path entryFile(String url) {
+        return directory.resolve(key(url) + ENTRY_SUFFIX);
+    }
+
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+            // Only affects eviction order
+        }
+    }
+
+    private static String key(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(40);
+            for (int i = 0; i < 20; i++) {
+                sb.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String emptyToNull(String value) { return value.isEmpty() ? null : value; }
+
+    private static String nullToEmpty(String value) { return value == null ? "" : value; }
+
+    /** Tees the body into a temporary entry file and moves it into place once the body is fully read. */
+    private final class RecordingInputStream extends FilterInputStream {
+        private final Path temp;
+        private final Path target;
+        private OutputStream sink;
+        private boolean complete;
+
+        RecordingInputStream(InputStream body, OutputStream sink, Path temp, Path target) {
+            super(body);
+            this.sink = sink;
+            this.temp = temp;
+            this.target = target;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b < 0) complete = true;
+            else write(new byte[]{(byte) b}, 0, 1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            int n = super.read(buffer, off, len);
+            if (n < 0) complete = true;
+            else write(buffer, off, n);
+            return n;
+        }
+
+        private void write(byte[] buffer, int off, int len) {
+            if (sink == null) return;
+            try {
+                sink.write(buffer, off, len);
+            } catch (IOException e) {
+                abandon();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                // The parser may stop at the closing bracket; pick up any trailing bytes
+                if (!complete && sink != null) {
+                    byte[] rest = new byte[512];
+                    while (read(rest, 0, rest.length) >= 0) { /* drain */ }
+                }
+            } catch (IOException e) {
+                complete = false;
+            } finally {
+                super.close();
+                commit();
+            }
+        }
+
+        private void commit() {
+            if (sink == null) return;
+            try {
+                sink.close();
+                sink = null;
+                if (!complete) {
+                    Files.deleteIfExists(temp);
+                    return;
+                }
+                long size = Files.size(temp);
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+                committed(size);
+            } catch (IOException e) {
+                abandon();
+            }
+        }
+
+        private void abandon() {
+            try {
+                if (sink != null) sink.close();
+            } catch (IOException ignored) {
+                // Nothing left to save
+            }
+            sink = null;
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Cleaned up by a later eviction pass
+            }
+        }
+    }
+}
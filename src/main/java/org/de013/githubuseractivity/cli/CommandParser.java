@@ -1,12 +1,38 @@
 package org.de013.githubuseractivity.cli;
 
+import org.de013.githubuseractivity.cli.command.ArchiveCommand;
+import org.de013.githubuseractivity.cli.command.BatchCommand;
 import org.de013.githubuseractivity.cli.command.Command;
 import org.de013.githubuseractivity.cli.command.DefaultCommand;
 import org.de013.githubuseractivity.cli.command.HelpCommand;
+import org.de013.githubuseractivity.cli.command.HistoryCommand;
 import org.de013.githubuseractivity.cli.command.LanguageCommand;
+import org.de013.githubuseractivity.cli.command.ReplayCommand;
+import org.de013.githubuseractivity.cli.command.ServeCommand;
+import org.de013.githubuseractivity.cli.command.WatchCommand;
+import org.de013.githubuseractivity.output.OutputFormat;
+import org.de013.githubuseractivity.server.ActivityServer;
+import org.de013.githubuseractivity.service.UserActivityService;
+import org.de013.githubuseractivity.store.EventStore;
+import org.de013.githubuseractivity.util.EventFilter;
 import org.de013.githubuseractivity.util.Messages;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
 public class CommandParser {
+    private static final Pattern LOGIN = Pattern.compile("[A-Za-z0-9](?:[A-Za-z0-9-]{0,38})");
+
     private String[] args;
 
     public CommandParser() {}
@@ -30,16 +56,272 @@ public class CommandParser {
             return new LanguageCommand(lang);
         }
 
-        // github-activity <username> [--filter <type>]
+        if ("--serve".equals(first)) {
+            return parseServe();
+        }
+
+        if ("--batch".equals(first) || "-b".equals(first)) {
+            return parseBatch();
+        }
+
+        if ("--input".equals(first)) {
+            return parseInput();
+        }
+
+        if ("--archive".equals(first)) {
+            return parseArchive();
+        }
+
+        // github-activity <username> [--filter <expr>] [--limit <n> | --all] [--watch | --history] [--format <format>] [--summary]
         String username = first;
+        // The name becomes part of the request URL, the cache keys and a directory of the store
+        if (!isLogin(username)) return null;
+        String filter = null;
+        String limitValue = null;
+        boolean all = false;
+        OutputFormat format = OutputFormat.TEXT;
+        boolean summary = false;
+        boolean watch = false;
+        boolean history = false;
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (("--filter".equals(arg) || "-f".equals(arg)) && i + 1 < args.length) {
+                filter = args[++i];
+            } else if ("--limit".equals(arg) || "-n".equals(arg)) {
+                limitValue = i + 1 < args.length ? args[++i] : null;
+                all = false;
+            } else if ("--all".equals(arg)) {
+                limitValue = null;
+                all = true;
+            } else if ("--watch".equals(arg) || "-w".equals(arg)) {
+                watch = true;
+            } else if ("--history".equals(arg)) {
+                history = true;
+            } else if ("--summary".equals(arg)) {
+                summary = true;
+            } else if ("--format".equals(arg)) {
+                format = parseFormat(i + 1 < args.length ? args[++i] : null);
+                if (format == null) return null;
+            }
+        }
+
+        EventFilter eventFilter = parseFilter(filter);
+        if (eventFilter == null) return null;
+        if (watch && summary) {
+            System.err.println(Messages.get("error.summary.watch"));
+            return null;
+        }
+        if (watch && history) {
+            System.err.println(Messages.get("error.history.watch"));
+            return null;
+        }
+        if (history) {
+            // The store is not bound by GitHub's window, so the limit is only applied when given
+            int limit = limitValue == null ? Integer.MAX_VALUE : parsePositive(limitValue, "error.history.limit");
+            if (limit < 0) return null;
+            return new HistoryCommand(EventStore.defaultStore(), username, eventFilter, limit, format, summary);
+        }
+
+        int limit = all ? UserActivityService.MAX_LIMIT
+                : limitValue == null ? UserActivityService.DEFAULT_LIMIT : parseLimit(limitValue);
+        if (limit < 0) return null;
+        if (watch) {
+            return new WatchCommand(username, eventFilter, limit, format);
+        }
+        return new DefaultCommand(username, eventFilter, limit, format, summary);
+    }
+
+    // github-activity --batch [usernames...] [--file <path|->] [--parallel <n>] [--filter <expr>] [--limit <n> | --all] [--format <format>] [--summary]
+    private Command parseBatch() {
+        Set<String> usernames = new LinkedHashSet<>();
+        String filter = null;
+        int limit = UserActivityService.DEFAULT_LIMIT;
+        OutputFormat format = OutputFormat.TEXT;
+        int parallelism = BatchCommand.DEFAULT_PARALLELISM;
+        boolean summary = false;
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (("--filter".equals(arg) || "-f".equals(arg)) && i + 1 < args.length) {
+                filter = args[++i];
+            } else if ("--limit".equals(arg) || "-n".equals(arg)) {
+                limit = parseLimit(i + 1 < args.length ? args[++i] : null);
+                if (limit < 0) return null;
+            } else if ("--all".equals(arg)) {
+                limit = UserActivityService.MAX_LIMIT;
+            } else if ("--parallel".equals(arg) || "-p".equals(arg)) {
+                parallelism = parsePositive(i + 1 < args.length ? args[++i] : null, "error.batch.invalid_parallel");
+                if (parallelism < 0) return null;
+            } else if ("--format".equals(arg)) {
+                format = parseFormat(i + 1 < args.length ? args[++i] : null);
+                if (format == null) return null;
+            } else if ("--summary".equals(arg)) {
+                summary = true;
+            } else if ("--file".equals(arg) && i + 1 < args.length) {
+                if (!readUsernames(args[++i], usernames)) return null;
+            } else if (!arg.startsWith("-")) {
+                usernames.add(arg);
+            }
+        }
+        for (String username : usernames) {
+            if (!isLogin(username)) return null;
+        }
+        EventFilter eventFilter = parseFilter(filter);
+        if (eventFilter == null) return null;
+        return new BatchCommand(new ArrayList<>(usernames), eventFilter, limit, parallelism, format, summary);
+    }
+
+    // github-activity --input <path|-> [--filter <expr>] [--format <format>] [--summary] [--parallel <n>]
+    private Command parseInput() {
+        String source = args.length > 1 && (!args[1].startsWith("-") || "-".equals(args[1])) ? args[1] : null;
+        if (source == null) {
+            System.err.println(Messages.get("error.input.missing"));
+            return null;
+        }
+        String filter = null;
+        OutputFormat format = OutputFormat.TEXT;
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        boolean summary = false;
+        for (int i = 2; i < args.length; i++) {
+            String arg = args[i];
+            if (("--filter".equals(arg) || "-f".equals(arg)) && i + 1 < args.length) {
+                filter = args[++i];
+            } else if ("--parallel".equals(arg) || "-p".equals(arg)) {
+                parallelism = parsePositive(i + 1 < args.length ? args[++i] : null, "error.batch.invalid_parallel");
+                if (parallelism < 0) return null;
+            } else if ("--format".equals(arg)) {
+                format = parseFormat(i + 1 < args.length ? args[++i] : null);
+                if (format == null) return null;
+            } else if ("--summary".equals(arg)) {
+                summary = true;
+            }
+        }
+        EventFilter eventFilter = parseFilter(filter);
+        if (eventFilter == null) return null;
+        return new ReplayCommand(source, eventFilter, format, summary, parallelism);
+    }
+
+    // github-activity --archive <path...> --user <login> [--filter <expr>] [--format <format>] [--summary] [--parallel <n>]
+    private Command parseArchive() {
+        List<String> paths = new ArrayList<>();
+        String login = null;
         String filter = null;
-        for (int i = 1; i < args.length - 1; i++) {
-            if ("--filter".equals(args[i]) || "-f".equals(args[i])) {
-                filter = args[i + 1];
-                break;
+        OutputFormat format = OutputFormat.TEXT;
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        boolean summary = false;
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if ("--user".equals(arg) && i + 1 < args.length) {
+                login = args[++i];
+            } else if (("--filter".equals(arg) || "-f".equals(arg)) && i + 1 < args.length) {
+                filter = args[++i];
+            } else if ("--parallel".equals(arg) || "-p".equals(arg)) {
+                parallelism = parsePositive(i + 1 < args.length ? args[++i] : null, "error.batch.invalid_parallel");
+                if (parallelism < 0) return null;
+            } else if ("--format".equals(arg)) {
+                format = parseFormat(i + 1 < args.length ? args[++i] : null);
+                if (format == null) return null;
+            } else if ("--summary".equals(arg)) {
+                summary = true;
+            } else if (!arg.startsWith("-")) {
+                paths.add(arg);
+            }
+        }
+        if (login == null || !LOGIN.matcher(login).matches()) {
+            System.err.println(Messages.get("error.archive.user", login));
+            return null;
+        }
+        if (paths.isEmpty()) {
+            System.err.println(Messages.get("error.archive.no_files"));
+            return null;
+        }
+        EventFilter eventFilter = parseFilter(filter);
+        if (eventFilter == null) return null;
+        return new ArchiveCommand(paths, login, eventFilter, format, summary, parallelism);
+    }
+
+    // github-activity --serve <port> [--threads <n>]
+    private Command parseServe() {
+        int port = args.length > 1 ? parsePort(args[1]) : -1;
+        if (port < 0) {
+            System.err.println(Messages.get("error.serve.invalid_port", args.length > 1 ? args[1] : null));
+            return null;
+        }
+        int threads = ActivityServer.DEFAULT_THREADS;
+        for (int i = 2; i < args.length; i++) {
+            if ("--threads".equals(args[i])) {
+                threads = parsePositive(i + 1 < args.length ? args[++i] : null, "error.serve.invalid_threads");
+                if (threads < 0) return null;
+            }
+        }
+        return new ServeCommand(port, threads);
+    }
+
+    /** Whether {@code username} is a GitHub login; reports it otherwise. */
+    private static boolean isLogin(String username) {
+        if (LOGIN.matcher(username).matches()) return true;
+        System.err.println(Messages.get("error.username.invalid", username));
+        return false;
+    }
+
+    private static int parsePort(String value) {
+        try {
+            int port = Integer.parseInt(value);
+            return port >= 0 && port <= 65535 ? port : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** Adds one username per line from a file, or stdin for "-". Blank lines and # comments are skipped. */
+    private static boolean readUsernames(String source, Set<String> usernames) {
+        try (BufferedReader reader = "-".equals(source)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(source), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) usernames.add(line);
             }
+            return true;
+        } catch (IOException | InvalidPathException e) {
+            System.err.println(Messages.get("error.batch.file", source));
+            return false;
+        }
+    }
+
+    private static int parsePositive(String value, String errorKey) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number > 0) return number;
+        } catch (NumberFormatException ignored) {}
+        System.err.println(Messages.get(errorKey, value));
+        return -1;
+    }
+
+    /** Compiles a --filter expression, or returns null after reporting an invalid term. */
+    private static EventFilter parseFilter(String expression) {
+        try {
+            return EventFilter.compile(expression);
+        } catch (IllegalArgumentException e) {
+            System.err.println(Messages.get("error.filter.invalid", e.getMessage()));
+            return null;
         }
+    }
+
+    /** Returns the format, or null after reporting an unknown one. */
+    private static OutputFormat parseFormat(String value) {
+        OutputFormat format = OutputFormat.fromName(value);
+        if (format == null) System.err.println(Messages.get("error.format.invalid", value));
+        return format;
+    }
 
-        return new DefaultCommand(username, filter);
+    /** Returns the limit, or -1 after reporting an invalid value. */
+    private static int parseLimit(String value) {
+        try {
+            int limit = Integer.parseInt(value);
+            if (limit > 0) return Math.min(limit, UserActivityService.MAX_LIMIT);
+        } catch (NumberFormatException ignored) {}
+        System.err.println(Messages.get("error.limit.invalid", value));
+        return -1;
     }
 }
@@ -0,0 +1,110 @@
+package org.de013.githubuseractivity.cli.command;
+
+import org.de013.githubuseractivity.cache.ActivityCache;
+import org.de013.githubuseractivity.input.ArchiveScanner;
+import org.de013.githubuseractivity.output.OutputFormat;
+import org.de013.githubuseractivity.output.OutputSink;
+import org.de013.githubuseractivity.service.FetchResult;
+import org.de013.githubuseractivity.service.FetchStatus;
+import org.de013.githubuseractivity.service.UserActivityService;
+import org.de013.githubuseractivity.util.EventFilter;
+import org.de013.githubuseractivity.util.Messages;
+import org.de013.githubuseractivity.util.ThreadPools;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Reconstructs a user's activity from local GH Archive files.
+ * Gzip streams cannot be split, so each file is one task that decompresses it and searches the raw bytes
+ * for the user; the tasks run on a pool of {@code parallelism} threads. Every file's events form one
+ * output group, written in file order, so the output is chronological like the archive.
+ */
+public class ArchiveCommand implements Command {
+    private final List<String> paths;
+    private final String login;
+    private final EventFilter filter;
+    private final OutputFormat format;
+    private final boolean summary;
+    private final int parallelism;
+
+    public ArchiveCommand(List<String> paths, String login, EventFilter filter, OutputFormat format, boolean summary,
+                          int parallelism) {
+        this.paths = paths;
+        this.login = login;
+        this.filter = filter;
+        this.format = format;
+        this.summary = summary;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public void excute(UserActivityService userActivityService) {
+        List<Path> files;
+        try {
+            files = ArchiveScanner.archiveFiles(paths);
+        } catch (IOException | InvalidPathException e) {
+            System.err.println(Messages.get("error.archive.read", paths, e.getMessage()));
+            return;
+        }
+        if (files.isEmpty()) {
+            System.err.println(Messages.get("error.archive.no_files"));
+            return;
+        }
+
+        long started = System.nanoTime();
+        OutputSink sink = OutputSink.stdout(format, summary);
+        ExecutorService executor = ThreadPools.newFixedExecutor(parallelism);
+        try {
+            List<CompletableFuture<FileResult>> tasks = new ArrayList<>();
+            for (Path file : files) {
+                OutputSink.Group group = sink.newGroup(login);
+                tasks.add(CompletableFuture.supplyAsync(() -> scan(file, group), executor));
+            }
+
+            int events = 0;
+            long bytes = 0;
+            for (CompletableFuture<FileResult> task : tasks) {
+                if (!task.isDone()) sink.flush();
+                FileResult result = task.join();
+                if (result.error != null) {
+                    System.err.println(Messages.get("error.archive.read", result.file, result.error));
+                    continue;
+                }
+                sink.write(result.group);
+                events += result.group.eventCount();
+                bytes += result.bytes;
+            }
+            if (events == 0) {
+                OutputSink.Group empty = sink.newGroup(login);
+                empty.finish(new FetchResult(FetchStatus.OK, 200, 0, ActivityCache.DEFAULT_TTL));
+                sink.write(empty);
+            }
+            sink.close();
+
+            long millis = (System.nanoTime() - started) / 1_000_000;
+            System.err.println(Messages.get("archive.done", files.size(), bytes >> 20, events, millis));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private FileResult scan(Path file, OutputSink.Group group) {
+        ArchiveScanner scanner = new ArchiveScanner(login, filter, group.needsRawPayload());
+        try {
+            scanner.scan(file, group::event);
+            return new FileResult(file, group, scanner.bytesScanned(), null);
+        } catch (IOException | UncheckedIOException | IllegalStateException e) {
+            // A corrupt or truncated file is reported and skipped; the others still count
+            return new FileResult(file, group, scanner.bytesScanned(), e.getMessage());
+        }
+    }
+
+    private record FileResult(Path file, OutputSink.Group group, long bytes, String error) {}
+}
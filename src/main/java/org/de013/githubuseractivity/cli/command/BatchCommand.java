@@ -0,0 +1,120 @@
+package org.de013.githubuseractivity.cli.command;
+
+import org.de013.githubuseractivity.output.OutputFormat;
+import org.de013.githubuseractivity.output.OutputSink;
+import org.de013.githubuseractivity.service.FetchResult;
+import org.de013.githubuseractivity.service.RateLimiter;
+import org.de013.githubuseractivity.service.UserActivityService;
+import org.de013.githubuseractivity.util.EventFilter;
+import org.de013.githubuseractivity.util.Messages;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Fetches many users concurrently over the service's shared HTTP client, asynchronously, so the number
+ * of users in flight is bounded by {@code --parallel} rather than by threads.
+ * Each user's output is buffered and printed as one group, in input order, followed by a status summary.
+ * The summary goes to stderr for machine-readable formats so stdout stays parseable.
+ */
+public class BatchCommand implements Command {
+    public static final int DEFAULT_PARALLELISM = 8;
+
+    private final List<String> usernames;
+    private final EventFilter filter;
+    private final int limit;
+    private final int parallelism;
+    private final OutputFormat format;
+    private final boolean summary;
+
+    public BatchCommand(List<String> usernames, String filter, int limit, int parallelism) {
+        this(usernames, EventFilter.compile(filter), limit, parallelism, OutputFormat.TEXT, false);
+    }
+
+    /** @param summary print one summary over all users instead of their events */
+    public BatchCommand(List<String> usernames, EventFilter filter, int limit, int parallelism, OutputFormat format,
+                        boolean summary) {
+        this.usernames = usernames;
+        this.filter = filter;
+        this.limit = limit;
+        this.parallelism = parallelism;
+        this.format = format;
+        this.summary = summary;
+    }
+
+    @Override
+    public Duration maxRateLimitWait() {
+        return RateLimiter.DEFAULT_MAX_WAIT;
+    }
+
+    @Override
+    public void excute(UserActivityService userActivityService) {
+        if (usernames.isEmpty()) {
+            System.err.println(Messages.get("error.batch.no_users"));
+            return;
+        }
+
+        OutputSink sink = OutputSink.stdout(format, summary);
+        // Fetches do not hold a thread while waiting for GitHub; the permits only cap how many are in flight
+        Semaphore permits = new Semaphore(parallelism);
+        List<OutputSink.Group> groups = new ArrayList<>(usernames.size());
+        List<CompletableFuture<FetchResult>> futures = new ArrayList<>(usernames.size());
+        List<FetchResult> results = new ArrayList<>(usernames.size());
+        for (String username : usernames) {
+            if (!permits.tryAcquire()) {
+                sink.flush();
+                permits.acquireUninterruptibly();
+            }
+            OutputSink.Group group = sink.newGroup(username).heading();
+            groups.add(group);
+            futures.add(userActivityService.fetchUserActivityAsync(username, filter, limit, group)
+                    .thenApply(result -> {
+                        group.finish(result);
+                        return result;
+                    })
+                    .whenComplete((result, error) -> permits.release()));
+            // Write the groups that are ready, in input order, while the rest are still being fetched
+            while (results.size() < futures.size() && futures.get(results.size()).isDone()) {
+                write(sink, groups, futures, results);
+            }
+        }
+
+        // Write each remaining group as soon as it and every group before it are done; flush only
+        // when about to wait, so finished groups are not held back behind a slow user
+        while (results.size() < futures.size()) {
+            if (!futures.get(results.size()).isDone()) sink.flush();
+            write(sink, groups, futures, results);
+        }
+        sink.close();
+
+        printSummary(results, format == OutputFormat.TEXT ? System.out : System.err);
+    }
+
+    /** Writes the next group in input order, waiting for its fetch if needed. */
+    private void write(OutputSink sink, List<OutputSink.Group> groups, List<CompletableFuture<FetchResult>> futures,
+                       List<FetchResult> results) {
+        int i = results.size();
+        FetchResult result = futures.get(i).join();
+        sink.write(groups.get(i));
+        FetchErrors.print(result, usernames.get(i), System.err);
+        results.add(result);
+    }
+
+    private void printSummary(List<FetchResult> results, PrintStream out) {
+        int succeeded = 0;
+        out.println();
+        out.println(Messages.get("batch.summary.header"));
+        for (int i = 0; i < results.size(); i++) {
+            FetchResult result = results.get(i);
+            if (result.isSuccess()) succeeded++;
+            String status = Messages.get("batch.status." + result.status().name().toLowerCase());
+            out.println(Messages.get("batch.summary.line", usernames.get(i), status, result.eventCount()));
+        }
+        out.println(Messages.get("batch.summary.total", succeeded, results.size() - succeeded));
+        out.flush();
+    }
+}
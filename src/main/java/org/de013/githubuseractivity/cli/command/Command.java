@@ -1,8 +1,18 @@
 package org.de013.githubuseractivity.cli.command;
 
+import org.de013.githubuseractivity.service.RateLimiter;
 import org.de013.githubuseractivity.service.UserActivityService;
-import org.de013.githubuseractivity.service.UserActivityServiceImpl;
+
+import java.time.Duration;
 
 public interface Command {
     void excute(UserActivityService userActivityService);
+
+    /**
+     * Longest wait for the rate limit when no --max-wait is given. Someone waiting at the terminal for
+     * one user gets an error soon; commands that run unattended wait out a whole window.
+     */
+    default Duration maxRateLimitWait() {
+        return RateLimiter.INTERACTIVE_MAX_WAIT;
+    }
 }
@@ -1,20 +1,43 @@
 package org.de013.githubuseractivity.cli.command;
 
+import org.de013.githubuseractivity.output.OutputFormat;
+import org.de013.githubuseractivity.output.OutputSink;
+import org.de013.githubuseractivity.service.FetchResult;
 import org.de013.githubuseractivity.service.UserActivityService;
+import org.de013.githubuseractivity.util.EventFilter;
 
 public class DefaultCommand implements Command {
     private final String username;
-    private final String filter;
+    private final EventFilter filter;
+    private final int limit;
+    private final OutputFormat format;
+    private final boolean summary;
 
     public DefaultCommand(String username) { this(username, null); }
 
-    public DefaultCommand(String username, String filter) {
+    public DefaultCommand(String username, String filter) { this(username, filter, UserActivityService.DEFAULT_LIMIT); }
+
+    public DefaultCommand(String username, String filter, int limit) {
+        this(username, EventFilter.compile(filter), limit, OutputFormat.TEXT, false);
+    }
+
+    /** @param summary print an {@link org.de013.githubuseractivity.output.ActivitySummary} instead of the events */
+    public DefaultCommand(String username, EventFilter filter, int limit, OutputFormat format, boolean summary) {
         this.username = username;
         this.filter = filter;
+        this.limit = limit;
+        this.format = format;
+        this.summary = summary;
     }
 
     @Override
     public void excute(UserActivityService userActivityService) {
-        userActivityService.fetchUserActivity(username, filter);
+        OutputSink sink = OutputSink.stdout(format, summary);
+        OutputSink.Group group = sink.newGroup(username).streaming();
+        FetchResult result = userActivityService.fetchUserActivity(username, filter, limit, group);
+        FetchErrors.print(result, username, System.err);
+        group.finish(result);
+        sink.write(group);
+        sink.close();
     }
 }
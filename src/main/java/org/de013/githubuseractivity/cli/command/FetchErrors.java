@@ -0,0 +1,32 @@
+package org.de013.githubuseractivity.cli.command;
+
+import org.de013.githubuseractivity.service.FetchResult;
+import org.de013.githubuseractivity.util.Messages;
+
+import java.io.PrintStream;
+
+/** Prints what went wrong with a fetch; the service only reports it. */
+final class FetchErrors {
+
+    private FetchErrors() {}
+
+    /** Prints the message for an unsuccessful {@code result}, and nothing for a successful one. */
+    static void print(FetchResult result, String username, PrintStream err) {
+        switch (result.status()) {
+            case NOT_FOUND:
+                err.println(Messages.get("error.http.not_found", username));
+                break;
+            case RATE_LIMITED:
+                err.println(Messages.get("error.http.rate_limit"));
+                break;
+            case HTTP_ERROR:
+                err.println(Messages.get("error.http.generic", result.httpStatus()));
+                break;
+            case CONNECTION_ERROR:
+                err.println(Messages.get("error.http.connection"));
+                break;
+            default:
+                break;
+        }
+    }
+}
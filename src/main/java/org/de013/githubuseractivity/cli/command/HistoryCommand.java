@@ -0,0 +1,48 @@
+package org.de013.githubuseractivity.cli.command;
+
+import org.de013.githubuseractivity.cache.ActivityCache;
+import org.de013.githubuseractivity.output.OutputFormat;
+import org.de013.githubuseractivity.output.OutputSink;
+import org.de013.githubuseractivity.service.FetchResult;
+import org.de013.githubuseractivity.service.FetchStatus;
+import org.de013.githubuseractivity.service.UserActivityService;
+import org.de013.githubuseractivity.store.EventStore;
+import org.de013.githubuseractivity.util.EventFilter;
+import org.de013.githubuseractivity.util.Messages;
+
+import java.io.IOException;
+
+/** Prints events kept in the local {@link EventStore}, newest first, without contacting GitHub. */
+public class HistoryCommand implements Command {
+    private final EventStore store;
+    private final String username;
+    private final EventFilter filter;
+    private final int limit;
+    private final OutputFormat format;
+    private final boolean summary;
+
+    public HistoryCommand(EventStore store, String username, EventFilter filter, int limit, OutputFormat format,
+                          boolean summary) {
+        this.store = store;
+        this.username = username;
+        this.filter = filter;
+        this.limit = limit;
+        this.format = format;
+        this.summary = summary;
+    }
+
+    @Override
+    public void excute(UserActivityService userActivityService) {
+        OutputSink sink = OutputSink.stdout(format, summary);
+        OutputSink.Group group = sink.newGroup(username);
+        try {
+            int count = store.query(username, filter, limit, group::event);
+            group.finish(new FetchResult(FetchStatus.OK, 200, count, ActivityCache.DEFAULT_TTL));
+        } catch (IOException e) {
+            System.err.println(Messages.get("error.history.read", e.getMessage()));
+            group.finish(new FetchResult(FetchStatus.CONNECTION_ERROR, 0, 0, ActivityCache.DEFAULT_TTL));
+        }
+        sink.write(group);
+        sink.close();
+    }
+}
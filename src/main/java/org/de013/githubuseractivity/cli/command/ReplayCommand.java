@@ -0,0 +1,110 @@
+package org.de013.githubuseractivity.cli.command;
+
+import org.de013.githubuseractivity.cache.ActivityCache;
+import org.de013.githubuseractivity.input.EventInput;
+import org.de013.githubuseractivity.output.OutputFormat;
+import org.de013.githubuseractivity.output.OutputSink;
+import org.de013.githubuseractivity.service.FetchResult;
+import org.de013.githubuseractivity.service.FetchStatus;
+import org.de013.githubuseractivity.service.UserActivityService;
+import org.de013.githubuseractivity.util.EventFilter;
+import org.de013.githubuseractivity.util.Messages;
+import org.de013.githubuseractivity.util.ThreadPools;
+
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Formats recorded events from a file or stdin instead of fetching them.
+ * The input is split into chunks that are parsed and rendered in parallel, one output group per chunk,
+ * and the groups are written in input order. At most two chunks per worker are held at once, so memory
+ * stays flat however large the input is.
+ */
+public class ReplayCommand implements Command {
+    private final String source;
+    private final EventFilter filter;
+    private final OutputFormat format;
+    private final boolean summary;
+    private final int parallelism;
+
+    public ReplayCommand(String source, EventFilter filter, OutputFormat format, boolean summary, int parallelism) {
+        this.source = source;
+        this.filter = filter;
+        this.format = format;
+        this.summary = summary;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public void excute(UserActivityService userActivityService) {
+        String label = label(source);
+        OutputSink sink = OutputSink.stdout(format, summary);
+        Semaphore permits = new Semaphore(parallelism);
+        ExecutorService executor = ThreadPools.newTaskExecutor(parallelism);
+        Deque<CompletableFuture<OutputSink.Group>> pending = new ArrayDeque<>();
+        int events = 0;
+        try (EventInput input = EventInput.open(source)) {
+            EventInput.Chunk chunk;
+            while ((chunk = input.next()) != null) {
+                if (pending.size() >= parallelism * 2) events += writeOldest(pending, sink);
+                OutputSink.Group group = sink.newGroup(label);
+                EventInput.Chunk next = chunk;
+                pending.add(CompletableFuture.supplyAsync(() -> render(next, group, permits), executor));
+            }
+            while (!pending.isEmpty()) events += writeOldest(pending, sink);
+        } catch (IOException | InvalidPathException e) {
+            System.err.println(Messages.get("error.input.read", source, e.getMessage()));
+        } catch (CompletionException e) {
+            System.err.println(Messages.get("error.input.parse", source, e.getCause().getMessage()));
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+            executor.shutdown();
+        }
+
+        if (events == 0) {
+            OutputSink.Group empty = sink.newGroup(label);
+            empty.finish(new FetchResult(FetchStatus.OK, 200, 0, ActivityCache.DEFAULT_TTL));
+            sink.write(empty);
+        }
+        sink.close();
+    }
+
+    private OutputSink.Group render(EventInput.Chunk chunk, OutputSink.Group group, Semaphore permits) {
+        permits.acquireUninterruptibly();
+        try {
+            chunk.parse(filter, group.needsRawPayload(), event -> {
+                if (filter.test(event)) group.event(event);
+            });
+            return group;
+        } finally {
+            permits.release();
+        }
+    }
+
+    /** Writes the oldest chunk's group, flushing first if it still has to be waited for. */
+    private static int writeOldest(Deque<CompletableFuture<OutputSink.Group>> pending, OutputSink sink) {
+        CompletableFuture<OutputSink.Group> future = pending.peekFirst();
+        if (!future.isDone()) sink.flush();
+        OutputSink.Group group = future.join();
+        pending.removeFirst();
+        sink.write(group);
+        return group.eventCount();
+    }
+
+    private static String label(String source) {
+        if ("-".equals(source)) return "stdin";
+        try {
+            Path name = Path.of(source).getFileName();
+            return name != null ? name.toString() : source;
+        } catch (InvalidPathException e) {
+            return source;
+        }
+    }
+}
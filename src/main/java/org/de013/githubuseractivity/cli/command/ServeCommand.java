@@ -0,0 +1,57 @@
+package org.de013.githubuseractivity.cli.command;
+
+import org.de013.githubuseractivity.cache.ActivityCache;
+import org.de013.githubuseractivity.server.ActivityServer;
+import org.de013.githubuseractivity.service.RateLimiter;
+import org.de013.githubuseractivity.service.UserActivityService;
+import org.de013.githubuseractivity.service.UserActivityServiceImpl;
+import org.de013.githubuseractivity.util.Messages;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+/** Runs {@link ActivityServer} until the process is stopped. */
+public class ServeCommand implements Command {
+    private final int port;
+    private final int threads;
+
+    public ServeCommand(int port, int threads) {
+        this.port = port;
+        this.threads = threads;
+    }
+
+    @Override
+    public Duration maxRateLimitWait() {
+        return RateLimiter.DEFAULT_MAX_WAIT;
+    }
+
+    @Override
+    public void excute(UserActivityService userActivityService) {
+        ActivityCache activityCache = userActivityService instanceof UserActivityServiceImpl
+                ? ((UserActivityServiceImpl) userActivityService).getActivityCache() : null;
+        ActivityServer server;
+        try {
+            server = new ActivityServer(userActivityService, activityCache, port, threads);
+        } catch (IOException e) {
+            System.err.println(Messages.get("error.serve.bind", port, e.getMessage()));
+            return;
+        }
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            stopped.countDown();
+        }));
+        server.start();
+        System.out.println(Messages.get("serve.started", server.port()));
+        System.out.flush();
+
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            server.stop();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.de013.githubuseractivity.cli.command;
+
+import org.de013.githubuseractivity.output.OutputFormat;
+import org.de013.githubuseractivity.output.OutputSink;
+import org.de013.githubuseractivity.service.FetchResult;
+import org.de013.githubuseractivity.service.RateLimiter;
+import org.de013.githubuseractivity.service.UserActivityService;
+import org.de013.githubuseractivity.util.BoundedIdSet;
+import org.de013.githubuseractivity.util.EventFilter;
+import org.de013.githubuseractivity.util.Messages;
+
+import java.time.Duration;
+
+/**
+ * Polls a user's activity at the interval GitHub advertises and prints only events not seen before.
+ * Runs until interrupted. Each new event is printed as soon as it is parsed; JSON output is written as
+ * NDJSON, since an array that never ends cannot be parsed.
+ */
+public class WatchCommand implements Command {
+    /** Comfortably larger than the 300-event window GitHub can return in one poll. */
+    private static final int SEEN_CAPACITY = 4096;
+    private static final Duration MIN_INTERVAL = Duration.ofSeconds(1);
+
+    private final String username;
+    private final EventFilter filter;
+    private final int limit;
+    private final OutputFormat format;
+
+    public WatchCommand(String username, String filter, int limit) {
+        this(username, EventFilter.compile(filter), limit, OutputFormat.TEXT);
+    }
+
+    public WatchCommand(String username, EventFilter filter, int limit, OutputFormat format) {
+        this.username = username;
+        this.filter = filter;
+        this.limit = limit;
+        this.format = format == OutputFormat.JSON ? OutputFormat.NDJSON : format;
+    }
+
+    @Override
+    public Duration maxRateLimitWait() {
+        return RateLimiter.DEFAULT_MAX_WAIT;
+    }
+
+    @Override
+    public void excute(UserActivityService userActivityService) {
+        BoundedIdSet seen = new BoundedIdSet(SEEN_CAPACITY);
+        EventFilter accept = filter.and(event -> seen.add(event.id()));
+
+        OutputSink sink = OutputSink.stdout(format);
+        // Keep machine-readable stdout free of status lines
+        (format == OutputFormat.TEXT ? System.out : System.err).println(Messages.get("watch.started", username));
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                OutputSink.Group group = sink.newGroup(username).streaming();
+                FetchResult result = userActivityService.fetchUserActivity(username, accept, limit, group);
+                FetchErrors.print(result, username, System.err);
+                sink.write(group);
+                sink.flush();
+
+                Duration interval = result.pollInterval();
+                if (interval.compareTo(MIN_INTERVAL) < 0) interval = MIN_INTERVAL;
+                Thread.sleep(interval.toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package org.de013.githubuseractivity.input;
+
+import org.de013.githubuseractivity.model.GitHubEvent;
+import org.de013.githubuseractivity.util.EventFilter;
+import org.de013.githubuseractivity.util.EventParser;
+import org.de013.githubuseractivity.util.JsonTokenizer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Finds one user's events in GH Archive dumps: hourly {@code .json.gz} files of NDJSON holding every
+ * public event on GitHub, a few hundred MB each once decompressed.
+ * <p>
+ * The decompressed bytes are searched for {@code "login":"<user>"} directly; only lines containing it
+ * are decoded and parsed, and of those only events whose actor is the user are passed on. Nearly all
+ * of the input is therefore never turned into characters, let alone strings. Not thread-safe; use one
+ * scanner per file.
+ */
+public final class ArchiveScanner {
+    private static final int BUFFER_BYTES = 1 << 20;
+    private static final byte[] LOGIN_KEY = "\"login\":\"".getBytes(StandardCharsets.US_ASCII);
+
+    private final String login;
+    private final byte[] lowerLogin;
+    private final byte[] upperLogin;
+    private final EventFilter filter;
+    private final boolean keepRaw;
+    private byte[] buffer = new byte[BUFFER_BYTES];
+    private long bytesScanned;
+
+    /** @param login an ASCII GitHub login, matched case-insensitively */
+    public ArchiveScanner(String login, EventFilter filter) {
+        this(login, filter, true);
+    }
+
+    /**
+     * @param login   an ASCII GitHub login, matched case-insensitively
+     * @param keepRaw whether the events keep their raw payload JSON, for output that writes it
+     */
+    public ArchiveScanner(String login, EventFilter filter, boolean keepRaw) {
+        this.login = login;
+        this.lowerLogin = login.toLowerCase().getBytes(StandardCharsets.US_ASCII);
+        this.upperLogin = login.toUpperCase().getBytes(StandardCharsets.US_ASCII);
+        this.filter = filter;
+        this.keepRaw = keepRaw;
+    }
+
+    /**
+     * Archive files among {@code paths}, directories expanded to their {@code .json.gz} files. Files from a
+     * directory are in chronological order: GH Archive does not pad the hour, so runs of digits in the
+     * name compare as numbers and "2024-05-01-2" comes before "2024-05-01-11".
+     */
+    public static List<Path> archiveFiles(List<String> paths) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (String path : paths) {
+            Path p = Path.of(path);
+            if (Files.isDirectory(p)) {
+                try (Stream<Path> entries = Files.list(p)) {
+                    entries.filter(f -> f.getFileName().toString().endsWith(".json.gz"))
+                            .sorted((a, b) -> compareNatural(a.getFileName().toString(), b.getFileName().toString()))
+                            .forEach(files::add);
+                }
+            } else {
+                files.add(p);
+            }
+        }
+        return files;
+    }
+
+    static int compareNatural(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            char ca = a.charAt(i);
+            char cb = b.charAt(j);
+            if (Character.isDigit(ca) && Character.isDigit(cb)) {
+                int endA = i;
+                int endB = j;
+                while (endA < a.length() && Character.isDigit(a.charAt(endA))) endA++;
+                while (endB < b.length() && Character.isDigit(b.charAt(endB))) endB++;
+                int order = Long.compare(Long.parseLong(a.substring(i, endA)), Long.parseLong(b.substring(j, endB)));
+                if (order != 0) return order;
+                i = endA;
+                j = endB;
+            } else {
+                if (ca != cb) return Character.compare(ca, cb);
+                i++;
+                j++;
+            }
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+
+    /** Scans a gzip file, which may hold several concatenated members as GH Archive's do. */
+    public int scan(Path file, Consumer<GitHubEvent> consumer) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file), 1 << 16)) {
+            return scan(in, consumer);
+        }
+    }
+
+    /** Scans decompressed NDJSON and returns how many events were passed to {@code consumer}. */
+    public int scan(InputStream in, Consumer<GitHubEvent> consumer) throws IOException {
+        int matched = 0;
+        int length = 0;
+        while (true) {
+            int read = in.readNBytes(buffer, length, buffer.length - length);
+            boolean eof = read <= 0;
+            length += Math.max(read, 0);
+            bytesScanned += Math.max(read, 0);
+
+            // Search complete lines only, so a hit's line is always whole
+            int end = eof ? length : lastNewline(buffer, length) + 1;
+            int at = 0;
+            while ((at = indexOfLogin(buffer, at, end)) >= 0) {
+                int lineStart = lastNewline(buffer, at) + 1;
+                int lineEnd = indexOf(buffer, (byte) '\n', at, end);
+                if (lineEnd < 0) lineEnd = end;
+                matched += parseLine(buffer, lineStart, lineEnd, consumer);
+                at = lineEnd;
+            }
+            if (eof) return matched;
+
+            if (end == 0) {
+                // A single line larger than the buffer
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                continue;
+            }
+            // Keep the incomplete last line for the next read
+            System.arraycopy(buffer, end, buffer, 0, length - end);
+            length -= end;
+        }
+    }
+
+    /** Decompressed bytes seen so far. */
+    public long bytesScanned() { return bytesScanned; }
+
+    private int parseLine(byte[] bytes, int from, int to, Consumer<GitHubEvent> consumer) {
+        char[] chars = new char[to - from];
+        CharBuffer out = CharBuffer.wrap(chars);
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        decoder.decode(ByteBuffer.wrap(bytes, from, to - from), out, true);
+        decoder.flush(out);
+
+        int[] matched = new int[1];
+        EventParser.parse(new JsonTokenizer(chars, 0, out.position()), filter, keepRaw, event -> {
+            // The login may also have appeared in the payload, e.g. as the author of a pull request
+            if (login.equalsIgnoreCase(event.actor()) && filter.test(event)) {
+                consumer.accept(event);
+                matched[0]++;
+            }
+        });
+        return matched[0];
+    }
+
+    /** Index of the first {@code "login":"<user>"} in [from, to), followed by the closing quote, or -1. */
+    private int indexOfLogin(byte[] bytes, int from, int to) {
+        byte first = lowerLogin[0];
+        byte firstUpper = upperLogin[0];
+        for (int i = from + LOGIN_KEY.length; i + lowerLogin.length < to; i++) {
+            byte b = bytes[i];
+            if (b != first && b != firstUpper) continue;
+            int start = i - LOGIN_KEY.length;
+            if (!matchesAt(bytes, i) || bytes[i + lowerLogin.length] != '"') continue;
+            if (regionEquals(bytes, start, LOGIN_KEY)) return start;
+        }
+        return -1;
+    }
+
+    private boolean matchesAt(byte[] bytes, int at) {
+        for (int j = 1; j < lowerLogin.length; j++) {
+            byte b = bytes[at + j];
+            if (b != lowerLogin[j] && b != upperLogin[j]) return false;
+        }
+        return true;
+    }
+
+    private static boolean regionEquals(byte[] bytes, int at, byte[] expected) {
+        for (int j = 0; j < expected.length; j++) {
+            if (bytes[at + j] != expected[j]) return false;
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] bytes, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == value) return i;
+        }
+        return -1;
+    }
+
+    private static int lastNewline(byte[] bytes, int before) {
+        for (int i = before - 1; i >= 0; i--) {
+            if (bytes[i] == '\n') return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,202 @@
+package org.de013.githubuseractivity.input;
+
+import org.de013.githubuseractivity.model.GitHubEvent;
+import org.de013.githubuseractivity.util.EventFilter;
+import org.de013.githubuseractivity.util.EventParser;
+import org.de013.githubuseractivity.util.JsonTokenizer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Recorded events read back from a file or stdin: an API response (a JSON array, or several arrays one
+ * after another) or an NDJSON export.
+ * <p>
+ * The input is cut into {@link Chunk}s of whole event objects, about {@code chunkBytes} each, that can be
+ * parsed independently and in parallel. Finding the cuts only tracks nesting and string quotes, byte by
+ * byte, far cheaper than the parse itself. A file's chunks are memory-mapped; stdin is read into memory
+ * one chunk at a time.
+ */
+public final class EventInput implements Closeable {
+    public static final int DEFAULT_CHUNK_BYTES = 4 << 20;
+    private static final int READ_BYTES = 1 << 20;
+
+    private final FileChannel channel;
+    private final InputStream stream;
+    private final int chunkBytes;
+
+    // Bytes [windowStart, windowStart + windowLength) of the input
+    private byte[] window = new byte[READ_BYTES];
+    private long windowStart;
+    private int windowLength;
+
+    // Scanner state
+    private long position;
+    private int recordDepth = -1; // 1 inside arrays, 0 for a sequence of objects; known after the first value
+    private int depth;
+    private boolean inString;
+    private boolean escaped;
+    private long chunkStart = -1;
+    private long recordEnd = -1;
+    private int chunkCount;
+
+    private EventInput(FileChannel channel, InputStream stream, int chunkBytes) {
+        this.channel = channel;
+        this.stream = stream;
+        this.chunkBytes = chunkBytes;
+    }
+
+    /** Opens a file, or stdin for "-". */
+    public static EventInput open(String source) throws IOException {
+        return "-".equals(source) ? of(System.in, DEFAULT_CHUNK_BYTES) : of(Path.of(source), DEFAULT_CHUNK_BYTES);
+    }
+
+    public static EventInput of(Path file, int chunkBytes) throws IOException {
+        return new EventInput(FileChannel.open(file, StandardOpenOption.READ), null, chunkBytes);
+    }
+
+    public static EventInput of(InputStream stream, int chunkBytes) {
+        return new EventInput(null, stream, chunkBytes);
+    }
+
+    /** The next chunk of whole events in input order, or null at the end of the input. */
+    public Chunk next() throws IOException {
+        while (true) {
+            if (position == windowStart + windowLength && !fill()) break;
+            byte b = window[(int) (position - windowStart)];
+            position++;
+
+            if (inString) {
+                if (escaped) escaped = false;
+                else if (b == '\\') escaped = true;
+                else if (b == '"') inString = false;
+                continue;
+            }
+            switch (b) {
+                case '"':
+                    inString = true;
+                    break;
+                case '{':
+                case '[':
+                    if (recordDepth < 0) recordDepth = b == '[' ? 1 : 0;
+                    if (b == '{' && depth == recordDepth && chunkStart < 0) chunkStart = position - 1;
+                    depth++;
+                    break;
+                case '}':
+                case ']':
+                    depth--;
+                    if (b == '}' && depth == recordDepth) {
+                        recordEnd = position;
+                        if (recordEnd - chunkStart >= chunkBytes) return emit(recordEnd);
+                    } else if (depth < recordDepth && chunkStart >= 0) {
+                        // An array closed: a chunk never spans two arrays, so it can be wrapped in one
+                        return emit(recordEnd);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (chunkStart < 0) return null;
+        // An unfinished last event is passed on whole so parsing it reports the error
+        return emit(depth > recordDepth ? position : recordEnd);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) channel.close();
+    }
+
+    private Chunk emit(long end) throws IOException {
+        ByteBuffer bytes;
+        if (channel != null) {
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, end - chunkStart);
+        } else {
+            int from = (int) (chunkStart - windowStart);
+            bytes = ByteBuffer.wrap(Arrays.copyOfRange(window, from, from + (int) (end - chunkStart)));
+        }
+        chunkStart = -1;
+        return new Chunk(chunkCount++, bytes, recordDepth == 1);
+    }
+
+    /** Makes the byte at {@code position} available; false at the end of the input. */
+    private boolean fill() throws IOException {
+        if (channel != null) {
+            windowStart = position;
+            windowLength = 0;
+            int read = channel.read(ByteBuffer.wrap(window), position);
+            if (read <= 0) return false;
+            windowLength = read;
+            return true;
+        }
+
+        // Keep the bytes of the chunk being scanned, growing the window if the chunk does not fit
+        long keepFrom = chunkStart >= 0 ? chunkStart : position;
+        int keep = (int) (windowStart + windowLength - keepFrom);
+        if (keep + READ_BYTES > window.length) {
+            window = Arrays.copyOfRange(window, (int) (keepFrom - windowStart), Math.max(window.length * 2, keep + READ_BYTES));
+        } else {
+            System.arraycopy(window, (int) (keepFrom - windowStart), window, 0, keep);
+        }
+        windowStart = keepFrom;
+        windowLength = keep;
+        int read = stream.readNBytes(window, keep, READ_BYTES);
+        if (read <= 0) return false;
+        windowLength += read;
+        return true;
+    }
+
+    /** A run of whole event objects from the input. Parsing it does not touch the {@link EventInput}. */
+    public static final class Chunk {
+        private final int index;
+        private final ByteBuffer bytes;
+        private final boolean inArray;
+
+        private Chunk(int index, ByteBuffer bytes, boolean inArray) {
+            this.index = index;
+            this.bytes = bytes;
+            this.inArray = inArray;
+        }
+
+        /** Position of this chunk in the input, starting at 0. */
+        public int index() { return index; }
+
+        public int byteCount() { return bytes.limit(); }
+
+        /**
+         * Hands every event to {@code consumer}; the filter only lets the parser skip payloads, see
+         * {@link EventParser#parse(JsonTokenizer, EventFilter, Consumer)}.
+         *
+         * @throws IllegalStateException if the chunk is not valid JSON
+         */
+        public int parse(EventFilter filter, Consumer<GitHubEvent> consumer) {
+            return parse(filter, true, consumer);
+        }
+
+        /** Like {@link #parse(EventFilter, Consumer)}, copying each payload's raw JSON only when {@code keepRaw} is set. */
+        public int parse(EventFilter filter, boolean keepRaw, Consumer<GitHubEvent> consumer) {
+            // Decoded UTF-8 never has more chars than bytes; array elements are wrapped back into an array
+            char[] chars = new char[bytes.limit() + 2];
+            CharBuffer out = CharBuffer.wrap(chars);
+            if (inArray) out.put('[');
+            CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            decoder.decode(bytes.duplicate(), out, true);
+            decoder.flush(out);
+            if (inArray) out.put(']');
+            return EventParser.parse(new JsonTokenizer(chars, 0, out.position()), filter, keepRaw, consumer);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.de013.githubuseractivity.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * GitHub event types as reported in the "type" field of the events API.
+ * Each type has a fixed {@link #code()} that the event store persists, so constants may be added or
+ * reordered freely; a code is never changed or reused.
+ */
+public enum EventType {
+    PUSH(0, "PushEvent"),
+    WATCH(1, "WatchEvent"),
+    FORK(2, "ForkEvent"),
+    CREATE(3, "CreateEvent"),
+    DELETE(4, "DeleteEvent"),
+    ISSUES(5, "IssuesEvent"),
+    PULL_REQUEST(6, "PullRequestEvent"),
+    PULL_REQUEST_REVIEW(7, "PullRequestReviewEvent"),
+    PULL_REQUEST_REVIEW_COMMENT(8, "PullRequestReviewCommentEvent"),
+    RELEASE(9, "ReleaseEvent"),
+    ISSUE_COMMENT(10, "IssueCommentEvent"),
+    COMMIT_COMMENT(11, "CommitCommentEvent"),
+    MEMBER(12, "MemberEvent"),
+    PUBLIC(13, "PublicEvent"),
+    GOLLUM(14, "GollumEvent"),
+    UNKNOWN(15, null);
+
+    private static final Map<String, EventType> BY_API_NAME = new HashMap<>();
+    private static final Map<String, EventType> BY_KEY = new HashMap<>();
+    private static final Map<Integer, EventType> BY_CODE = new HashMap<>();
+
+    static {
+        for (EventType type : values()) {
+            BY_CODE.put(type.code, type);
+            if (type.apiName != null) {
+                BY_API_NAME.put(type.apiName, type);
+                BY_KEY.put(key(type.apiName), type);
+            }
+        }
+    }
+
+    private final int code;
+    private final String apiName;
+
+    EventType(int code, String apiName) {
+        this.code = code;
+        this.apiName = apiName;
+    }
+
+    /** Stable number identifying the type on disk. */
+    public int code() { return code; }
+
+    public String apiName() { return apiName; }
+
+    /** Resolves a {@link #code()}; codes this version does not know map to {@link #UNKNOWN}. */
+    public static EventType fromCode(int code) {
+        EventType type = BY_CODE.get(code);
+        return type != null ? type : UNKNOWN;
+    }
+
+    /** Resolves an API type name such as "PushEvent"; unrecognised names map to {@link #UNKNOWN}. */
+    public static EventType fromApiName(String name) {
+        if (name == null) return UNKNOWN;
+        EventType type = BY_API_NAME.get(name);
+        return type != null ? type : UNKNOWN;
+    }
+
+    /** Resolves a user-supplied alias like "push", "PushEvent" or "pullrequest"; returns null if none matches. */
+    public static EventType fromAlias(String alias) {
+        return alias == null ? null : BY_KEY.get(key(alias));
+    }
+
+    /** Reduces a type name or alias to a comparable key: "PushEvent" and "push" → "push". */
+    public static String key(String name) {
+        return name.toLowerCase().replace("event", "").replace("_", "");
+    }
+}
@@ -0,0 +1,17 @@
+package org.de013.githubuseractivity.model;
+
+/**
+ * One entry of the GitHub events API, decoded once and shared by filtering, aggregation and rendering.
+ *
+ * @param id        event id as sent by GitHub (a decimal string)
+ * @param type      resolved event type, {@link EventType#UNKNOWN} for types this tool does not know
+ * @param typeName  the raw "type" field, kept so unknown types can still be matched and reported
+ * @param actor     login of the user who triggered the event
+ * @param repo      full name of the repository, e.g. "octocat/hello"
+ * @param createdAt ISO-8601 timestamp as sent by GitHub
+ * @param payload   payload fields, decoded by the parser while it reads the event; never null.
+ *                  Its {@link Payload#raw()} JSON is only available if the parser was told to keep it
+ */
+public record GitHubEvent(String id, EventType type, String typeName, String actor, String repo,
+                          String createdAt, Payload payload) {
+}
@@ -0,0 +1,114 @@
+package org.de013.githubuseractivity.model;
+
+import org.de013.githubuseractivity.util.JsonTokenizer;
+
+/**
+ * View over an event's "payload" object.
+ * The parser decodes the few fields below eagerly, in the same pass that reads the payload, and keeps the
+ * raw JSON only when asked to, for output that writes the payload back out; {@link #raw()} throws for a
+ * payload parsed without it. Only a payload built from raw JSON, such as one read back from the event
+ * store, is decoded the first time a field is read.
+ */
+public final class Payload {
+    public static final Payload EMPTY = new Payload("{}");
+    /** Stands in for a payload the parser skipped because the event was already filtered out. */
+    public static final Payload SKIPPED = new Payload("{}");
+
+    private final String raw;
+    private volatile Fields fields;
+
+    public Payload(String raw) {
+        this.raw = raw;
+    }
+
+    private Payload(String raw, Fields fields) {
+        this.raw = raw;
+        this.fields = fields;
+    }
+
+    /**
+     * Reads the payload object the tokenizer is positioned at, decoding its fields in the same pass.
+     * The raw JSON is copied only when {@code keepRaw} is set; otherwise {@link #raw()} is unavailable.
+     */
+    public static Payload read(JsonTokenizer tokenizer, boolean keepRaw) {
+        if (!keepRaw) return new Payload(null, decode(tokenizer));
+        tokenizer.beginCapture();
+        Fields decoded;
+        String raw;
+        try {
+            decoded = decode(tokenizer);
+        } finally {
+            raw = tokenizer.endCapture();
+        }
+        return new Payload(raw, decoded);
+    }
+
+    /**
+     * The payload exactly as it appeared in the response.
+     *
+     * @throws IllegalStateException if the parser was told not to keep it
+     */
+    public String raw() {
+        if (raw == null) throw new IllegalStateException("Payload JSON was not kept by the parser");
+        return raw;
+    }
+
+    /** Whether {@link #raw()} is available. */
+    public boolean hasRaw() { return raw != null; }
+
+    public String action() { return fields().action; }
+
+    public String refType() { return fields().refType; }
+
+    /** The "size" field of a PushEvent, or 0 when absent. */
+    public long size() { return fields().size; }
+
+    /** Number of entries in the "commits" array, or 0 when absent. */
+    public int commitCount() { return fields().commitCount; }
+
+    public boolean isDecoded() { return fields != null; }
+
+    private Fields fields() {
+        Fields decoded = fields;
+        if (decoded == null) {
+            decoded = decode(raw);
+            fields = decoded;
+        }
+        return decoded;
+    }
+
+    private static Fields decode(String raw) {
+        JsonTokenizer tokenizer = new JsonTokenizer(raw);
+        if (tokenizer.peek() != JsonTokenizer.Token.BEGIN_OBJECT) return new Fields();
+        return decode(tokenizer);
+    }
+
+    private static Fields decode(JsonTokenizer tokenizer) {
+        Fields decoded = new Fields();
+        tokenizer.beginObject();
+        while (tokenizer.hasNext()) {
+            String name = tokenizer.nextName();
+            JsonTokenizer.Token value = tokenizer.peek();
+            if ("action".equals(name) && value == JsonTokenizer.Token.STRING) {
+                decoded.action = tokenizer.nextString();
+            } else if ("ref_type".equals(name) && value == JsonTokenizer.Token.STRING) {
+                decoded.refType = tokenizer.nextString();
+            } else if ("size".equals(name) && value == JsonTokenizer.Token.NUMBER) {
+                decoded.size = tokenizer.nextLong(0);
+            } else if ("commits".equals(name) && value == JsonTokenizer.Token.BEGIN_ARRAY) {
+                decoded.commitCount = tokenizer.countArrayElements();
+            } else {
+                tokenizer.skipValue();
+            }
+        }
+        tokenizer.endObject();
+        return decoded;
+    }
+
+    private static final class Fields {
+        String action;
+        String refType;
+        long size;
+        int commitCount;
+    }
+}
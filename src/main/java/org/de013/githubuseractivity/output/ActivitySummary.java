@@ -0,0 +1,153 @@
+package org.de013.githubuseractivity.output;
+
+import org.de013.githubuseractivity.model.EventType;
+import org.de013.githubuseractivity.model.GitHubEvent;
+import org.de013.githubuseractivity.util.EventFormatter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Running totals over a stream of events: counts per type, repository, user, day and hour of day,
+ * plus the number of commits pushed. Each event updates a few primitive counters and is not kept,
+ * so memory depends on the number of distinct repositories and days, not on the number of events.
+ * Not thread-safe.
+ */
+public class ActivitySummary {
+    private static final EventType[] TYPES = EventType.values();
+
+    private long events;
+    private long commits;
+    private final long[] typeCounts = new long[TYPES.length];
+    private final Map<String, long[]> otherTypes = new HashMap<>();
+    private final Map<String, long[]> repos = new HashMap<>();
+    private final Map<String, long[]> users = new LinkedHashMap<>();
+    private final long[] hours = new long[24];
+    // Counts per day, indexed by epoch day - firstDay
+    private long[] days = new long[0];
+    private int firstDay;
+
+    public void add(String username, GitHubEvent event) {
+        events++;
+        if (event.type() == EventType.UNKNOWN) {
+            increment(otherTypes, event.typeName() != null ? event.typeName() : "unknown");
+        } else {
+            typeCounts[event.type().ordinal()]++;
+        }
+        if (event.type() == EventType.PUSH) commits += EventFormatter.commitCount(event);
+        if (event.repo() != null) increment(repos, event.repo());
+        if (username != null) increment(users, username);
+
+        String createdAt = event.createdAt();
+        if (createdAt != null && createdAt.length() >= 13) {
+            int day = epochDay(createdAt);
+            int hour = digits(createdAt, 11, 2);
+            if (day != Integer.MIN_VALUE && hour >= 0 && hour < 24) {
+                countDay(day);
+                hours[hour]++;
+            }
+        }
+    }
+
+    public long events() { return events; }
+
+    public long commits() { return commits; }
+
+    /** Event types by count, most frequent first. */
+    public List<Map.Entry<String, Long>> types() {
+        Map<String, Long> counts = new HashMap<>();
+        for (EventType type : TYPES) {
+            if (typeCounts[type.ordinal()] > 0) counts.put(type.apiName(), typeCounts[type.ordinal()]);
+        }
+        otherTypes.forEach((name, count) -> counts.put(name, count[0]));
+        return byCount(counts);
+    }
+
+    /** Repositories by count, most active first. */
+    public List<Map.Entry<String, Long>> repos() {
+        Map<String, Long> counts = new HashMap<>();
+        repos.forEach((name, count) -> counts.put(name, count[0]));
+        return byCount(counts);
+    }
+
+    /** Users in the order they were first seen. */
+    public List<Map.Entry<String, Long>> users() {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>();
+        users.forEach((name, count) -> entries.add(Map.entry(name, count[0])));
+        return entries;
+    }
+
+    /** Days with activity, oldest first, as yyyy-MM-dd in UTC. */
+    public List<Map.Entry<String, Long>> days() {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>();
+        for (int i = 0; i < days.length; i++) {
+            if (days[i] > 0) entries.add(Map.entry(LocalDate.ofEpochDay(firstDay + i).toString(), days[i]));
+        }
+        return entries;
+    }
+
+    /** Events per hour of day in UTC, indexed 0 to 23. */
+    public long[] hours() {
+        return hours.clone();
+    }
+
+    private static void increment(Map<String, long[]> counts, String key) {
+        long[] count = counts.get(key);
+        if (count == null) counts.put(key, count = new long[1]);
+        count[0]++;
+    }
+
+    private void countDay(int day) {
+        if (days.length == 0) {
+            firstDay = day;
+            days = new long[32];
+        } else if (day < firstDay) {
+            long[] grown = new long[days.length + (firstDay - day)];
+            System.arraycopy(days, 0, grown, firstDay - day, days.length);
+            days = grown;
+            firstDay = day;
+        } else if (day - firstDay >= days.length) {
+            long[] grown = new long[Math.max(days.length * 2, day - firstDay + 1)];
+            System.arraycopy(days, 0, grown, 0, days.length);
+            days = grown;
+        }
+        days[day - firstDay]++;
+    }
+
+    private static List<Map.Entry<String, Long>> byCount(Map<String, Long> counts) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()));
+        return entries;
+    }
+
+    /** Days since 1970-01-01 of a "yyyy-MM-dd..." timestamp, without allocating; MIN_VALUE if malformed. */
+    static int epochDay(String timestamp) {
+        int year = digits(timestamp, 0, 4);
+        int month = digits(timestamp, 5, 2);
+        int day = digits(timestamp, 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) return Integer.MIN_VALUE;
+
+        // Days from civil, counting years from March so the leap day is last
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int digits(String s, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
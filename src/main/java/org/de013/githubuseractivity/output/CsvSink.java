@@ -0,0 +1,50 @@
+package org.de013.githubuseractivity.output;
+
+import org.de013.githubuseractivity.model.GitHubEvent;
+import org.de013.githubuseractivity.util.EventFormatter;
+import org.de013.githubuseractivity.util.Messages;
+
+import java.io.Writer;
+
+/** RFC 4180 style CSV: a header row, then one row per event; fields are quoted only when needed. */
+class CsvSink extends OutputSink {
+    static final String HEADER = "user,id,type,actor,repo,created_at,text\n";
+
+    CsvSink(Writer out, Messages.Language language) {
+        super(out, language);
+    }
+
+    @Override
+    protected String prologue() {
+        return HEADER;
+    }
+
+    @Override
+    protected void record(StringBuilder sb, String username, GitHubEvent event) {
+        field(sb, username).append(',');
+        field(sb, event.id()).append(',');
+        field(sb, event.typeName()).append(',');
+        field(sb, event.actor()).append(',');
+        field(sb, event.repo()).append(',');
+        field(sb, event.createdAt()).append(',');
+        field(sb, EventFormatter.format(event, language)).append('\n');
+    }
+
+    static StringBuilder field(StringBuilder sb, String value) {
+        if (value == null) return sb;
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) return sb.append(value);
+
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') sb.append('"');
+            sb.append(c);
+        }
+        return sb.append('"');
+    }
+}
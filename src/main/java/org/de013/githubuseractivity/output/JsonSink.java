@@ -0,0 +1,47 @@
+package org.de013.githubuseractivity.output;
+
+import org.de013.githubuseractivity.model.GitHubEvent;
+import org.de013.githubuseractivity.util.EventFormatter;
+import org.de013.githubuseractivity.util.JsonWriter;
+import org.de013.githubuseractivity.util.Messages;
+
+import java.io.Writer;
+
+/** Events as JSON objects, either inside one array or one per line (NDJSON). */
+class JsonSink extends OutputSink {
+    private final boolean array;
+
+    JsonSink(Writer out, Messages.Language language, boolean array) {
+        super(out, language);
+        this.array = array;
+    }
+
+    @Override
+    protected String prologue() {
+        return array ? "[" : "";
+    }
+
+    @Override
+    protected String epilogue(boolean wroteRecord) {
+        return array ? (wroteRecord ? "\n]\n" : "]\n") : "";
+    }
+
+    @Override
+    protected String separator() {
+        return array ? "," : "";
+    }
+
+    @Override
+    protected boolean writesPayload() {
+        return true;
+    }
+
+    @Override
+    protected void record(StringBuilder sb, String username, GitHubEvent event) {
+        if (array) sb.append('\n');
+        JsonWriter json = new JsonWriter(sb).beginObject().name("user").value(username);
+        EventFormatter.writeJsonFields(json, event, language);
+        json.endObject();
+        if (!array) sb.append('\n');
+    }
+}
@@ -0,0 +1,22 @@
+package org.de013.githubuseractivity.output;
+
+/** Values accepted by {@code --format}. */
+public enum OutputFormat {
+    /** Human-readable lines in the configured language. */
+    TEXT,
+    /** One JSON array holding every event of the run. */
+    JSON,
+    /** One JSON object per line. */
+    NDJSON,
+    /** Comma-separated values with a header row. */
+    CSV;
+
+    /** Parses a format name case-insensitively; returns null when it is not one of the formats. */
+    public static OutputFormat fromName(String name) {
+        if (name == null) return null;
+        for (OutputFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) return format;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,203 @@
+package org.de013.githubuseractivity.output;
+
+import org.de013.githubuseractivity.model.GitHubEvent;
+import org.de013.githubuseractivity.service.FetchResult;
+import org.de013.githubuseractivity.util.Messages;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Destination for fetched events in one of the {@link OutputFormat}s.
+ * Events are rendered into a {@link Group} per user, on whichever thread fetched them, and a finished
+ * group is written in one piece. Nothing reaches the underlying writer until {@link #flush()}, so a
+ * batch costs one write instead of one per line. A single user's output instead uses a
+ * {@link Group#streaming() streaming} group, which writes and flushes every event as it is rendered.
+ */
+public abstract class OutputSink implements Flushable, Closeable {
+    public static final int BUFFER_SIZE = 1 << 16;
+
+    protected final Messages.Language language;
+    private final Writer out;
+    private boolean started;
+    private boolean wroteRecord;
+
+    protected OutputSink(Writer out, Messages.Language language) {
+        this.out = out;
+        this.language = language;
+    }
+
+    public static OutputSink create(OutputFormat format, Writer out, Messages.Language language) {
+        switch (format) {
+            case JSON: return new JsonSink(out, language, true);
+            case NDJSON: return new JsonSink(out, language, false);
+            case CSV: return new CsvSink(out, language);
+            default: return new TextSink(out, language);
+        }
+    }
+
+    /** A sink that aggregates events and writes only their {@link ActivitySummary}, in {@code format}. */
+    public static OutputSink summary(OutputFormat format, Writer out, Messages.Language language) {
+        return new SummarySink(out, language, format);
+    }
+
+    /** A buffered sink over {@code System.out}. Closing it flushes but leaves {@code System.out} open. */
+    public static OutputSink stdout(OutputFormat format) {
+        return stdout(format, false);
+    }
+
+    public static OutputSink stdout(OutputFormat format, boolean summary) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        return summary ? summary(format, writer, Messages.currentLanguage) : create(format, writer, Messages.currentLanguage);
+    }
+
+    public Group newGroup(String username) {
+        return new Group(username);
+    }
+
+    /**
+     * Appends a finished group; groups appear in the order they are written. For a streaming group only
+     * what was rendered since its last event is left to append.
+     */
+    public synchronized void write(Group group) {
+        start();
+        if (group.records > 0 && !group.separated) {
+            if (wroteRecord) append(separator());
+            wroteRecord = true;
+            group.separated = true;
+        }
+        append(group.text);
+        group.text.setLength(0);
+    }
+
+    @Override
+    public synchronized void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Completes the document, e.g. closes the JSON array, and flushes. Does not close the writer. */
+    @Override
+    public synchronized void close() {
+        start();
+        append(epilogue(wroteRecord));
+        flush();
+    }
+
+    /** Written before the first group. */
+    protected String prologue() { return ""; }
+
+    /** Written by {@link #close()}. */
+    protected String epilogue(boolean wroteRecord) { return ""; }
+
+    /** Written between two records. */
+    protected String separator() { return ""; }
+
+    /** Title of a user's group in multi-user output. */
+    protected void heading(StringBuilder sb, String username) {}
+
+    /** Reports a successful fetch that produced no events. */
+    protected void noActivity(StringBuilder sb, String username) {}
+
+    protected abstract void record(StringBuilder sb, String username, GitHubEvent event);
+
+    /** Whether {@link #record} writes each event's raw payload JSON, which the parser then has to keep. */
+    protected boolean writesPayload() { return false; }
+
+    private void start() {
+        if (started) return;
+        started = true;
+        append(prologue());
+    }
+
+    private void append(CharSequence text) {
+        try {
+            out.append(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** The rendered output of one user. Not thread-safe; each fetch fills its own group. */
+    public final class Group {
+        private final String username;
+        private final StringBuilder text = new StringBuilder(1024);
+        private int records;
+        private boolean streaming;
+        // Set once the separator from the previous group is written
+        private boolean separated;
+        // Only while a flight recording wants it, so rendering is not timed otherwise
+        private RenderEvent render;
+
+        private Group(String username) {
+            this.username = username;
+            RenderEvent event = new RenderEvent();
+            if (event.isEnabled()) render = event;
+        }
+
+        public Group heading() {
+            OutputSink.this.heading(text, username);
+            return this;
+        }
+
+        /**
+         * Writes every event to the sink and flushes as soon as it is rendered, so the first line appears
+         * while the rest is still downloading and only one event is held at a time. Groups written in
+         * input order, as in a batch, cannot stream.
+         */
+        public Group streaming() {
+            streaming = true;
+            return this;
+        }
+
+        public void event(GitHubEvent event) {
+            long start = 0;
+            if (render != null) {
+                if (records == 0) render.begin();
+                start = System.nanoTime();
+            }
+            if (records > 0) text.append(separator());
+            record(text, username, event);
+            records++;
+            if (render != null) render.renderTime += System.nanoTime() - start;
+            if (streaming && text.length() > 0) {
+                write(this);
+                flush();
+            }
+        }
+
+        /** Completes the group once the fetch is over. */
+        public void finish(FetchResult result) {
+            if (result.isSuccess() && records == 0) noActivity(text, username);
+            if (render != null && records > 0) {
+                render.end();
+                if (render.shouldCommit()) {
+                    render.user = username;
+                    render.sink = OutputSink.this.getClass().getSimpleName();
+                    render.locale = language.name().toLowerCase();
+                    render.lines = records;
+                    render.commit();
+                }
+                render = null;
+            }
+        }
+
+        /** Whether the events handed to this group must keep their raw payload JSON. */
+        public boolean needsRawPayload() {
+            return writesPayload();
+        }
+
+        public int eventCount() {
+            return records;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.de013.githubuseractivity.output;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for the rendering of one user's {@link OutputSink.Group}, from its first event until it is
+ * finished. Events are rendered as they are parsed, so the duration spans the fetch; {@code renderTime}
+ * is the time actually spent formatting.
+ */
+@Name("org.de013.githubuseractivity.Render")
+@Label("Activity Render")
+@Category({"GitHub User Activity", "Output"})
+@Description("Formatting one user's events for output")
+@StackTrace(false)
+final class RenderEvent extends Event {
+    @Label("User")
+    String user;
+
+    @Label("Sink")
+    String sink;
+
+    @Label("Locale")
+    String locale;
+
+    @Label("Lines")
+    int lines;
+
+    @Label("Render Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long renderTime;
+}
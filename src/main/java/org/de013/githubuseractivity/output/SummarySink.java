@@ -0,0 +1,129 @@
+package org.de013.githubuseractivity.output;
+
+import org.de013.githubuseractivity.model.GitHubEvent;
+import org.de013.githubuseractivity.util.JsonWriter;
+import org.de013.githubuseractivity.util.Messages;
+
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts events into an {@link ActivitySummary} as they arrive instead of rendering them, and writes
+ * the totals once on close, in the requested format. Batches aggregate every user into one summary.
+ */
+class SummarySink extends OutputSink {
+    private static final String NEWLINE = System.lineSeparator();
+
+    private final OutputFormat format;
+    private final ActivitySummary summary = new ActivitySummary();
+
+    SummarySink(Writer out, Messages.Language language, OutputFormat format) {
+        super(out, language);
+        this.format = format;
+    }
+
+    @Override
+    protected void record(StringBuilder sb, String username, GitHubEvent event) {
+        // Groups are filled on the fetching threads
+        synchronized (summary) {
+            summary.add(username, event);
+        }
+    }
+
+    @Override
+    protected String epilogue(boolean wroteRecord) {
+        StringBuilder sb = new StringBuilder(1024);
+        synchronized (summary) {
+            switch (format) {
+                case JSON:
+                case NDJSON:
+                    appendJson(sb);
+                    break;
+                case CSV:
+                    appendCsv(sb);
+                    break;
+                default:
+                    appendText(sb);
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+
+    private void appendText(StringBuilder sb) {
+        Messages.append(sb, language, "summary.total", summary.events(), summary.commits()).append(NEWLINE);
+        if (summary.events() == 0) return;
+
+        appendSection(sb, "summary.by_type", summary.types());
+        appendSection(sb, "summary.by_repo", summary.repos());
+        if (summary.users().size() > 1) appendSection(sb, "summary.by_user", summary.users());
+        appendSection(sb, "summary.by_day", summary.days());
+
+        sb.append(NEWLINE);
+        Messages.append(sb, language, "summary.by_hour").append(NEWLINE);
+        long[] hours = summary.hours();
+        long max = 1;
+        for (long count : hours) max = Math.max(max, count);
+        for (int hour = 0; hour < hours.length; hour++) {
+            sb.append("  ").append(hour < 10 ? "0" : "").append(hour).append("  ");
+            int bar = (int) Math.ceil(hours[hour] * 30.0 / max);
+            for (int i = 0; i < bar; i++) sb.append('#');
+            if (hours[hour] > 0) sb.append(' ').append(hours[hour]);
+            sb.append(NEWLINE);
+        }
+    }
+
+    private void appendSection(StringBuilder sb, String titleKey, List<Map.Entry<String, Long>> entries) {
+        sb.append(NEWLINE);
+        Messages.append(sb, language, titleKey).append(NEWLINE);
+        int width = 0;
+        for (Map.Entry<String, Long> entry : entries) width = Math.max(width, entry.getKey().length());
+        for (Map.Entry<String, Long> entry : entries) {
+            sb.append("  ").append(entry.getKey());
+            for (int i = entry.getKey().length(); i < width + 2; i++) sb.append(' ');
+            sb.append(entry.getValue()).append(NEWLINE);
+        }
+    }
+
+    private void appendJson(StringBuilder sb) {
+        JsonWriter json = new JsonWriter(sb).beginObject()
+                .name("events").value(summary.events())
+                .name("commits").value(summary.commits());
+        appendJsonCounts(json, "types", summary.types());
+        appendJsonCounts(json, "repos", summary.repos());
+        appendJsonCounts(json, "users", summary.users());
+        appendJsonCounts(json, "days", summary.days());
+        json.name("hours").beginArray();
+        for (long count : summary.hours()) json.value(count);
+        json.endArray().endObject();
+        sb.append('\n');
+    }
+
+    private static void appendJsonCounts(JsonWriter json, String name, List<Map.Entry<String, Long>> entries) {
+        json.name(name).beginObject();
+        for (Map.Entry<String, Long> entry : entries) json.name(entry.getKey()).value(entry.getValue());
+        json.endObject();
+    }
+
+    private void appendCsv(StringBuilder sb) {
+        sb.append("section,key,count\n");
+        sb.append("total,events,").append(summary.events()).append('\n');
+        sb.append("total,commits,").append(summary.commits()).append('\n');
+        appendCsvRows(sb, "type", summary.types());
+        appendCsvRows(sb, "repo", summary.repos());
+        appendCsvRows(sb, "user", summary.users());
+        appendCsvRows(sb, "day", summary.days());
+        long[] hours = summary.hours();
+        for (int hour = 0; hour < hours.length; hour++) {
+            sb.append("hour,").append(hour).append(',').append(hours[hour]).append('\n');
+        }
+    }
+
+    private static void appendCsvRows(StringBuilder sb, String section, List<Map.Entry<String, Long>> entries) {
+        for (Map.Entry<String, Long> entry : entries) {
+            sb.append(section).append(',');
+            CsvSink.field(sb, entry.getKey()).append(',').append(entry.getValue()).append('\n');
+        }
+    }
+}
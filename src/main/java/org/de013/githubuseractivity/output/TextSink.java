@@ -0,0 +1,31 @@
+package org.de013.githubuseractivity.output;
+
+import org.de013.githubuseractivity.model.GitHubEvent;
+import org.de013.githubuseractivity.util.EventFormatter;
+import org.de013.githubuseractivity.util.Messages;
+
+import java.io.Writer;
+
+/** The human-readable "- Pushed 3 commit(s) to ..." lines. */
+class TextSink extends OutputSink {
+    private static final String NEWLINE = System.lineSeparator();
+
+    TextSink(Writer out, Messages.Language language) {
+        super(out, language);
+    }
+
+    @Override
+    protected void heading(StringBuilder sb, String username) {
+        Messages.append(sb, language, "batch.header", username).append(NEWLINE);
+    }
+
+    @Override
+    protected void noActivity(StringBuilder sb, String username) {
+        Messages.append(sb, language, "info.no_activity", username).append(NEWLINE);
+    }
+
+    @Override
+    protected void record(StringBuilder sb, String username, GitHubEvent event) {
+        sb.append("- ").append(EventFormatter.format(event, language)).append(NEWLINE);
+    }
+}
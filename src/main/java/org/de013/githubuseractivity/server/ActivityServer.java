@@ -0,0 +1,208 @@
+package org.de013.githubuseractivity.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.de013.githubuseractivity.cache.ActivityCache;
+import org.de013.githubuseractivity.model.GitHubEvent;
+import org.de013.githubuseractivity.service.FetchResult;
+import org.de013.githubuseractivity.service.UserActivityService;
+import org.de013.githubuseractivity.util.EventFilter;
+import org.de013.githubuseractivity.util.EventFormatter;
+import org.de013.githubuseractivity.util.JsonWriter;
+import org.de013.githubuseractivity.util.Messages;
+import org.de013.githubuseractivity.util.ThreadPools;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.regex.Pattern;
+
+/**
+ * Serves user activity as JSON over the JDK's built-in HTTP server.
+ * All requests share the given service, and with it one HTTP client, rate limiter and event cache.
+ * The server only listens on the loopback interface: it is unauthenticated and spends the operator's
+ * rate limit, so it must not be reachable from other machines.
+ *
+ * <pre>
+ * GET /users/{name}/activity?filter=push%20repo=octocat/*&amp;limit=100&amp;lang=vi
+ * GET /stats
+ * </pre>
+ */
+public class ActivityServer {
+    public static final int DEFAULT_THREADS = 32;
+
+    private static final Pattern USERNAME = Pattern.compile("[A-Za-z0-9](?:[A-Za-z0-9-]{0,38})");
+
+    private final UserActivityService service;
+    private final ActivityCache activityCache;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * @param activityCache the service's event cache, reported by /stats; may be null
+     * @param threads       requests handled at once; more wait in the server's queue
+     */
+    public ActivityServer(UserActivityService service, ActivityCache activityCache, int port, int threads) throws IOException {
+        this.service = service;
+        this.activityCache = activityCache;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        // A fixed pool rather than virtual threads, so --threads caps the concurrent fetches on every JDK
+        this.executor = ThreadPools.newFixedExecutor(threads);
+        this.server.setExecutor(executor);
+        this.server.createContext("/users/", this::handleActivity);
+        this.server.createContext("/stats", this::handleStats);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /** The bound port, useful when started on port 0. */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleActivity(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "method_not_allowed", "Only GET is supported");
+                return;
+            }
+            // /users/{name}/activity
+            String[] parts = exchange.getRequestURI().getPath().split("/");
+            if (parts.length != 4 || !"activity".equals(parts[3]) || !USERNAME.matcher(parts[2]).matches()) {
+                sendError(exchange, 404, "not_found", "Use /users/{name}/activity");
+                return;
+            }
+            String username = parts[2];
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            int limit;
+            try {
+                limit = query.containsKey("limit") ? Integer.parseInt(query.get("limit")) : UserActivityService.DEFAULT_LIMIT;
+            } catch (NumberFormatException e) {
+                limit = -1;
+            }
+            if (limit < 1 || limit > UserActivityService.MAX_LIMIT) {
+                sendError(exchange, 400, "bad_request", "limit must be between 1 and " + UserActivityService.MAX_LIMIT);
+                return;
+            }
+
+            Messages.Language language = parseLanguage(query.get("lang"));
+            if (language == null) {
+                sendError(exchange, 400, "bad_request", "lang must be 'en' or 'vi'");
+                return;
+            }
+
+            EventFilter filter;
+            try {
+                filter = EventFilter.compile(query.get("filter"));
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, "bad_request", "Invalid filter term '" + e.getMessage() + "'");
+                return;
+            }
+
+            StringBuilder events = new StringBuilder(4096);
+            JsonWriter eventsJson = new JsonWriter(events).beginArray();
+            FetchResult result = service.fetchEvents(username, limit, filter,
+                    event -> writeEvent(eventsJson, event, language));
+            eventsJson.endArray();
+
+            switch (result.status()) {
+                case OK: {
+                    StringBuilder body = new StringBuilder(events.length() + 64);
+                    new JsonWriter(body).beginObject()
+                            .name("user").value(username)
+                            .name("count").value(result.eventCount())
+                            .name("events").rawValue(events.toString())
+                            .endObject();
+                    send(exchange, 200, body);
+                    break;
+                }
+                case NOT_FOUND:
+                    sendError(exchange, 404, "not_found", "User '" + username + "' not found");
+                    break;
+                case RATE_LIMITED:
+                    sendError(exchange, 429, "rate_limited", "GitHub API rate limit exceeded");
+                    break;
+                case HTTP_ERROR:
+                    sendError(exchange, 502, "upstream_error", "GitHub API returned status " + result.httpStatus());
+                    break;
+                default:
+                    sendError(exchange, 502, "connection_error", "Could not connect to GitHub API");
+                    break;
+            }
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            StringBuilder body = new StringBuilder();
+            JsonWriter json = new JsonWriter(body).beginObject().name("cache");
+            if (activityCache == null) {
+                json.value((String) null);
+            } else {
+                ActivityCache.Stats stats = activityCache.stats();
+                json.beginObject()
+                        .name("hits").value(stats.hits())
+                        .name("misses").value(stats.misses())
+                        .name("evictions").value(stats.evictions())
+                        .name("size").value(stats.size())
+                        .endObject();
+            }
+            json.endObject();
+            send(exchange, 200, body);
+        }
+    }
+
+    static void writeEvent(JsonWriter json, GitHubEvent event, Messages.Language language) {
+        json.beginObject();
+        EventFormatter.writeJsonFields(json, event, language);
+        json.endObject();
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String code, String message) throws IOException {
+        StringBuilder body = new StringBuilder();
+        new JsonWriter(body).beginObject().name("error").value(code).name("message").value(message).endObject();
+        send(exchange, status, body);
+    }
+
+    private static void send(HttpExchange exchange, int status, CharSequence body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /** The requested language, the CLI's language when none is given, or null when unknown. */
+    private static Messages.Language parseLanguage(String lang) {
+        if (lang == null || lang.isEmpty()) return Messages.currentLanguage;
+        if ("en".equalsIgnoreCase(lang)) return Messages.Language.EN;
+        if ("vi".equalsIgnoreCase(lang)) return Messages.Language.VI;
+        return null;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return params;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.putIfAbsent(key, value);
+        }
+        return params;
+    }
+}
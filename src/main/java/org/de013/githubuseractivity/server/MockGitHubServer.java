@@ -0,0 +1,295 @@
+package org.de013.githubuseractivity.server;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.de013.githubuseractivity.util.JsonWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A local stand-in for the GitHub events API, for end-to-end tests and offline load runs.
+ * Every user has the same number of synthetic events, served like GitHub does: in pages with a Link
+ * header, an ETag that a matching If-None-Match turns into a 304, rate-limit headers over a shared
+ * budget (a 403 once it is spent; 304s are free), and gzip when the client asks for it. Each response
+ * can be delayed to simulate network latency. The user {@value #MISSING_USER} does not exist.
+ *
+ * <pre>
+ * GET /users/{name}/events?per_page=30&amp;page=1
+ * </pre>
+ *
+ * Run it standalone with {@code java -cp github-user-activity.jar
+ * org.de013.githubuseractivity.server.MockGitHubServer [port] [events] [latency-ms] [rate-limit]} and
+ * point the CLI at it with {@code --api-url}.
+ */
+public class MockGitHubServer {
+    public static final String MISSING_USER = "ghost";
+    public static final int DEFAULT_EVENTS_PER_USER = 300;
+
+    private static final int MAX_PER_PAGE = 100;
+    private static final Instant NEWEST = Instant.parse("2024-05-01T12:00:00Z");
+    private static final Pattern EVENTS_PATH = Pattern.compile("/users/([A-Za-z0-9-]+)/events");
+    private static final String[] REPOS = {"octo-org/api", "octo-org/web", "octocat/Hello-World", "torvalds/linux"};
+
+    static {
+        // The JDK server writes headers and body separately; with Nagle's algorithm the body then waits
+        // for the client's delayed ACK, adding ~40 ms to every response. Read when the first server is created.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final int eventsPerUser;
+    private final Duration latency;
+    private final long rateLimit;
+    private final AtomicLong remaining;
+    private final long resetEpochSeconds;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, Page> pages = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+
+    /**
+     * @param port          port to listen on, or 0 for any free one
+     * @param eventsPerUser events each user has, spread over as many pages as the client's page size needs
+     * @param latency       delay before every response
+     * @param rateLimit     responses served before the rate limit is exhausted
+     */
+    public MockGitHubServer(int port, int eventsPerUser, Duration latency, long rateLimit) throws IOException {
+        this.eventsPerUser = eventsPerUser;
+        this.latency = latency;
+        this.rateLimit = rateLimit;
+        this.remaining = new AtomicLong(rateLimit);
+        this.resetEpochSeconds = Instant.now().plus(Duration.ofHours(1)).getEpochSecond();
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        // Unbounded, so that simulated latency delays responses without capping concurrency
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "mock-github");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server.setExecutor(executor);
+        this.server.createContext("/users/", this::handleEvents);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8081;
+        int events = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_EVENTS_PER_USER;
+        Duration latency = Duration.ofMillis(args.length > 2 ? Long.parseLong(args[2]) : 0);
+        long rateLimit = args.length > 3 ? Long.parseLong(args[3]) : Long.MAX_VALUE;
+        MockGitHubServer mock = new MockGitHubServer(port, events, latency, rateLimit);
+        mock.start();
+        System.out.println("Mock GitHub API on " + mock.baseUrl() + ". Press Ctrl+C to stop.");
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /** The bound port, useful when started on port 0. */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /** The base URL to give the service or {@code --api-url}. */
+    public String baseUrl() {
+        return "http://localhost:" + port();
+    }
+
+    /** Requests answered so far, 304s included. */
+    public long requests() { return requests.sum(); }
+
+    /** Requests answered with 304 Not Modified. */
+    public long notModified() { return notModified.sum(); }
+
+    private void handleEvents(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.increment();
+            if (!latency.isZero()) sleep(latency);
+
+            Matcher path = EVENTS_PATH.matcher(exchange.getRequestURI().getPath());
+            if (!"GET".equals(exchange.getRequestMethod()) || !path.matches()) {
+                send(exchange, 404, null, null);
+                return;
+            }
+            String user = path.group(1);
+            if (MISSING_USER.equalsIgnoreCase(user)) {
+                send(exchange, 404, null, null);
+                return;
+            }
+
+            String query = exchange.getRequestURI().getRawQuery();
+            int perPage = Math.max(1, Math.min(MAX_PER_PAGE, queryInt(query, "per_page", 30)));
+            int page = Math.max(1, queryInt(query, "page", 1));
+            Page body = pages.computeIfAbsent(user + "/" + perPage + "/" + page, key -> render(user, perPage, page));
+
+            Headers headers = exchange.getResponseHeaders();
+            headers.set("ETag", body.etag);
+            headers.set("X-Poll-Interval", "60");
+            int lastPage = Math.max(1, (eventsPerUser + perPage - 1) / perPage);
+            if (lastPage > 1) headers.set("Link", link(user, perPage, page, lastPage));
+
+            if (body.etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                // Conditional requests that hit do not count against GitHub's rate limit
+                notModified.increment();
+                rateLimitHeaders(headers, remaining.get());
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            long left = remaining.getAndUpdate(r -> Math.max(0, r - 1));
+            rateLimitHeaders(headers, Math.max(0, left - 1));
+            if (left <= 0) {
+                send(exchange, 403, "{\"message\":\"API rate limit exceeded\"}".getBytes(StandardCharsets.UTF_8), null);
+                return;
+            }
+
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+            send(exchange, 200, gzip ? body.gzip : body.json, gzip ? "gzip" : null);
+        }
+    }
+
+    private void rateLimitHeaders(Headers headers, long left) {
+        headers.set("X-RateLimit-Limit", String.valueOf(rateLimit));
+        headers.set("X-RateLimit-Remaining", String.valueOf(left));
+        headers.set("X-RateLimit-Reset", String.valueOf(resetEpochSeconds));
+    }
+
+    private String link(String user, int perPage, int page, int lastPage) {
+        String url = baseUrl() + "/users/" + user + "/events?per_page=" + perPage + "&page=";
+        StringBuilder link = new StringBuilder();
+        if (page < lastPage) link.append('<').append(url).append(page + 1).append(">; rel=\"next\", ");
+        link.append('<').append(url).append(lastPage).append(">; rel=\"last\"");
+        if (page > 1) link.append(", <").append(url).append(1).append(">; rel=\"first\"");
+        return link.toString();
+    }
+
+    /** One page of a user's events, rendered once and then served from memory. */
+    private Page render(String user, int perPage, int page) {
+        StringBuilder json = new StringBuilder(perPage * 600);
+        JsonWriter writer = new JsonWriter(json).beginArray();
+        int userSeed = user.toLowerCase().hashCode() & 0x7fff;
+        for (int i = (page - 1) * perPage; i < Math.min(page * perPage, eventsPerUser); i++) {
+            writeEvent(writer, user, userSeed, i);
+        }
+        writer.endArray();
+
+        byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String etag = "\"" + Integer.toHexString(Arrays.hashCode(bytes)) + "\"";
+        return new Page(bytes, compressed.toByteArray(), etag);
+    }
+
+    /** The i-th newest event of a user; ids and times decrease with i like a real feed. */
+    private static void writeEvent(JsonWriter json, String user, int userSeed, int i) {
+        String repo = REPOS[(userSeed + i) % REPOS.length];
+        json.beginObject()
+                .name("id").value(String.valueOf(40_000_000_000L + userSeed * 1_000_000L - i));
+        switch (i % 5) {
+            case 0:
+            case 1:
+                json.name("type").value("PushEvent").name("payload").beginObject()
+                        .name("push_id").value(18_000_000_000L + i)
+                        .name("size").value(1 + i % 3)
+                        .name("ref").value("refs/heads/main")
+                        .name("commits").beginArray();
+                for (int c = 0; c <= i % 3; c++) {
+                    json.beginObject()
+                            .name("sha").value(Long.toHexString(0x5eed0000L + i * 8L + c) + "0000000000000000000000000000")
+                            .name("message").value("Change " + i + "." + c)
+                            .name("distinct").value(true)
+                            .endObject();
+                }
+                json.endArray().endObject();
+                break;
+            case 2:
+                json.name("type").value("PullRequestEvent").name("payload").beginObject()
+                        .name("action").value(i % 10 == 2 ? "opened" : "closed")
+                        .name("number").value(i)
+                        .name("pull_request").beginObject()
+                        .name("title").value("Pull request " + i)
+                        .name("user").beginObject().name("login").value(user).endObject()
+                        .endObject().endObject();
+                break;
+            case 3:
+                json.name("type").value("WatchEvent").name("payload").beginObject()
+                        .name("action").value("started").endObject();
+                break;
+            default:
+                json.name("type").value("IssuesEvent").name("payload").beginObject()
+                        .name("action").value("closed")
+                        .name("issue").beginObject().name("number").value(i).name("title").value("Issue " + i).endObject()
+                        .endObject();
+                break;
+        }
+        json.name("actor").beginObject().name("id").value(userSeed).name("login").value(user)
+                .name("display_login").value(user).endObject()
+                .name("repo").beginObject().name("id").value(repo.hashCode() & 0x7fffffff).name("name").value(repo)
+                .endObject()
+                .name("public").value(true)
+                .name("created_at").value(NEWEST.minusSeconds(420L * i).toString())
+                .endObject();
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body, String encoding) throws IOException {
+        if (body == null) body = "{\"message\":\"Not Found\"}".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        if (encoding != null) exchange.getResponseHeaders().set("Content-Encoding", encoding);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static int queryInt(String query, String name, int fallback) {
+        if (query == null) return fallback;
+        for (String pair : query.split("&")) {
+            if (pair.startsWith(name + "=")) {
+                try {
+                    return Integer.parseInt(pair.substring(name.length() + 1));
+                } catch (NumberFormatException e) {
+                    return fallback;
+                }
+            }
+        }
+        return fallback;
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Page(byte[] json, byte[] gzip, String etag) {}
+}
@@ -0,0 +1,28 @@
+package org.de013.githubuseractivity.service;
+
+/**
+ * Why an asynchronous fetch failed, as one of the unsuccessful {@link FetchStatus} values: the user does
+ * not exist, the rate limit is exhausted, GitHub answered with another error, or no answer arrived, in
+ * which case the cause is the underlying exception.
+ */
+public class ActivityException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final String username;
+    private final FetchStatus status;
+    private final int httpStatus;
+
+    public ActivityException(String username, FetchStatus status, int httpStatus, Throwable cause) {
+        super(status + (httpStatus > 0 ? " (HTTP " + httpStatus + ")" : "") + " for user '" + username + "'", cause);
+        this.username = username;
+        this.status = status;
+        this.httpStatus = httpStatus;
+    }
+
+    public String username() { return username; }
+
+    public FetchStatus status() { return status; }
+
+    /** The HTTP status that ended the fetch, or 0 when no response was received. */
+    public int httpStatus() { return httpStatus; }
+}
@@ -0,0 +1,19 @@
+package org.de013.githubuseractivity.service;
+
+import org.de013.githubuseractivity.model.GitHubEvent;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The outcome of a successful {@link UserActivityService#fetchActivityAsync}.
+ *
+ * @param username     the user as requested
+ * @param events       the events matching the filter, newest first
+ * @param pollInterval how long GitHub asks clients to wait before polling again
+ */
+public record ActivityResult(String username, List<GitHubEvent> events, Duration pollInterval) {
+    public ActivityResult {
+        events = List.copyOf(events);
+    }
+}
@@ -0,0 +1,41 @@
+package org.de013.githubuseractivity.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one HTTP exchange, from sending the request until its body is closed. Body reading is
+ * interleaved with parsing, so the duration includes the parse; see {@link ParseEvent} for that share.
+ */
+@Name("org.de013.githubuseractivity.Fetch")
+@Label("GitHub API Fetch")
+@Category({"GitHub User Activity", "Network"})
+@Description("An HTTP request to the GitHub API and the download of its body")
+@StackTrace(false)
+final class FetchEvent extends Event {
+    @Label("URL")
+    String url;
+
+    @Label("Status")
+    int status;
+
+    @Label("HTTP Version")
+    String httpVersion;
+
+    @Label("Gzip")
+    @Description("Whether the body was sent gzip-compressed")
+    boolean gzip;
+
+    @Label("Bytes on Wire")
+    @DataAmount
+    long bytes;
+
+    @Label("Rate Limit Remaining")
+    @Description("X-RateLimit-Remaining of the response, or -1 when absent")
+    long rateLimitRemaining = -1;
+}
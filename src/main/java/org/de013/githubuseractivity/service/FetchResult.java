@@ -0,0 +1,15 @@
+package org.de013.githubuseractivity.service;
+
+import java.time.Duration;
+
+/**
+ * Summary of one fetch.
+ *
+ * @param status       how the fetch ended
+ * @param httpStatus   the HTTP status that ended it, or 0 when no response was received
+ * @param eventCount   number of events delivered (or, for the printing overloads, printed) before it ended
+ * @param pollInterval how long GitHub asks clients to wait before polling again
+ */
+public record FetchResult(FetchStatus status, int httpStatus, int eventCount, Duration pollInterval) {
+    public boolean isSuccess() { return status == FetchStatus.OK; }
+}
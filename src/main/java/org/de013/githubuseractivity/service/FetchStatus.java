@@ -0,0 +1,6 @@
+package org.de013.githubuseractivity.service;
+
+/** Outcome of fetching one user's activity. */
+public enum FetchStatus {
+    OK, NOT_FOUND, RATE_LIMITED, HTTP_ERROR, CONNECTION_ERROR
+}
@@ -0,0 +1,216 @@
+package org.de013.githubuseractivity.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Sends API requests and hands back their bodies decoded. Every request asks for gzip, which shrinks
+ * event JSON several times over, and the answer is inflated while it is read so parsing still starts on
+ * the first bytes. The client prefers HTTP/2, letting the concurrent page and batch requests share one
+ * connection instead of each opening its own. Asynchronous requests collect the body before completing,
+ * so no thread waits for the network. Wire and decoded byte counts go into {@link TransferStats},
+ * and while a flight recording is running each exchange is also recorded as a {@link FetchEvent}.
+ */
+public final class HttpTransport implements Transport {
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final HttpResponse.BodyHandler<InputStream> BUFFERED = info -> HttpResponse.BodySubscribers.mapping(
+            HttpResponse.BodySubscribers.ofByteArray(), ByteArrayInputStream::new);
+
+    // Built on first use: creating the client loads the TLS stack, most of a short run's startup time
+    private final Supplier<HttpClient> clientFactory;
+    private volatile HttpClient client;
+    private final TransferStats stats = new TransferStats();
+
+    public HttpTransport() {
+        this(() -> HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(CONNECT_TIMEOUT)
+                .build());
+    }
+
+    HttpTransport(Supplier<HttpClient> clientFactory) {
+        this.clientFactory = clientFactory;
+    }
+
+    private HttpClient client() {
+        HttpClient c = client;
+        if (c == null) {
+            synchronized (this) {
+                c = client;
+                if (c == null) client = c = clientFactory.get();
+            }
+        }
+        return c;
+    }
+
+    @Override
+    public TransferStats stats() { return stats; }
+
+    @Override
+    public Reply send(HttpRequest request) throws IOException, InterruptedException {
+        FetchEvent event = new FetchEvent();
+        event.begin();
+        return decode(request, client().send(acceptGzip(request), HttpResponse.BodyHandlers.ofInputStream()), event);
+    }
+
+    @Override
+    public CompletableFuture<Reply> sendAsync(HttpRequest request) {
+        FetchEvent event = new FetchEvent();
+        event.begin();
+        return client().sendAsync(acceptGzip(request), BUFFERED)
+                .thenApply(response -> decode(request, response, event));
+    }
+
+    /** The request asking for gzip, which this transport decodes; the caller need not know. */
+    private static HttpRequest acceptGzip(HttpRequest request) {
+        return HttpRequest.newBuilder(request, (name, value) -> true).setHeader("Accept-Encoding", "gzip").build();
+    }
+
+    private Reply decode(HttpRequest request, HttpResponse<InputStream> response, FetchEvent event) {
+        stats.recordResponse(response.version() == HttpClient.Version.HTTP_2);
+        HttpHeaders headers = response.headers();
+        InputStream body = response.body();
+        if (body == null) body = InputStream.nullInputStream();
+
+        String encoding = headers != null ? headers.firstValue("Content-Encoding").orElse(null) : null;
+        boolean gzip = encoding != null && encoding.trim().equalsIgnoreCase("gzip");
+        if (event.isEnabled()) {
+            event.url = request.uri().toString();
+            event.status = response.statusCode();
+            event.httpVersion = response.version() != null ? response.version().name() : null;
+            event.gzip = gzip;
+            event.rateLimitRemaining = headers != null ? headers.firstValueAsLong("X-RateLimit-Remaining").orElse(-1) : -1;
+            body = new FetchEventInputStream(body, event);
+        }
+        if (gzip) {
+            body = new CountingInputStream(new LazyGzipInputStream(new CountingInputStream(body, stats::addWireBytes)),
+                    stats::addDecodedBytes);
+        } else {
+            body = new CountingInputStream(body, bytes -> {
+                stats.addWireBytes(bytes);
+                stats.addDecodedBytes(bytes);
+            });
+        }
+        return new Reply(response.statusCode(), headers, body);
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private final LongConsumer counter;
+
+        CountingInputStream(InputStream in, LongConsumer counter) {
+            super(in);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) counter.accept(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = in.read(b, off, len);
+            if (read > 0) counter.accept(read);
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            if (skipped > 0) counter.accept(skipped);
+            return skipped;
+        }
+    }
+
+    /** Adds the bytes read to the event and commits it when the body is closed. */
+    private static final class FetchEventInputStream extends FilterInputStream {
+        private final FetchEvent event;
+        private boolean committed;
+
+        FetchEventInputStream(InputStream in, FetchEvent event) {
+            super(in);
+            this.event = event;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) event.bytes++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = in.read(b, off, len);
+            if (read > 0) event.bytes += read;
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                in.close();
+            } finally {
+                if (!committed) {
+                    committed = true;
+                    event.commit();
+                }
+            }
+        }
+    }
+
+    /**
+     * Inflates on first read. Creating the decoder reads the gzip header, which would block the caller of
+     * {@link #send} before it even looks at the status if it happened up front.
+     */
+    private static final class LazyGzipInputStream extends InputStream {
+        private final InputStream compressed;
+        private InputStream inflated;
+
+        LazyGzipInputStream(InputStream compressed) {
+            this.compressed = compressed;
+        }
+
+        private InputStream inflated() throws IOException {
+            if (inflated == null) inflated = new GZIPInputStream(compressed, 1 << 13);
+            return inflated;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return inflated().read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return inflated().read(b, off, len);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return inflated != null ? inflated.available() : 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (inflated != null) {
+                inflated.close();
+            } else {
+                compressed.close();
+            }
+        }
+    }
+}
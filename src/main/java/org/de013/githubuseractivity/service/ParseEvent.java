@@ -0,0 +1,33 @@
+package org.de013.githubuseractivity.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for parsing one response body. The body streams in while it is parsed, so the duration
+ * includes waiting for the network; {@code readTime} is that part.
+ */
+@Name("org.de013.githubuseractivity.Parse")
+@Label("Event Parse")
+@Category({"GitHub User Activity", "Parsing"})
+@Description("Parsing a response body into events")
+@StackTrace(false)
+final class ParseEvent extends Event {
+    @Label("Events")
+    long events;
+
+    @Label("Decoded Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Read Time")
+    @Description("Time blocked reading the body")
+    @Timespan(Timespan.NANOSECONDS)
+    long readTime;
+}
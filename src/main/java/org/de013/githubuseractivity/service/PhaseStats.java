@@ -0,0 +1,160 @@
+package org.de013.githubuseractivity.service;
+
+import org.de013.githubuseractivity.util.Messages;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Timings of every phase of a run for {@code --stats}, one sample per request (or per console write for
+ * {@link Phase#OUTPUT}), taken with {@link System#nanoTime()}. The service only records into an instance
+ * when given one, so a run without {@code --stats} pays a null check per phase. Thread-safe.
+ */
+public final class PhaseStats {
+    private static final int MAX_ERRORS = 5;
+
+    public enum Phase {
+        /** Held back by the rate limiter. */
+        WAIT,
+        /**
+         * From sending the request to its headers; includes connecting and the TLS handshake when a new
+         * connection is needed. Asynchronous requests only complete with the whole body, which is then included.
+         */
+        HEADERS,
+        /** Blocked reading the body, including gzip inflation. */
+        DOWNLOAD,
+        /** Turning body bytes into events, excluding the time spent waiting for them. */
+        PARSE,
+        /** Rendering events into the output format. */
+        FORMAT,
+        /** Writing rendered output to the console. */
+        OUTPUT;
+
+        final String label = name().toLowerCase(Locale.ROOT);
+    }
+
+    private final long[][] samples = new long[Phase.values().length][16];
+    private final int[] counts = new int[Phase.values().length];
+    private final Map<String, Integer> errors = new LinkedHashMap<>();
+    private long requests;
+    private long events;
+    private long bodyBytes;
+
+    public synchronized void record(Phase phase, long nanos) {
+        int i = phase.ordinal();
+        if (counts[i] == samples[i].length) samples[i] = Arrays.copyOf(samples[i], counts[i] * 2);
+        samples[i][counts[i]++] = nanos;
+    }
+
+    synchronized void recordRequest() { requests++; }
+
+    synchronized void recordEvents(long count) { events += count; }
+
+    synchronized void recordBodyBytes(long bytes) { bodyBytes += bytes; }
+
+    /** Keeps what a failed fetch would otherwise only report as a connection error. */
+    synchronized void recordError(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null && cause.getCause() != cause) cause = cause.getCause();
+        String description = cause.getClass().getName() + (cause.getMessage() != null ? ": " + cause.getMessage() : "");
+        if (errors.containsKey(description) || errors.size() < MAX_ERRORS) errors.merge(description, 1, Integer::sum);
+    }
+
+    /** Samples recorded for {@code phase} so far. */
+    public synchronized int count(Phase phase) { return counts[phase.ordinal()]; }
+
+    /** The {@code percentile} (0 to 100) of {@code phase} by nearest rank, in nanoseconds, or 0 without samples. */
+    public synchronized long percentile(Phase phase, double percentile) {
+        int count = counts[phase.ordinal()];
+        if (count == 0) return 0;
+        long[] sorted = Arrays.copyOf(samples[phase.ordinal()], count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * count);
+        return sorted[Math.max(0, Math.min(count, rank) - 1)];
+    }
+
+    /** Counts the time spent in {@code write} calls on {@code out} as {@link Phase#OUTPUT}. */
+    public OutputStream timeOutput(OutputStream out) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(int b) throws IOException {
+                long start = System.nanoTime();
+                out.write(b);
+                record(Phase.OUTPUT, System.nanoTime() - start);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                long start = System.nanoTime();
+                out.write(b, off, len);
+                record(Phase.OUTPUT, System.nanoTime() - start);
+            }
+        };
+    }
+
+    /** Prints a table of the phases with their percentiles, then the totals and any errors. */
+    public synchronized void print(PrintStream out, long wallNanos) {
+        out.println(Messages.get("stats.header"));
+        out.println(String.format(Locale.ROOT, "%-10s %7s %10s %9s %9s %9s %9s",
+                "", "n", "total ms", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        for (Phase phase : Phase.values()) {
+            int count = counts[phase.ordinal()];
+            if (count == 0) continue;
+            long total = 0;
+            for (int i = 0; i < count; i++) total += samples[phase.ordinal()][i];
+            out.println(String.format(Locale.ROOT, "%-10s %7d %10.1f %9.2f %9.2f %9.2f %9.2f",
+                    phase.label, count, millis(total), millis(percentile(phase, 50)), millis(percentile(phase, 90)),
+                    millis(percentile(phase, 99)), millis(percentile(phase, 100))));
+        }
+        out.println(Messages.get("stats.totals", requests, events, bodyBytes,
+                String.format(Locale.ROOT, "%.1f", millis(wallNanos))));
+        errors.forEach((description, count) -> out.println(Messages.get("stats.error", count, description)));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    /**
+     * Sums the nanoseconds spent in reads and the bytes they returned, so that waiting for a body can be
+     * told apart from parsing it. Used by one thread at a time.
+     */
+    static final class TimedInputStream extends FilterInputStream {
+        private long blockedNanos;
+        private long bytes;
+
+        TimedInputStream(InputStream in) {
+            super(in);
+        }
+
+        long blockedNanos() { return blockedNanos; }
+
+        long bytes() { return bytes; }
+
+        @Override
+        public int read() throws IOException {
+            long start = System.nanoTime();
+            int b = in.read();
+            blockedNanos += System.nanoTime() - start;
+            if (b >= 0) bytes++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            long start = System.nanoTime();
+            int read = in.read(b, off, len);
+            blockedNanos += System.nanoTime() - start;
+            if (read > 0) bytes += read;
+            return read;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package org.de013.githubuseractivity.service;
+
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Paces requests to the GitHub API and holds them back while the rate limit is exhausted.
+ * One instance is shared by every concurrent fetch of a service: a token bucket spaces requests out,
+ * and the X-RateLimit-Remaining / X-RateLimit-Reset and Retry-After headers of each response close the
+ * gate until GitHub is ready again. Requests queue instead of failing, up to a maximum wait.
+ * <p>
+ * The bucket starts at the configured rate and, once a response has reported the budget, slows down to
+ * spread the remaining requests evenly until the window resets, so a long batch runs at the pace GitHub
+ * allows instead of spending the budget at once and then stalling until the reset.
+ * <p>
+ * A wait longer than {@link #NOTICE_THRESHOLD} is reported to the listener set with
+ * {@link #onLongWait(Consumer)}, once per waiting period rather than once per queued request.
+ */
+public class RateLimiter {
+    public static final int DEFAULT_BURST = 10;
+    public static final double DEFAULT_REQUESTS_PER_SECOND = 10;
+    /** GitHub's rate-limit window, so a request queued behind an exhausted budget waits for the reset. */
+    public static final Duration DEFAULT_MAX_WAIT = Duration.ofHours(1);
+    /** Cap for a single fetch someone is waiting on at the terminal; longer waits fail with a rate-limit error. */
+    public static final Duration INTERACTIVE_MAX_WAIT = Duration.ofSeconds(60);
+    /** Waits at least this long are reported; shorter ones are ordinary pacing. */
+    public static final Duration NOTICE_THRESHOLD = Duration.ofSeconds(2);
+
+    private final int burst;
+    private final long minIntervalNanos;
+    private long intervalNanos;
+    private final long maxWaitNanos;
+    private final LongSupplier nanoTime;
+    private final LongSupplier currentTimeMillis;
+
+    private double storedPermits;
+    private long nextFreeNanos;
+    private long gateUntilNanos;
+    private long remaining = -1;
+    private long noticedUntilNanos;
+    private volatile Consumer<Duration> longWaitListener;
+
+    public RateLimiter() {
+        this(DEFAULT_MAX_WAIT);
+    }
+
+    public RateLimiter(Duration maxWait) {
+        this(DEFAULT_BURST, DEFAULT_REQUESTS_PER_SECOND, maxWait);
+    }
+
+    /** A custom pace, e.g. an effectively unlimited one for load tests against a local server. */
+    public RateLimiter(int burst, double requestsPerSecond, Duration maxWait) {
+        this(burst, requestsPerSecond, maxWait, System::nanoTime, System::currentTimeMillis);
+    }
+
+    RateLimiter(int burst, double requestsPerSecond, Duration maxWait, LongSupplier nanoTime, LongSupplier currentTimeMillis) {
+        this.burst = burst;
+        this.minIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        this.intervalNanos = minIntervalNanos;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.nanoTime = nanoTime;
+        this.currentTimeMillis = currentTimeMillis;
+        this.storedPermits = burst;
+        this.nextFreeNanos = nanoTime.getAsLong();
+        this.gateUntilNanos = nextFreeNanos;
+        this.noticedUntilNanos = nextFreeNanos;
+    }
+
+    /** Sets who is told before a caller waits {@link #NOTICE_THRESHOLD} or longer; returns this limiter. */
+    public RateLimiter onLongWait(Consumer<Duration> listener) {
+        this.longWaitListener = listener;
+        return this;
+    }
+
+    /**
+     * Reserves a slot for one request and returns how long the caller must wait before sending it,
+     * or -1 if that wait would exceed the maximum; nothing is reserved in that case.
+     */
+    public long reserve() {
+        long wait = reserveSlot();
+        Consumer<Duration> listener = longWaitListener;
+        // Outside the lock, so a slow listener does not hold up other callers
+        if (wait < 0 || listener == null || !shouldNotice(wait)) return wait;
+        listener.accept(Duration.ofNanos(wait));
+        return wait;
+    }
+
+    private synchronized long reserveSlot() {
+        long now = nanoTime.getAsLong();
+        if (now > nextFreeNanos) {
+            storedPermits = Math.min(burst, storedPermits + (double) (now - nextFreeNanos) / intervalNanos);
+            nextFreeNanos = now;
+        }
+        long wait = Math.max(nextFreeNanos - now, gateUntilNanos - now);
+        if (wait > maxWaitNanos) return -1;
+
+        if (storedPermits >= 1) {
+            storedPermits -= 1;
+        } else {
+            nextFreeNanos += intervalNanos;
+        }
+        if (gateUntilNanos > nextFreeNanos) nextFreeNanos = gateUntilNanos;
+        return Math.max(wait, 0);
+    }
+
+    /** True for the first long wait of a waiting period; callers queued behind it stay quiet. */
+    private synchronized boolean shouldNotice(long wait) {
+        if (wait < NOTICE_THRESHOLD.toNanos()) return false;
+        long now = nanoTime.getAsLong();
+        if (now < noticedUntilNanos) return false;
+        noticedUntilNanos = now + wait;
+        return true;
+    }
+
+    /**
+     * Records the rate-limit headers of a response and paces later requests by them. For a 403 or 429
+     * that GitHub says can be retried, closes the gate and returns the delay before the retry, otherwise
+     * returns -1.
+     */
+    public synchronized long update(int status, HttpHeaders headers) {
+        long now = nanoTime.getAsLong();
+        long remainingHeader = longHeader(headers, "X-RateLimit-Remaining");
+        long resetEpochSeconds = longHeader(headers, "X-RateLimit-Reset");
+        long retryAfterSeconds = longHeader(headers, "Retry-After");
+
+        if (remainingHeader >= 0) remaining = remainingHeader;
+        long resetDelay = -1;
+        if (resetEpochSeconds >= 0) {
+            resetDelay = Math.max(0, TimeUnit.MILLISECONDS.toNanos(resetEpochSeconds * 1000 - currentTimeMillis.getAsLong()));
+        }
+        if (remainingHeader > 0 && resetDelay >= 0) {
+            // An exhausted budget is left to the gate below, which opens at the reset
+            intervalNanos = Math.max(minIntervalNanos, resetDelay / remainingHeader);
+            storedPermits = Math.min(storedPermits, remainingHeader);
+        }
+
+        long delay = -1;
+        if (retryAfterSeconds >= 0) {
+            delay = TimeUnit.SECONDS.toNanos(retryAfterSeconds);
+        } else if (remaining == 0 && resetDelay >= 0) {
+            delay = resetDelay;
+        }
+        if (delay >= 0) gateUntilNanos = Math.max(gateUntilNanos, now + delay);
+
+        boolean limited = status == 403 || status == 429;
+        return limited && delay >= 0 ? delay : -1;
+    }
+
+    /** The last X-RateLimit-Remaining value seen, or -1 before any response. */
+    public synchronized long remaining() { return remaining; }
+
+    /** Sleeps for a delay returned by {@link #reserve()} or {@link #update(int, HttpHeaders)}. */
+    public static void pause(long nanos) throws InterruptedException {
+        if (nanos > 0) TimeUnit.NANOSECONDS.sleep(nanos);
+    }
+
+    private static long longHeader(HttpHeaders headers, String name) {
+        if (headers == null) return -1;
+        try {
+            return headers.firstValue(name).map(v -> Long.parseLong(v.trim())).orElse(-1L);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.de013.githubuseractivity.service;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals of what the HTTP transport received: responses, how many of them came over HTTP/2, and
+ * body bytes as they crossed the network versus after gzip decoding. Bytes are counted as the bodies
+ * are read, so a body abandoned part-way only counts what was consumed. Safe for concurrent updates.
+ */
+public final class TransferStats {
+    private final LongAdder responses = new LongAdder();
+    private final LongAdder http2Responses = new LongAdder();
+    private final LongAdder wireBytes = new LongAdder();
+    private final LongAdder decodedBytes = new LongAdder();
+
+    void recordResponse(boolean http2) {
+        responses.increment();
+        if (http2) http2Responses.increment();
+    }
+
+    void addWireBytes(long bytes) { wireBytes.add(bytes); }
+
+    void addDecodedBytes(long bytes) { decodedBytes.add(bytes); }
+
+    public long responses() { return responses.sum(); }
+
+    public long http2Responses() { return http2Responses.sum(); }
+
+    public long wireBytes() { return wireBytes.sum(); }
+
+    public long decodedBytes() { return decodedBytes.sum(); }
+
+    /** Share of the decoded bytes that compression saved on the wire, 0 to 100. */
+    public int savedPercent() {
+        long decoded = decodedBytes();
+        if (decoded == 0) return 0;
+        return (int) Math.max(0, Math.round(100.0 * (decoded - wireBytes()) / decoded));
+    }
+}
@@ -0,0 +1,30 @@
+package org.de013.githubuseractivity.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Delivers the requests {@link UserActivityServiceImpl} builds and hands back decoded responses.
+ * {@link HttpTransport} sends them over the JDK HTTP client; tests and load runs can swap in another
+ * implementation, or point the service at a different base URL such as a {@code MockGitHubServer}.
+ */
+public interface Transport {
+
+    /** Returns once the headers have arrived; the body streams in while it is read from the reply. */
+    Reply send(HttpRequest request) throws IOException, InterruptedException;
+
+    /**
+     * Completes once the whole body has arrived, so reading it from the reply never blocks and no thread
+     * waits for the response in the meantime.
+     */
+    CompletableFuture<Reply> sendAsync(HttpRequest request);
+
+    /** Totals of what this transport has received. */
+    TransferStats stats();
+
+    /** Status, headers and the decoded body of a response. The body must be closed. */
+    record Reply(int status, HttpHeaders headers, InputStream body) {}
+}
@@ -1,6 +1,65 @@
 package org.de013.githubuseractivity.service;
 
+import org.de013.githubuseractivity.model.GitHubEvent;
+import org.de013.githubuseractivity.output.OutputSink;
+import org.de013.githubuseractivity.util.EventFilter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
 public interface UserActivityService {
-    void fetchUserActivity(String username);
-    void fetchUserActivity(String username, String eventTypeFilter);
+    /** Events returned when no limit is given, the size of GitHub's default first page. */
+    int DEFAULT_LIMIT = 30;
+    /** GitHub only exposes the most recent 300 events of a user. */
+    int MAX_LIMIT = 300;
+
+    /**
+     * Adds the events accepted by {@code filter} to {@code out} as they arrive. The group is neither
+     * finished nor written, and errors are only reported through the returned status; printing is left
+     * to the caller, except that an interrupted fetch throws as described for
+     * {@link #fetchEvents(String, int, Consumer)}. Payloads keep their raw JSON only when the group's sink
+     * writes it out.
+     */
+    FetchResult fetchUserActivity(String username, EventFilter filter, int limit, OutputSink.Group out);
+
+    /**
+     * Non-blocking counterpart of {@link #fetchUserActivity(String, EventFilter, int, OutputSink.Group)}:
+     * the events are added to {@code out} once every page has arrived, on the thread that completes the
+     * fetch. Failures complete the future with an unsuccessful status, not exceptionally.
+     */
+    CompletableFuture<FetchResult> fetchUserActivityAsync(String username, EventFilter filter, int limit, OutputSink.Group out);
+
+    /**
+     * Fetches up to {@code limit} events without blocking: requests are sent asynchronously, rate-limit
+     * waits are scheduled rather than slept, and bodies are parsed once they have arrived, so no thread
+     * waits for the network and thousands of fetches can be in flight at once. Completes with the events
+     * matching {@code filter}, or exceptionally with an {@link ActivityException}.
+     */
+    CompletableFuture<ActivityResult> fetchActivityAsync(String username, int limit, EventFilter filter);
+
+    /**
+     * Publishes up to {@code limit} events matching {@code filter} to each subscriber. Pages are fetched
+     * one at a time, only when the subscriber has requested more events than are buffered, so a slow or
+     * partial reader costs no more requests than it needs. A failure is signalled with
+     * {@link Flow.Subscriber#onError} as an {@link ActivityException}, after the events already fetched.
+     */
+    Flow.Publisher<GitHubEvent> publishEvents(String username, int limit, EventFilter filter);
+
+    /**
+     * Hands up to {@code limit} events to {@code consumer} as they are parsed, without printing anything.
+     * Errors are reported only through the returned status; a fetch whose thread is interrupted, or whose
+     * page requests are cancelled, throws {@link java.util.concurrent.CancellationException} instead, with
+     * the thread's interrupt flag restored.
+     */
+    default FetchResult fetchEvents(String username, int limit, Consumer<GitHubEvent> consumer) {
+        return fetchEvents(username, limit, EventFilter.ALL, consumer);
+    }
+
+    /**
+     * Like {@link #fetchEvents(String, int, Consumer)}, but only events matching {@code filter} reach the
+     * consumer. {@code limit} still counts every event fetched, matching or not, and the event count of
+     * the result is the number of matching events.
+     */
+    FetchResult fetchEvents(String username, int limit, EventFilter filter, Consumer<GitHubEvent> consumer);
 }
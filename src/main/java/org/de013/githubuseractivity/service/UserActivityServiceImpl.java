@@ -1,68 +1,819 @@
 package org.de013.githubuseractivity.service;
 
-import org.de013.githubuseractivity.util.EventFormatter;
-import org.de013.githubuseractivity.util.Messages;
+import org.de013.githubuseractivity.cache.ActivityCache;
+import org.de013.githubuseractivity.cache.HttpDiskCache;
+import org.de013.githubuseractivity.model.GitHubEvent;
+import org.de013.githubuseractivity.output.OutputSink;
+import org.de013.githubuseractivity.store.EventStore;
+import org.de013.githubuseractivity.util.EventFilter;
+import org.de013.githubuseractivity.util.EventParser;
+import org.de013.githubuseractivity.util.JsonTokenizer;
+import org.de013.githubuseractivity.util.SingleFlight;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class UserActivityServiceImpl implements UserActivityService {
-    private static final String BASE_URL = "https://api.github.com/users/{0}/events";
-    private final HttpClient httpClient;
+    public static final String DEFAULT_BASE_URL = "https://api.github.com";
+    private static final String USER_AGENT = "github-user-activity-cli";
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final int MAX_PER_PAGE = 100;
+    private static final int MAX_RETRIES = 3;
+    private static final Pattern LAST_PAGE = Pattern.compile("[?&]page=(\\d+)[^>]*>;\\s*rel=\"last\"");
+    private final Transport transport;
+    private final String baseUrl;
+    private final HttpDiskCache diskCache;
+    private final ActivityCache activityCache;
+    private final RateLimiter rateLimiter;
+    private final EventStore eventStore;
+    private final PhaseStats phaseStats;
+    private final SingleFlight<PageKey, Page> pages = new SingleFlight<>();
 
     public UserActivityServiceImpl() {
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(10))
-                .build();
+        this(HttpDiskCache.defaultCache());
     }
 
-    // Package-private constructor for testing
+    /** @param diskCache cache for conditional requests, or null to always download */
+    public UserActivityServiceImpl(HttpDiskCache diskCache) {
+        this(diskCache, new ActivityCache(ActivityCache.DEFAULT_MAX_ENTRIES));
+    }
+
+    /** @param activityCache in-memory cache of parsed events, or null to fetch every time */
+    public UserActivityServiceImpl(HttpDiskCache diskCache, ActivityCache activityCache) {
+        this(diskCache, activityCache, new RateLimiter());
+    }
+
+    /** @param rateLimiter paces every request this service sends, including concurrent ones */
+    public UserActivityServiceImpl(HttpDiskCache diskCache, ActivityCache activityCache, RateLimiter rateLimiter) {
+        this(diskCache, activityCache, rateLimiter, null);
+    }
+
+    /** @param eventStore local history every successful fetch is appended to, or null to keep none */
+    public UserActivityServiceImpl(HttpDiskCache diskCache, ActivityCache activityCache, RateLimiter rateLimiter,
+                                   EventStore eventStore) {
+        this(diskCache, activityCache, rateLimiter, eventStore, null);
+    }
+
+    /** @param phaseStats receives the timing of every request phase, or null to measure nothing */
+    public UserActivityServiceImpl(HttpDiskCache diskCache, ActivityCache activityCache, RateLimiter rateLimiter,
+                                   EventStore eventStore, PhaseStats phaseStats) {
+        this(new HttpTransport(), DEFAULT_BASE_URL, diskCache, activityCache, rateLimiter, eventStore, phaseStats);
+    }
+
+    // Package-private constructors for testing
     UserActivityServiceImpl(HttpClient httpClient) {
-        this.httpClient = httpClient;
+        this(httpClient, null, null);
+    }
+
+    UserActivityServiceImpl(HttpClient httpClient, HttpDiskCache diskCache, ActivityCache activityCache) {
+        this(httpClient, diskCache, activityCache, new RateLimiter());
+    }
+
+    UserActivityServiceImpl(HttpClient httpClient, HttpDiskCache diskCache, ActivityCache activityCache,
+                            RateLimiter rateLimiter) {
+        this(httpClient, diskCache, activityCache, rateLimiter, null);
+    }
+
+    UserActivityServiceImpl(HttpClient httpClient, HttpDiskCache diskCache, ActivityCache activityCache,
+                            RateLimiter rateLimiter, EventStore eventStore) {
+        this(httpClient, diskCache, activityCache, rateLimiter, eventStore, null);
+    }
+
+    UserActivityServiceImpl(HttpClient httpClient, HttpDiskCache diskCache, ActivityCache activityCache,
+                            RateLimiter rateLimiter, EventStore eventStore, PhaseStats phaseStats) {
+        this(new HttpTransport(() -> httpClient), DEFAULT_BASE_URL, diskCache, activityCache, rateLimiter, eventStore,
+                phaseStats);
+    }
+
+    /**
+     * @param transport sends the requests, e.g. an {@link HttpTransport}
+     * @param baseUrl   root of the API, {@link #DEFAULT_BASE_URL} or a stand-in such as a local mock server
+     */
+    public UserActivityServiceImpl(Transport transport, String baseUrl, HttpDiskCache diskCache,
+                                   ActivityCache activityCache, RateLimiter rateLimiter, EventStore eventStore,
+                                   PhaseStats phaseStats) {
+        this.transport = transport;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.diskCache = diskCache;
+        this.activityCache = activityCache;
+        this.rateLimiter = rateLimiter;
+        this.eventStore = eventStore;
+        this.phaseStats = phaseStats;
+    }
+
+    /** The in-memory event cache, or null when disabled. */
+    public ActivityCache getActivityCache() { return activityCache; }
+
+    /** Totals of the responses this service has received, for {@code --verbose}. */
+    public TransferStats getTransferStats() { return transport.stats(); }
+
+    @Override
+    public FetchResult fetchUserActivity(String username, EventFilter filter, int limit, OutputSink.Group out) {
+        FetchResult result;
+        if (phaseStats == null) {
+            result = fetchEvents(username, limit, filter, out.needsRawPayload(), out::event);
+        } else {
+            long[] formatNanos = new long[1];
+            result = fetchEvents(username, limit, filter, out.needsRawPayload(), event -> {
+                long start = System.nanoTime();
+                out.event(event);
+                formatNanos[0] += System.nanoTime() - start;
+            });
+            phaseStats.record(PhaseStats.Phase.FORMAT, formatNanos[0]);
+        }
+        return new FetchResult(result.status(), result.httpStatus(), out.eventCount(), result.pollInterval());
     }
 
     @Override
-    public void fetchUserActivity(String username) {
-        fetchUserActivity(username, null);
+    public CompletableFuture<FetchResult> fetchUserActivityAsync(String username, EventFilter filter, int limit,
+                                                                 OutputSink.Group out) {
+        return fetchActivityAsync(username, limit, filter, out.needsRawPayload()).handle((activity, error) -> {
+            if (error != null) {
+                ActivityException failure = failure(username, error);
+                return new FetchResult(failure.status(), failure.httpStatus(), 0, ActivityCache.DEFAULT_TTL);
+            }
+            long start = System.nanoTime();
+            activity.events().forEach(out::event);
+            if (phaseStats != null) phaseStats.record(PhaseStats.Phase.FORMAT, System.nanoTime() - start);
+            return new FetchResult(FetchStatus.OK, 200, out.eventCount(), activity.pollInterval());
+        });
+    }
+
+    /**
+     * Fetches up to {@code limit} events. The first page is handed to {@code consumer} as it streams in;
+     * the remaining pages, discovered from the Link header, are requested concurrently meanwhile and
+     * delivered in page order, skipping events already seen on an earlier page.
+     * <p>
+     * Payloads of events rejected by the filter's header checks are skipped while parsing. Such a window
+     * is incomplete, so it is not put into the event cache. With an event store every payload is kept,
+     * and the whole window is appended to the store once the fetch succeeds.
+     * <p>
+     * The events keep their raw payload JSON, since the consumer may write it out.
+     * <p>
+     * Concurrent fetches of the same user share each page's request and its parsed events, so N callers
+     * cost one request per page; a failure of the shared request is reported to all of them.
+     */
+    @Override
+    public FetchResult fetchEvents(String username, int limit, EventFilter filter, Consumer<GitHubEvent> consumer) {
+        return fetchEvents(username, limit, filter, true, consumer);
+    }
+
+    /**
+     * Like {@link #fetchEvents(String, int, EventFilter, Consumer)}; {@code keepRaw} says whether the
+     * consumer needs each payload's raw JSON. The event store always does.
+     */
+    private FetchResult fetchEvents(String username, int limit, EventFilter filter, boolean keepRaw,
+                                    Consumer<GitHubEvent> consumer) {
+        int cappedLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+        int perPage = Math.min(cappedLimit, MAX_PER_PAGE);
+        int wantedPages = (cappedLimit + perPage - 1) / perPage;
+        EventWindow window = new EventWindow(cappedLimit, filter, consumer);
+
+        boolean raw = keepRaw || eventStore != null;
+        String cacheKey = cacheKey(username, cappedLimit, raw);
+        ActivityCache.Hit cached = activityCache != null ? activityCache.get(cacheKey) : null;
+        if (cached != null) {
+            cached.events().forEach(window);
+            return new FetchResult(FetchStatus.OK, 200, window.matched, cached.pollInterval());
+        }
+        EventFilter parseFilter = eventStore != null ? EventFilter.ALL : filter;
+        List<GitHubEvent> fetched = (activityCache != null || eventStore != null) && !parseFilter.checksHeader()
+                ? new ArrayList<>() : null;
+        window.collectInto(fetched);
+
+        try {
+            List<CompletableFuture<Page>> remaining = new ArrayList<>();
+            Page first = fetchFirstPage(username, perPage, wantedPages, parseFilter, raw, window, remaining);
+            if (first.status() != 200) {
+                return httpError(first.status(), window);
+            }
+
+            for (int i = 0; i < remaining.size(); i++) {
+                CompletableFuture<Page> future = remaining.get(i);
+                if (window.isFull()) {
+                    future.cancel(true);
+                    continue;
+                }
+                Page page = future.join();
+                if (page.status() != 200) {
+                    remaining.subList(i + 1, remaining.size()).forEach(f -> f.cancel(true));
+                    return httpError(page.status(), window);
+                }
+                page.events().forEach(window);
+            }
+
+            Duration pollInterval = pollInterval(first.headers());
+            keep(username, cacheKey, first, fetched, pollInterval);
+            return new FetchResult(FetchStatus.OK, 200, window.matched, pollInterval);
+        } catch (InterruptedException e) {
+            // The caller gave up; that is not a network failure
+            Thread.currentThread().interrupt();
+            CancellationException cancelled = new CancellationException("Fetch of " + username + " interrupted");
+            cancelled.initCause(e);
+            throw cancelled;
+        } catch (CancellationException e) {
+            throw e;
+        } catch (Exception e) {
+            if (phaseStats != null) phaseStats.recordError(e);
+            return new FetchResult(FetchStatus.CONNECTION_ERROR, 0, window.matched, ActivityCache.DEFAULT_TTL);
+        }
     }
 
+    /**
+     * Requests every page at once and parses each body once it has arrived. Like {@link #fetchEvents}, the
+     * window is cached and stored when complete; cancelling the returned future withdraws its page requests.
+     */
     @Override
-    public void fetchUserActivity(String username, String eventTypeFilter) {
-        String url = BASE_URL.replace("{0}", username);
-        HttpRequest request = HttpRequest.newBuilder()
+    public CompletableFuture<ActivityResult> fetchActivityAsync(String username, int limit, EventFilter filter) {
+        return fetchActivityAsync(username, limit, filter, true);
+    }
+
+    private CompletableFuture<ActivityResult> fetchActivityAsync(String username, int limit, EventFilter filter,
+                                                                 boolean keepRaw) {
+        int cappedLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+        int perPage = Math.min(cappedLimit, MAX_PER_PAGE);
+        int wantedPages = (cappedLimit + perPage - 1) / perPage;
+        List<GitHubEvent> matched = new ArrayList<>();
+        EventWindow window = new EventWindow(cappedLimit, filter, matched::add);
+
+        boolean raw = keepRaw || eventStore != null;
+        String cacheKey = cacheKey(username, cappedLimit, raw);
+        ActivityCache.Hit cached = activityCache != null ? activityCache.get(cacheKey) : null;
+        if (cached != null) {
+            cached.events().forEach(window);
+            return CompletableFuture.completedFuture(new ActivityResult(username, matched, cached.pollInterval()));
+        }
+        EventFilter parseFilter = eventStore != null ? EventFilter.ALL : filter;
+        List<GitHubEvent> fetched = (activityCache != null || eventStore != null) && !parseFilter.checksHeader()
+                ? new ArrayList<>() : null;
+        window.collectInto(fetched);
+
+        CompletableFuture<ActivityResult> result = new CompletableFuture<>();
+        List<CompletableFuture<Page>> requested = new CopyOnWriteArrayList<>();
+        CompletableFuture<Page> firstPage = fetchPageAsync(username, perPage, 1, parseFilter, raw);
+        requested.add(firstPage);
+        firstPage
+                .thenCompose(first -> {
+                    if (first.status() != 200) throw httpFailure(username, first.status());
+                    // Cancelled while the first page was on its way
+                    if (result.isDone()) return CompletableFuture.<ActivityResult>failedFuture(new CancellationException());
+                    List<CompletableFuture<Page>> remaining = new ArrayList<>();
+                    requestRemainingPages(username, perPage, Math.min(wantedPages, lastPage(first.link())), parseFilter,
+                            raw, remaining);
+                    requested.addAll(remaining);
+                    return CompletableFuture.allOf(remaining.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+                        first.events().forEach(window);
+                        for (CompletableFuture<Page> future : remaining) {
+                            Page page = future.join();
+                            if (page.status() != 200) throw httpFailure(username, page.status());
+                            page.events().forEach(window);
+                        }
+                        Duration pollInterval = pollInterval(first.headers());
+                        keep(username, cacheKey, first, fetched, pollInterval);
+                        return new ActivityResult(username, matched, pollInterval);
+                    });
+                })
+                .whenComplete((activity, error) -> {
+                    if (error != null) result.completeExceptionally(failure(username, error));
+                    else result.complete(activity);
+                });
+        result.whenComplete((activity, error) -> {
+            if (result.isCancelled()) requested.forEach(page -> page.cancel(true));
+        });
+        return result;
+    }
+
+    @Override
+    public Flow.Publisher<GitHubEvent> publishEvents(String username, int limit, EventFilter filter) {
+        return subscriber -> {
+            Objects.requireNonNull(subscriber, "subscriber");
+            subscriber.onSubscribe(new EventSubscription(username, limit, filter, subscriber));
+        };
+    }
+
+    /**
+     * Fetches the first page, or waits for the same page another caller is already fetching. The caller
+     * that sends the request streams the body into {@code window}; one that waits gets the parsed page
+     * once it is complete. Both request the remaining pages into {@code remaining}, where callers for the
+     * same user share the requests as well.
+     */
+    private Page fetchFirstPage(String username, int perPage, int wantedPages, EventFilter filter, boolean keepRaw,
+                                EventWindow window, List<CompletableFuture<Page>> remaining)
+            throws IOException, InterruptedException, ExecutionException {
+        SingleFlight.Flight<Page> flight = pages.join(PageKey.of(username, perPage, 1, filter, keepRaw));
+        if (!flight.isLeader()) {
+            Page page = await(flight.result());
+            if (page.status() == 200) {
+                requestRemainingPages(username, perPage, Math.min(wantedPages, lastPage(page.link())), filter, keepRaw,
+                        remaining);
+                page.events().forEach(window);
+            }
+            return page;
+        }
+
+        try {
+            Response response = send(pageUrl(username, perPage, 1));
+            if (response.status() != 200) {
+                closeQuietly(response.body());
+                Page page = new Page(response.status(), response.headers(), response.link(), List.of());
+                flight.complete(page);
+                return page;
+            }
+
+            // Request the remaining pages before reading the first body so they download while it is consumed
+            requestRemainingPages(username, perPage, Math.min(wantedPages, lastPage(response.link())), filter, keepRaw,
+                    remaining);
+
+            List<GitHubEvent> events = new ArrayList<>();
+            parse(response.body(), filter, keepRaw, event -> {
+                events.add(event);
+                window.accept(event);
+            });
+            Page page = new Page(200, response.headers(), response.link(), events);
+            flight.complete(page);
+            return page;
+        } catch (IOException | InterruptedException | RuntimeException | Error e) {
+            flight.fail(e);
+            throw e;
+        }
+    }
+
+    private void requestRemainingPages(String username, int perPage, int pages, EventFilter filter, boolean keepRaw,
+                                       List<CompletableFuture<Page>> remaining) {
+        for (int page = 2; page <= pages; page++) {
+            remaining.add(fetchPageAsync(username, perPage, page, filter, keepRaw));
+        }
+    }
+
+    /** Waits for another caller's page; giving up on it leaves the request to the callers still waiting. */
+    private static Page await(CompletableFuture<Page> result) throws InterruptedException, ExecutionException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            throw e;
+        }
+    }
+
+    /** Windows parsed without raw payloads are cached apart, so they never reach a consumer that writes them out. */
+    private static String cacheKey(String username, int limit, boolean keepRaw) {
+        return username.toLowerCase() + "/" + limit + (keepRaw ? "" : "/fields");
+    }
+
+    /**
+     * Puts a complete window into the event cache and the event store, when they are enabled. Callers that
+     * shared the first page built the same window, so only the first of them to get here keeps it.
+     */
+    private void keep(String username, String cacheKey, Page first, List<GitHubEvent> fetched, Duration pollInterval) {
+        if (!first.claim(cacheKey)) return;
+        if (activityCache != null && fetched != null) {
+            activityCache.put(cacheKey, fetched, pollInterval);
+        }
+        if (eventStore != null) {
+            store(username, fetched);
+        }
+    }
+
+    /** Best effort: history that cannot be written is simply not kept, as with the caches. */
+    private void store(String username, List<GitHubEvent> events) {
+        try {
+            eventStore.append(username, events);
+        } catch (IOException | RuntimeException ignored) {
+            // Keep the fetch result
+        }
+    }
+
+    private static FetchResult httpError(int status, EventWindow window) {
+        return new FetchResult(fetchStatus(status), status, window.matched, ActivityCache.DEFAULT_TTL);
+    }
+
+    private static FetchStatus fetchStatus(int httpStatus) {
+        if (httpStatus == 404) return FetchStatus.NOT_FOUND;
+        if (httpStatus == 403 || httpStatus == 429) return FetchStatus.RATE_LIMITED;
+        return FetchStatus.HTTP_ERROR;
+    }
+
+    private static ActivityException httpFailure(String username, int httpStatus) {
+        return new ActivityException(username, fetchStatus(httpStatus), httpStatus, null);
+    }
+
+    /** The error an asynchronous fetch ended with; anything but an HTTP error means no answer arrived. */
+    private ActivityException failure(String username, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof ActivityException) return (ActivityException) cause;
+        if (phaseStats != null) phaseStats.recordError(cause);
+        return new ActivityException(username, FetchStatus.CONNECTION_ERROR, 0, cause);
+    }
+
+    private String pageUrl(String username, int perPage, int page) {
+        return baseUrl + "/users/" + username + "/events?per_page=" + perPage + "&page=" + page;
+    }
+
+    private HttpRequest buildRequest(String url, HttpDiskCache.Entry cached) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .header("Accept", "application/vnd.github+json")
-                .header("User-Agent", "github-user-activity-cli")
-                .timeout(Duration.ofSeconds(10))
-                .GET()
-                .build();
+                .header("User-Agent", USER_AGENT)
+                .timeout(TIMEOUT)
+                .GET();
+        // A 304 answer to a conditional request does not count against the rate limit
+        if (cached != null && cached.etag() != null) builder.header("If-None-Match", cached.etag());
+        if (cached != null && cached.lastModified() != null) builder.header("If-Modified-Since", cached.lastModified());
+        return builder.build();
+    }
+
+    /**
+     * Sends a request once the rate limiter allows it, retrying rate-limited answers that GitHub says
+     * can be retried. Answers with a synthetic 429 when the wait would exceed the limiter's maximum.
+     */
+    private Response send(String url) throws IOException, InterruptedException {
+        HttpDiskCache.Entry cached = diskCache != null ? diskCache.lookup(url) : null;
+        for (int attempt = 0; ; attempt++) {
+            long start = System.nanoTime();
+            long wait = rateLimiter.reserve();
+            if (wait < 0) return rateLimited();
+            RateLimiter.pause(wait);
+
+            long sent = System.nanoTime();
+            Transport.Reply raw = transport.send(buildRequest(url, cached));
+            if (phaseStats != null) recordExchange(sent - start, System.nanoTime() - sent);
+            long retryDelay = rateLimiter.update(raw.status(), raw.headers());
+            if (retryDelay >= 0 && attempt < MAX_RETRIES) {
+                closeQuietly(raw.body());
+                continue;
+            }
+
+            Response response = toResponse(url, cached, raw);
+            if (response != null) return response;
+            // The cached body was evicted between the lookup and the 304; ask again unconditionally
+            cached = null;
+        }
+    }
+
+    private CompletableFuture<Response> sendAsync(String url) {
+        return sendAsync(url, diskCache != null ? diskCache.lookup(url) : null, 0);
+    }
+
+    /** Non-blocking counterpart of {@link #send(String)}: waits are scheduled rather than slept. */
+    private CompletableFuture<Response> sendAsync(String url, HttpDiskCache.Entry cached, int attempt) {
+        long wait = rateLimiter.reserve();
+        if (wait < 0) return CompletableFuture.completedFuture(rateLimited());
+
+        CompletableFuture<HttpRequest> request = wait == 0
+                ? CompletableFuture.completedFuture(buildRequest(url, cached))
+                : CompletableFuture.supplyAsync(() -> buildRequest(url, cached),
+                        CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS));
+        return request
+                .thenCompose(r -> {
+                    if (phaseStats == null) return transport.sendAsync(r);
+                    long sent = System.nanoTime();
+                    return transport.sendAsync(r).whenComplete((reply, e) -> {
+                        if (reply != null) recordExchange(wait, System.nanoTime() - sent);
+                    });
+                })
+                .thenCompose(raw -> {
+                    long retryDelay = rateLimiter.update(raw.status(), raw.headers());
+                    if (retryDelay >= 0 && attempt < MAX_RETRIES) {
+                        closeQuietly(raw.body());
+                        return sendAsync(url, cached, attempt + 1);
+                    }
+                    Response response = toResponse(url, cached, raw);
+                    if (response != null) return CompletableFuture.completedFuture(response);
+                    return sendAsync(url, null, attempt);
+                });
+    }
+
+    private void recordExchange(long waitNanos, long headersNanos) {
+        phaseStats.recordRequest();
+        phaseStats.record(PhaseStats.Phase.WAIT, waitNanos);
+        phaseStats.record(PhaseStats.Phase.HEADERS, headersNanos);
+    }
+
+    private static Response rateLimited() {
+        return new Response(429, null, null, InputStream.nullInputStream());
+    }
+
+    /**
+     * Serves a 304 from the disk cache and records cacheable 200 bodies while they are read.
+     * Returns null if a 304 arrived but the cached body is gone.
+     */
+    private Response toResponse(String url, HttpDiskCache.Entry cached, Transport.Reply response) {
+        HttpHeaders headers = response.headers();
+        int status = response.status();
+        if (status == 304 && cached != null) {
+            closeQuietly(response.body());
+            InputStream body = diskCache.openBody(cached);
+            return body != null ? new Response(200, headers, cached.link(), body) : null;
+        }
+
+        // Already decoded, so the disk cache keeps plain JSON whatever the server sent
+        InputStream body = response.body();
+        String link = header(headers, "Link");
+        if (status == 200 && diskCache != null) {
+            String etag = header(headers, "ETag");
+            String lastModified = header(headers, "Last-Modified");
+            if (etag != null || lastModified != null) {
+                body = diskCache.record(url, etag, lastModified, link, body);
+            }
+        }
+        return new Response(status, headers, link, body);
+    }
 
+    /** Fetches a later page, sharing the request with concurrent callers that want the same page. */
+    private CompletableFuture<Page> fetchPageAsync(String username, int perPage, int page, EventFilter filter,
+                                                   boolean keepRaw) {
+        return pages.execute(PageKey.of(username, perPage, page, filter, keepRaw),
+                () -> sendAsync(pageUrl(username, perPage, page))
+                        .thenApply(response -> readPage(response, filter, keepRaw)));
+    }
+
+    private Page readPage(Response response, EventFilter filter, boolean keepRaw) {
+        List<GitHubEvent> events = new ArrayList<>();
+        try (InputStream body = response.body()) {
+            if (response.status() == 200) parse(body, filter, keepRaw, events::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Page(response.status(), response.headers(), response.link(), events);
+    }
+
+    /** Parses the body as it arrives, handing each event over the moment its object closes. */
+    private void parse(InputStream body, EventFilter filter, boolean keepRaw, Consumer<GitHubEvent> consumer)
+            throws IOException {
+        ParseEvent parseEvent = new ParseEvent();
+        if (phaseStats == null && !parseEvent.isEnabled()) {
+            parseBody(body, filter, keepRaw, consumer);
+            return;
+        }
+        // Reads, parsing and the consumer interleave; time the reads and the consumer, parsing is the rest
+        PhaseStats.TimedInputStream timed = new PhaseStats.TimedInputStream(body);
+        long[] consumerNanos = new long[1];
+        long[] events = new long[1];
+        parseEvent.begin();
+        long start = System.nanoTime();
         try {
-            HttpResponse<String> response = this.httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            parseBody(timed, filter, keepRaw, event -> {
+                long consumed = System.nanoTime();
+                consumer.accept(event);
+                consumerNanos[0] += System.nanoTime() - consumed;
+                events[0]++;
+            });
+        } finally {
+            long total = System.nanoTime() - start;
+            if (phaseStats != null) {
+                phaseStats.record(PhaseStats.Phase.DOWNLOAD, timed.blockedNanos());
+                phaseStats.record(PhaseStats.Phase.PARSE, Math.max(0, total - timed.blockedNanos() - consumerNanos[0]));
+                phaseStats.recordBodyBytes(timed.bytes());
+                phaseStats.recordEvents(events[0]);
+            }
+            parseEvent.end();
+            if (parseEvent.shouldCommit()) {
+                parseEvent.events = events[0];
+                parseEvent.bytes = timed.bytes();
+                parseEvent.readTime = timed.blockedNanos();
+                parseEvent.commit();
+            }
+        }
+    }
 
-            int status = response.statusCode();
-            if (status == 200) {
-                List<String> events = EventFormatter.format(response.body(), eventTypeFilter);
-                if (events.isEmpty()) {
-                    System.out.println(Messages.get("info.no_activity", username));
-                } else {
-                    for (String event : events) {
-                        System.out.println("- " + event);
+    private static void parseBody(InputStream body, EventFilter filter, boolean keepRaw, Consumer<GitHubEvent> consumer)
+            throws IOException {
+        try (Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8)) {
+            EventParser.parse(new JsonTokenizer(reader), filter, keepRaw, consumer);
+        }
+    }
+
+    /** Reads the last page number from a Link header, or 1 when there is no further page. */
+    static int lastPage(String link) {
+        if (link == null) return 1;
+        Matcher matcher = LAST_PAGE.matcher(link);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : 1;
+    }
+
+    /** How long GitHub asks clients to wait before polling again, from X-Poll-Interval. */
+    static Duration pollInterval(HttpHeaders headers) {
+        String value = header(headers, "X-Poll-Interval");
+        try {
+            if (value != null) return Duration.ofSeconds(Long.parseLong(value.trim()));
+        } catch (NumberFormatException ignored) {}
+        return ActivityCache.DEFAULT_TTL;
+    }
+
+    private static String header(HttpHeaders headers, String name) {
+        return headers != null ? headers.firstValue(name).orElse(null) : null;
+    }
+
+    private static void closeQuietly(InputStream stream) {
+        try {
+            if (stream != null) stream.close();
+        } catch (IOException ignored) {
+            // Nothing to recover
+        }
+    }
+
+    /** A response whose body comes from the network or, after a 304, from the disk cache. */
+    private record Response(int status, HttpHeaders headers, String link, InputStream body) {}
+
+    /**
+     * A page as parsed, shared by every caller that asked for it. Not modified once complete, apart from
+     * the windows kept from it.
+     */
+    private record Page(int status, HttpHeaders headers, String link, List<GitHubEvent> events, Set<String> keptWindows) {
+        Page(int status, HttpHeaders headers, String link, List<GitHubEvent> events) {
+            this(status, headers, link, events, ConcurrentHashMap.newKeySet());
+        }
+
+        /** Whether the window of {@code cacheKey} starting with this page is kept by this caller. */
+        boolean claim(String cacheKey) {
+            return keptWindows.add(cacheKey);
+        }
+    }
+
+    /**
+     * Identifies requests that return the same page. A filter that checks headers skips payloads while
+     * parsing, so such a page is only shared between callers using the same filter, and likewise between
+     * callers that all keep, or all drop, the raw payload JSON.
+     */
+    private record PageKey(String username, int perPage, int page, EventFilter filter, boolean keepRaw) {
+        static PageKey of(String username, int perPage, int page, EventFilter filter, boolean keepRaw) {
+            return new PageKey(username.toLowerCase(), perPage, page, filter.checksHeader() ? filter : null, keepRaw);
+        }
+    }
+
+    /**
+     * Hands events to one subscriber as it requests them. A page is only requested when the buffer is empty
+     * and the subscriber wants more, and the pages of a window are requested one after another. Signals are
+     * serialized by a drain loop that any thread may enter: the subscriber's, or the one completing a page.
+     */
+    private final class EventSubscription implements Flow.Subscription {
+        private final String username;
+        private final int perPage;
+        private final int wantedPages;
+        private final EventFilter filter;
+        private final Flow.Subscriber<? super GitHubEvent> subscriber;
+        private final Queue<GitHubEvent> buffer = new ConcurrentLinkedQueue<>();
+        private final EventWindow window;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger drains = new AtomicInteger();
+        // Written by the page callback before clearing fetching, read by the drain loop after checking it
+        private int nextPage = 1;
+        private int lastPage = 1;
+        private volatile boolean fetching;
+        private volatile boolean exhausted;
+        // The first failure wins, so cancelling the page after a rule 3.9 violation does not replace it
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private volatile boolean cancelled;
+        private volatile CompletableFuture<Page> inFlight;
+
+        EventSubscription(String username, int limit, EventFilter filter, Flow.Subscriber<? super GitHubEvent> subscriber) {
+            int cappedLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+            this.username = username;
+            this.perPage = Math.min(cappedLimit, MAX_PER_PAGE);
+            this.wantedPages = (cappedLimit + perPage - 1) / perPage;
+            this.filter = filter;
+            this.subscriber = subscriber;
+            this.window = new EventWindow(cappedLimit, filter, buffer::add);
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                // Rule 3.9 of the Reactive Streams specification
+                buffer.clear();
+                error.compareAndSet(null, new IllegalArgumentException("non-positive request: " + n));
+                stopFetching();
+            } else {
+                demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            stopFetching();
+            buffer.clear();
+        }
+
+        private void stopFetching() {
+            CompletableFuture<Page> page = inFlight;
+            if (page != null) page.cancel(true);
+        }
+
+        private void drain() {
+            if (drains.getAndIncrement() != 0) return;
+            int missed = 1;
+            do {
+                while (!cancelled) {
+                    GitHubEvent next = demand.get() > 0 ? buffer.poll() : null;
+                    if (next != null) {
+                        demand.decrementAndGet();
+                        subscriber.onNext(next);
+                        continue;
                     }
+                    if (!buffer.isEmpty() || fetching) break;
+                    if (error.get() != null) {
+                        cancelled = true;
+                        subscriber.onError(error.get());
+                    } else if (exhausted) {
+                        cancelled = true;
+                        subscriber.onComplete();
+                    } else if (demand.get() > 0) {
+                        fetchNextPage();
+                    }
+                    break;
                 }
-            } else if (status == 404) {
-                System.err.println(Messages.get("error.http.not_found", username));
-            } else if (status == 403 || status == 429) {
-                System.err.println(Messages.get("error.http.rate_limit"));
-            } else {
-                System.err.println(Messages.get("error.http.generic", status));
+                missed = drains.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void fetchNextPage() {
+            fetching = true;
+            int page = nextPage++;
+            CompletableFuture<Page> future = fetchPageAsync(username, perPage, page, filter, true);
+            inFlight = future;
+            if (cancelled) future.cancel(true);
+            future.whenComplete((result, e) -> {
+                if (e != null) {
+                    error.compareAndSet(null, failure(username, e));
+                } else if (result.status() != 200) {
+                    error.compareAndSet(null, httpFailure(username, result.status()));
+                } else {
+                    if (page == 1) lastPage = Math.min(wantedPages, lastPage(result.link()));
+                    result.events().forEach(window);
+                    exhausted = window.isFull() || page >= lastPage;
+                }
+                inFlight = null;
+                fetching = false;
+                drain();
+            });
+        }
+    }
+
+    /**
+     * Counts events until the limit is reached, dropping ids already seen on an earlier page, and passes
+     * on those matching the filter.
+     */
+    private static final class EventWindow implements Consumer<GitHubEvent> {
+        private final int limit;
+        private final EventFilter filter;
+        private final Consumer<GitHubEvent> consumer;
+        private final Set<String> seenIds = new HashSet<>();
+        private List<GitHubEvent> collected;
+        private int delivered;
+        private int matched;
+
+        EventWindow(int limit, EventFilter filter, Consumer<GitHubEvent> consumer) {
+            this.limit = limit;
+            this.filter = filter;
+            this.consumer = consumer;
+        }
+
+        boolean isFull() { return delivered >= limit; }
+
+        /** Also keeps every delivered event so the whole window can be cached. */
+        void collectInto(List<GitHubEvent> collected) { this.collected = collected; }
+
+        @Override
+        public void accept(GitHubEvent event) {
+            if (isFull()) return;
+            if (event.id() != null && !seenIds.add(event.id())) return;
+            delivered++;
+            if (collected != null) collected.add(event);
+            if (filter.test(event)) {
+                matched++;
+                consumer.accept(event);
             }
-        } catch (Exception e) {
-            System.err.println(Messages.get("error.http.connection"));
         }
     }
 }
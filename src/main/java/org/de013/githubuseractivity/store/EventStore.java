@@ -0,0 +1,399 @@
+package org.de013.githubuseractivity.store;
+
+import org.de013.githubuseractivity.model.EventType;
+import org.de013.githubuseractivity.model.GitHubEvent;
+import org.de013.githubuseractivity.model.Payload;
+import org.de013.githubuseractivity.util.BoundedIdSet;
+import org.de013.githubuseractivity.util.EventFilter;
+import org.de013.githubuseractivity.util.EventParser;
+import org.de013.githubuseractivity.util.JsonTokenizer;
+import org.de013.githubuseractivity.util.JsonWriter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Append-only local history of fetched events, kept beyond GitHub's 90-day / 300-event window.
+ * <p>
+ * Each user has a directory of segment files holding one event per line as JSON, and an index of
+ * fixed-size entries sorted by creation time that points into them. The index header holds a magic
+ * number and a format version; entries identify the event type by its stable {@link EventType#code()}. Appending writes the segment
+ * first and the index last, so an interrupted append leaves at most unreferenced segment bytes and a
+ * partial index entry behind; readers ignore the partial entry and the next append cuts it off.
+ * Queries map the index and segments into memory, binary-search the time range and check the
+ * event type from the index before a record is read. Several processes and threads may append
+ * concurrently; appends to one user are serialized with a lock per user directory within the JVM,
+ * which file locks cannot do, and a file lock across processes.
+ */
+public class EventStore {
+    public static final long DEFAULT_SEGMENT_BYTES = 64L * 1024 * 1024;
+
+    private static final int MAGIC = 0x47484531; // "GHE1"
+    // Version 0 stored the enum ordinal, which the codes were numbered after, so both read alike
+    private static final int FORMAT_VERSION = 1;
+    // magic(4) version(4)
+    private static final int HEADER_BYTES = 8;
+    // time(8) id(8) offset(8) segment(2) type(2) length(4)
+    private static final int ENTRY_BYTES = 32;
+    private static final String INDEX_FILE = "index";
+    private static final String LOCK_FILE = "lock";
+    private static final Pattern LOGIN = Pattern.compile("[A-Za-z0-9](?:[A-Za-z0-9-]{0,38})");
+    // Shared by every store in the JVM, since file locks are held per process
+    private static final ConcurrentMap<Path, Object> USER_LOCKS = new ConcurrentHashMap<>();
+
+    private final Path directory;
+    private final long segmentBytes;
+
+    public EventStore(Path directory) {
+        this(directory, DEFAULT_SEGMENT_BYTES);
+    }
+
+    public EventStore(Path directory, long segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    public static EventStore defaultStore() {
+        return new EventStore(Paths.get(System.getProperty("user.home"), ".github-activity", "store"));
+    }
+
+    /**
+     * Stores the events not stored yet and returns how many were added. Events are matched by id;
+     * since an event's id and creation time never change, only index entries from the batch's
+     * earliest timestamp onwards need to be compared.
+     *
+     * @throws IllegalArgumentException if {@code username} is not a GitHub login
+     */
+    public int append(String username, List<GitHubEvent> events) throws IOException {
+        if (events.isEmpty()) return 0;
+        Path userDir = userDirectory(username);
+        Files.createDirectories(userDir);
+
+        List<Pending> batch = new ArrayList<>(events.size());
+        for (GitHubEvent event : events) {
+            if (event.payload() == Payload.SKIPPED) continue;
+            batch.add(new Pending(event, epochSecond(event.createdAt()), BoundedIdSet.idValue(event.id())));
+        }
+        batch.sort(Comparator.comparingLong((Pending p) -> p.time).thenComparingLong(p -> p.id));
+        if (batch.isEmpty()) return 0;
+
+        synchronized (USER_LOCKS.computeIfAbsent(userDir.toAbsolutePath().normalize(), dir -> new Object())) {
+            try (FileChannel lockChannel = FileChannel.open(userDir.resolve(LOCK_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                // Released when the channel closes
+                lockChannel.lock();
+                return appendLocked(userDir, batch);
+            }
+        }
+    }
+
+    private int appendLocked(Path userDir, List<Pending> batch) throws IOException {
+        Index index = Index.read(userDir.resolve(INDEX_FILE));
+
+        // Drop events already stored, and duplicates within the batch
+        BoundedIdSet known = new BoundedIdSet(index.size() - index.lowerBound(batch.get(0).time) + batch.size());
+        for (int i = index.lowerBound(batch.get(0).time); i < index.size(); i++) known.add(index.id(i));
+        batch.removeIf(p -> !known.add(p.id));
+        if (batch.isEmpty()) return 0;
+
+        writeRecords(userDir, batch);
+        if (index.size() == 0 || batch.get(0).time >= index.time(index.size() - 1)) {
+            appendEntries(userDir.resolve(INDEX_FILE), index, batch);
+        } else {
+            rewriteIndex(userDir, index, batch);
+        }
+        return batch.size();
+    }
+
+    /**
+     * Hands the stored events matching {@code filter} to {@code consumer}, newest first, stopping after
+     * {@code limit} matches. The filter's since/until bound the index search.
+     */
+    public int query(String username, EventFilter filter, int limit, Consumer<GitHubEvent> consumer) throws IOException {
+        Path userDir = userDirectory(username);
+        Index index = Index.read(userDir.resolve(INDEX_FILE));
+        long since = filter.since() != null ? epochSecond(filter.since()) : Long.MIN_VALUE;
+        long until = filter.until() != null ? epochSecond(filter.until()) : Long.MAX_VALUE;
+
+        Map<Integer, MappedByteBuffer> segments = new HashMap<>();
+        GitHubEvent[] parsed = new GitHubEvent[1];
+        int matched = 0;
+        int first = index.lowerBound(since);
+        for (int i = index.upperBound(until) - 1; i >= first && matched < limit; i--) {
+            EventType type = index.type(i);
+            if (type != EventType.UNKNOWN && filter.rejectsHeader(type.apiName(), null, null, null)) continue;
+
+            ByteBuffer segment = segments.computeIfAbsent(index.segment(i), n -> mapSegment(userDir, n));
+            long offset = index.offset(i);
+            int length = index.length(i);
+            if (segment == null || offset + length > segment.limit()) continue; // unreferenced tail or damage
+
+            byte[] record = new byte[length];
+            segment.get((int) offset, record);
+            parsed[0] = null;
+            EventParser.parse(new JsonTokenizer(new String(record, StandardCharsets.UTF_8)), filter, e -> parsed[0] = e);
+            if (parsed[0] != null && filter.test(parsed[0])) {
+                consumer.accept(parsed[0]);
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    /** Number of events stored for a user. */
+    public int count(String username) throws IOException {
+        return Index.read(userDirectory(username).resolve(INDEX_FILE)).size();
+    }
+
+    /** Only a valid login is resolved, so a name such as "../x" cannot reach outside the store. */
+    private Path userDirectory(String username) {
+        if (username == null || !LOGIN.matcher(username).matches()) {
+            throw new IllegalArgumentException("Not a GitHub login: " + username);
+        }
+        return directory.resolve(username.toLowerCase());
+    }
+
+    /** Appends the records to the newest segment, starting a new one when it would grow past the limit. */
+    private void writeRecords(Path userDir, List<Pending> batch) throws IOException {
+        int segment = lastSegment(userDir);
+        FileChannel channel = openSegment(userDir, segment);
+        try {
+            for (Pending pending : batch) {
+                byte[] record = encode(pending.event);
+                if (channel.size() > 0 && channel.size() + record.length > segmentBytes) {
+                    channel.force(false);
+                    channel.close();
+                    channel = openSegment(userDir, ++segment);
+                }
+                pending.segment = segment;
+                pending.offset = channel.size();
+                pending.length = record.length;
+                ByteBuffer buffer = ByteBuffer.wrap(record);
+                while (buffer.hasRemaining()) channel.write(buffer);
+            }
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static FileChannel openSegment(Path userDir, int segment) throws IOException {
+        return FileChannel.open(segmentPath(userDir, segment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static int lastSegment(Path userDir) throws IOException {
+        int last = 1;
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(userDir, "*.seg")) {
+            for (Path path : segments) {
+                String name = path.getFileName().toString();
+                try {
+                    last = Math.max(last, Integer.parseInt(name.substring(0, name.length() - 4)));
+                } catch (NumberFormatException ignored) {
+                    // not one of ours
+                }
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Writes the entries after the last complete one. A torn tail is truncated first, since writing after
+     * it would shift every later entry off the entry boundaries.
+     */
+    private static void appendEntries(Path indexFile, Index index, List<Pending> batch) throws IOException {
+        long end = index.size() == 0 ? 0 : HEADER_BYTES + (long) index.size() * ENTRY_BYTES;
+        boolean create = end == 0;
+        ByteBuffer buffer = ByteBuffer.allocate((create ? HEADER_BYTES : 0) + batch.size() * ENTRY_BYTES).order(ByteOrder.BIG_ENDIAN);
+        if (create) buffer.putInt(MAGIC).putInt(FORMAT_VERSION);
+        for (Pending pending : batch) putEntry(buffer, pending);
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.truncate(end);
+            channel.position(end);
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(false);
+        }
+    }
+
+    /** Merges out-of-order entries into a new index and swaps it in atomically. */
+    private static void rewriteIndex(Path userDir, Index index, List<Pending> batch) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + (index.size() + batch.size()) * ENTRY_BYTES);
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION);
+        int i = 0;
+        int j = 0;
+        while (i < index.size() || j < batch.size()) {
+            if (j == batch.size() || (i < index.size() && index.time(i) <= batch.get(j).time)) {
+                index.copyEntry(i++, buffer);
+            } else {
+                putEntry(buffer, batch.get(j++));
+            }
+        }
+        buffer.flip();
+
+        Path temp = userDir.resolve(INDEX_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(false);
+        }
+        try {
+            Files.move(temp, userDir.resolve(INDEX_FILE), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, userDir.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void putEntry(ByteBuffer buffer, Pending pending) {
+        buffer.putLong(pending.time)
+                .putLong(pending.id)
+                .putLong(pending.offset)
+                .putShort((short) pending.segment)
+                .putShort((short) pending.event.type().code())
+                .putInt(pending.length);
+    }
+
+    private static MappedByteBuffer mapSegment(Path userDir, int segment) {
+        try (FileChannel channel = FileChannel.open(segmentPath(userDir, segment), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static Path segmentPath(Path userDir, int segment) {
+        return userDir.resolve(String.format("%05d.seg", segment));
+    }
+
+    /** One JSON line in the shape of the events API, so stored records parse like fresh responses. */
+    private static byte[] encode(GitHubEvent event) {
+        StringBuilder sb = new StringBuilder(256 + event.payload().raw().length());
+        JsonWriter json = new JsonWriter(sb).beginObject()
+                .name("id").value(event.id())
+                .name("type").value(event.typeName());
+        json.name("actor").beginObject().name("login").value(event.actor()).endObject();
+        json.name("repo").beginObject().name("name").value(event.repo()).endObject();
+        json.name("payload").rawValue(event.payload().raw())
+                .name("created_at").value(event.createdAt())
+                .endObject();
+        sb.append('\n');
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long epochSecond(String timestamp) {
+        if (timestamp == null) return 0;
+        try {
+            return Instant.parse(timestamp).getEpochSecond();
+        } catch (DateTimeParseException e) {
+            return 0;
+        }
+    }
+
+    private static final class Pending {
+        final GitHubEvent event;
+        final long time;
+        final long id;
+        int segment;
+        long offset;
+        int length;
+
+        Pending(GitHubEvent event, long time, long id) {
+            this.event = event;
+            this.time = time;
+            this.id = id;
+        }
+    }
+
+    /** Read-only view of an index file, mapped into memory. A partial entry at the end is ignored. */
+    private static final class Index {
+        private static final Index EMPTY = new Index(ByteBuffer.allocate(0), 0);
+
+        private final ByteBuffer entries;
+        private final int size;
+
+        private Index(ByteBuffer entries, int size) {
+            this.entries = entries;
+            this.size = size;
+        }
+
+        static Index read(Path file) throws IOException {
+            if (!Files.exists(file)) return EMPTY;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long bytes = channel.size();
+                if (bytes < HEADER_BYTES) return EMPTY;
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, bytes);
+                if (buffer.getInt(0) != MAGIC) throw new IOException("Not an event store index: " + file);
+                int version = buffer.getInt(4);
+                if (version > FORMAT_VERSION) {
+                    throw new IOException("Event store index version " + version + " is newer than this program: " + file);
+                }
+                int size = (int) ((bytes - HEADER_BYTES) / ENTRY_BYTES);
+                return new Index(buffer.position(HEADER_BYTES).slice(), size);
+            }
+        }
+
+        int size() { return size; }
+
+        long time(int i) { return entries.getLong(i * ENTRY_BYTES); }
+
+        long id(int i) { return entries.getLong(i * ENTRY_BYTES + 8); }
+
+        long offset(int i) { return entries.getLong(i * ENTRY_BYTES + 16); }
+
+        int segment(int i) { return entries.getShort(i * ENTRY_BYTES + 24) & 0xFFFF; }
+
+        EventType type(int i) { return EventType.fromCode(entries.getShort(i * ENTRY_BYTES + 26)); }
+
+        int length(int i) { return entries.getInt(i * ENTRY_BYTES + 28); }
+
+        void copyEntry(int i, ByteBuffer target) {
+            target.put(entries.slice(i * ENTRY_BYTES, ENTRY_BYTES));
+        }
+
+        /** First entry with time >= {@code time}. */
+        int lowerBound(long time) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (time(mid) < time) low = mid + 1;
+                else high = mid;
+            }
+            return low;
+        }
+
+        /** First entry with time > {@code time}. */
+        int upperBound(long time) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (time(mid) <= time) low = mid + 1;
+                else high = mid;
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.de013.githubuseractivity.util;
+
+/**
+ * Remembers the most recent {@code capacity} event ids using two primitive arrays.
+ * Ids are kept as longs in an open-addressing table, with a ring buffer recording insertion order
+ * so the oldest id is forgotten once the set is full. Memory stays fixed however long it runs.
+ */
+public class BoundedIdSet {
+    private final long[] ring;
+    private final long[] table;
+    private final int mask;
+    private int head;
+    private int size;
+    private boolean containsZero;
+
+    public BoundedIdSet(int capacity) {
+        this.ring = new long[capacity];
+        int tableSize = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;
+        this.table = new long[tableSize];
+        this.mask = tableSize - 1;
+    }
+
+    /** Adds an event id given as GitHub's decimal string; non-numeric ids are hashed. */
+    public boolean add(String id) {
+        if (id == null) return true;
+        return add(idValue(id));
+    }
+
+    /** The long an event id is stored as: its decimal value, or a hash when it is not numeric. */
+    public static long idValue(String id) {
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            return hash(id);
+        }
+    }
+
+    /** Returns true if the id was not already present. */
+    public boolean add(long id) {
+        if (contains(id)) return false;
+        if (size == ring.length) {
+            remove(ring[head]);
+        } else {
+            size++;
+        }
+        ring[head] = id;
+        head = (head + 1) % ring.length;
+        insert(id);
+        return true;
+    }
+
+    public boolean contains(long id) {
+        if (id == 0) return containsZero;
+        for (int slot = slot(id); table[slot] != 0; slot = (slot + 1) & mask) {
+            if (table[slot] == id) return true;
+        }
+        return false;
+    }
+
+    public int size() { return size; }
+
+    private void insert(long id) {
+        if (id == 0) {
+            containsZero = true;
+            return;
+        }
+        int slot = slot(id);
+        while (table[slot] != 0) slot = (slot + 1) & mask;
+        table[slot] = id;
+    }
+
+    private void remove(long id) {
+        if (id == 0) {
+            containsZero = false;
+            return;
+        }
+        int slot = slot(id);
+        while (table[slot] != id) {
+            if (table[slot] == 0) return;
+            slot = (slot + 1) & mask;
+        }
+        // Backward-shift deletion keeps every probe chain unbroken without tombstones
+        int gap = slot;
+        for (int next = (gap + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+            int home = slot(table[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                table[gap] = table[next];
+                gap = next;
+            }
+        }
+        table[gap] = 0;
+    }
+
+    private int slot(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static long hash(String id) {
+        long h = 1125899906842597L;
+        for (int i = 0; i < id.length(); i++) h = 31 * h + id.charAt(i);
+        return h;
+    }
+}
@@ -0,0 +1,226 @@
+package org.de013.githubuseractivity.util;
+
+import org.de013.githubuseractivity.model.EventType;
+import org.de013.githubuseractivity.model.GitHubEvent;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * A {@code --filter} expression compiled once into checks on an event's fields.
+ * <p>
+ * An expression is a list of space-separated terms that must all match. Each term is
+ * {@code key=value[,value...]} and matches if any of its values does; a term without a key lists types:
+ * <pre>
+ * push
+ * push,pullrequest repo=kamranahmedse/* action=opened,closed
+ * actor=octocat since=2024-05-01 until=2024-05-31T12:00:00Z
+ * </pre>
+ * Type, actor, repo and date only need the event's header fields, so {@link EventParser} asks
+ * {@link #rejectsHeader} before it reaches the payload and skips the payload of events already
+ * rejected. Action is read from the payload and checked last.
+ */
+public final class EventFilter implements Predicate<GitHubEvent> {
+    public static final EventFilter ALL = new EventFilter(null, null, null, null, null, null, null, null);
+
+    private final Set<EventType> types;
+    private final Set<String> otherTypeKeys;
+    private final String[] actors;
+    private final Pattern repo;
+    private final String since;
+    private final String until;
+    private final String[] actions;
+    private final Predicate<? super GitHubEvent> extra;
+
+    private EventFilter(Set<EventType> types, Set<String> otherTypeKeys, String[] actors, Pattern repo,
+                        String since, String until, String[] actions, Predicate<? super GitHubEvent> extra) {
+        this.types = types;
+        this.otherTypeKeys = otherTypeKeys;
+        this.actors = actors;
+        this.repo = repo;
+        this.since = since;
+        this.until = until;
+        this.actions = actions;
+        this.extra = extra;
+    }
+
+    /**
+     * Compiles an expression; null or blank matches everything.
+     *
+     * @throws IllegalArgumentException with the offending term as message
+     */
+    public static EventFilter compile(String expression) {
+        if (expression == null || expression.isBlank()) return ALL;
+
+        Set<EventType> types = null;
+        Set<String> otherTypeKeys = null;
+        List<String> actors = null;
+        List<String> repoGlobs = null;
+        String since = null;
+        String until = null;
+        List<String> actions = null;
+        for (String term : expression.trim().split("\\s+")) {
+            int eq = term.indexOf('=');
+            String key = eq < 0 ? "type" : term.substring(0, eq).toLowerCase();
+            String[] values = split(eq < 0 ? term : term.substring(eq + 1), term);
+            switch (key) {
+                case "type":
+                    if (types == null) {
+                        types = EnumSet.noneOf(EventType.class);
+                        otherTypeKeys = new HashSet<>();
+                    }
+                    for (String value : values) {
+                        EventType known = EventType.fromAlias(value);
+                        if (known != null) types.add(known);
+                        else otherTypeKeys.add(EventType.key(value));
+                    }
+                    break;
+                case "actor":
+                    actors = addAll(actors, values);
+                    break;
+                case "repo":
+                    repoGlobs = addAll(repoGlobs, values);
+                    break;
+                case "action":
+                    actions = addAll(actions, values);
+                    break;
+                case "since":
+                    since = timestamp(values, term, false);
+                    break;
+                case "until":
+                    until = timestamp(values, term, true);
+                    break;
+                default:
+                    throw new IllegalArgumentException(term);
+            }
+        }
+        return new EventFilter(types, otherTypeKeys, toArray(actors), globs(repoGlobs), since, until, toArray(actions), null);
+    }
+
+    /** A filter that additionally requires {@code predicate}, evaluated only for events matching this one. */
+    public EventFilter and(Predicate<? super GitHubEvent> predicate) {
+        Predicate<? super GitHubEvent> combined = extra == null ? predicate : event -> extra.test(event) && predicate.test(event);
+        return new EventFilter(types, otherTypeKeys, actors, repo, since, until, actions, combined);
+    }
+
+    /** Lower bound on created_at as an ISO-8601 instant, or null. */
+    public String since() { return since; }
+
+    /** Upper bound on created_at as an ISO-8601 instant, or null. */
+    public String until() { return until; }
+
+    /** Whether {@link #rejectsHeader} can reject anything, i.e. whether payloads may be skipped. */
+    public boolean checksHeader() {
+        return types != null || actors != null || repo != null || since != null || until != null;
+    }
+
+    /**
+     * Checks the header fields read so far; a null argument means "not read yet" and is not held
+     * against the event. Returns true only when the event cannot match whatever follows.
+     */
+    public boolean rejectsHeader(String typeName, String actor, String repoName, String createdAt) {
+        if (typeName != null && types != null && !matchesType(EventType.fromApiName(typeName), typeName)) return true;
+        if (actor != null && actors != null && !matchesActor(actor)) return true;
+        if (repoName != null && repo != null && !repo.matcher(repoName).matches()) return true;
+        return createdAt != null && !matchesDate(createdAt);
+    }
+
+    @Override
+    public boolean test(GitHubEvent event) {
+        if (types != null && !matchesType(event.type(), event.typeName())) return false;
+        if (actors != null && (event.actor() == null || !matchesActor(event.actor()))) return false;
+        if (repo != null && (event.repo() == null || !repo.matcher(event.repo()).matches())) return false;
+        if ((since != null || until != null) && (event.createdAt() == null || !matchesDate(event.createdAt()))) return false;
+        if (actions != null && !contains(actions, event.payload().action())) return false;
+        return extra == null || extra.test(event);
+    }
+
+    private boolean matchesType(EventType type, String typeName) {
+        if (type != EventType.UNKNOWN) return types.contains(type);
+        return typeName != null && otherTypeKeys.contains(EventType.key(typeName));
+    }
+
+    private boolean matchesActor(String actor) {
+        for (String candidate : actors) {
+            if (candidate.equalsIgnoreCase(actor)) return true;
+        }
+        return false;
+    }
+
+    // created_at is always "yyyy-MM-ddTHH:mm:ssZ", so timestamps compare as strings
+    private boolean matchesDate(String createdAt) {
+        if (since != null && createdAt.compareTo(since) < 0) return false;
+        return until == null || createdAt.compareTo(until) <= 0;
+    }
+
+    private static boolean contains(String[] values, String value) {
+        if (value == null) return false;
+        for (String candidate : values) {
+            if (candidate.equals(value)) return true;
+        }
+        return false;
+    }
+
+    private static String[] split(String values, String term) {
+        String[] parts = values.split(",");
+        for (String part : parts) {
+            if (part.isEmpty()) throw new IllegalArgumentException(term);
+        }
+        return parts;
+    }
+
+    private static List<String> addAll(List<String> list, String[] values) {
+        if (list == null) list = new ArrayList<>();
+        list.addAll(List.of(values));
+        return list;
+    }
+
+    private static String[] toArray(List<String> list) {
+        return list == null ? null : list.toArray(new String[0]);
+    }
+
+    /** Accepts a date or an instant; a date used as upper bound covers the whole day. */
+    private static String timestamp(String[] values, String term, boolean endOfDay) {
+        if (values.length != 1) throw new IllegalArgumentException(term);
+        Instant instant;
+        try {
+            instant = values[0].length() == 10
+                    ? LocalDate.parse(values[0]).atStartOfDay().toInstant(ZoneOffset.UTC)
+                    : Instant.parse(values[0]);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(term);
+        }
+        if (endOfDay && values[0].length() == 10) instant = instant.plus(1, ChronoUnit.DAYS).minusSeconds(1);
+        return DateTimeFormatter.ISO_INSTANT.format(instant.truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    /** Compiles globs where {@code *} matches any run of characters and {@code ?} one character. */
+    private static Pattern globs(List<String> globs) {
+        if (globs == null) return null;
+        StringBuilder regex = new StringBuilder();
+        for (String glob : globs) {
+            if (regex.length() > 0) regex.append('|');
+            int start = 0;
+            for (int i = 0; i < glob.length(); i++) {
+                char c = glob.charAt(i);
+                if (c != '*' && c != '?') continue;
+                if (i > start) regex.append(Pattern.quote(glob.substring(start, i)));
+                regex.append(c == '*' ? ".*" : ".");
+                start = i + 1;
+            }
+            if (start < glob.length()) regex.append(Pattern.quote(glob.substring(start)));
+        }
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE);
+    }
+}
@@ -0,0 +1,115 @@
+package org.de013.githubuseractivity.util;
+
+import org.de013.githubuseractivity.model.EventType;
+import org.de013.githubuseractivity.model.GitHubEvent;
+import org.de013.githubuseractivity.model.Payload;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Turns GitHub events JSON into {@link GitHubEvent}s.
+ * Accepts a top-level array (the API response) or a sequence of objects (NDJSON exports),
+ * and hands each event to the consumer as soon as its object closes.
+ */
+public class EventParser {
+
+    public static List<GitHubEvent> parse(String json) {
+        List<GitHubEvent> events = new ArrayList<>();
+        parse(new JsonTokenizer(json), events::add);
+        return events;
+    }
+
+    /** Parses every event from the tokenizer and returns how many were emitted. */
+    public static int parse(JsonTokenizer tokenizer, Consumer<GitHubEvent> consumer) {
+        return parse(tokenizer, EventFilter.ALL, consumer);
+    }
+
+    /**
+     * Like {@link #parse(JsonTokenizer, Consumer)}, but the payload of an event whose header fields
+     * {@code filter} already rejects is skipped without being copied and left as {@link Payload#SKIPPED}.
+     * Such events are still emitted, so callers that count events see them; apply the filter to decide
+     * which to keep.
+     */
+    public static int parse(JsonTokenizer tokenizer, EventFilter filter, Consumer<GitHubEvent> consumer) {
+        return parse(tokenizer, filter, true, consumer);
+    }
+
+    /**
+     * Like {@link #parse(JsonTokenizer, EventFilter, Consumer)}; payload fields are always decoded while
+     * parsing, and the payload's raw JSON is copied only when {@code keepRaw} is set. Callers that never
+     * write the payload back out, such as text output, pass false.
+     */
+    public static int parse(JsonTokenizer tokenizer, EventFilter filter, boolean keepRaw, Consumer<GitHubEvent> consumer) {
+        int count = 0;
+        boolean inArray = tokenizer.peek() == JsonTokenizer.Token.BEGIN_ARRAY;
+        if (inArray) tokenizer.beginArray();
+        while (tokenizer.hasNext()) {
+            if (tokenizer.peek() != JsonTokenizer.Token.BEGIN_OBJECT) {
+                tokenizer.skipValue();
+                continue;
+            }
+            consumer.accept(readEvent(tokenizer, filter, keepRaw));
+            count++;
+        }
+        if (inArray) tokenizer.endArray();
+        return count;
+    }
+
+    /** Reads one event object. Keys are matched by nesting level, so nested "type" keys never leak upwards. */
+    static GitHubEvent readEvent(JsonTokenizer tokenizer, EventFilter filter, boolean keepRaw) {
+        String id = null;
+        String type = null;
+        String actor = null;
+        String repo = null;
+        String createdAt = null;
+        Payload payload = Payload.EMPTY;
+
+        tokenizer.beginObject();
+        while (tokenizer.hasNext()) {
+            String name = tokenizer.nextName();
+            JsonTokenizer.Token value = tokenizer.peek();
+            if ("id".equals(name) && (value == JsonTokenizer.Token.STRING || value == JsonTokenizer.Token.NUMBER)) {
+                id = tokenizer.nextString();
+            } else if ("type".equals(name) && value == JsonTokenizer.Token.STRING) {
+                type = tokenizer.nextString();
+            } else if ("actor".equals(name) && value == JsonTokenizer.Token.BEGIN_OBJECT) {
+                actor = readMember(tokenizer, "login");
+            } else if ("repo".equals(name) && value == JsonTokenizer.Token.BEGIN_OBJECT) {
+                repo = readMember(tokenizer, "name");
+            } else if ("created_at".equals(name) && value == JsonTokenizer.Token.STRING) {
+                createdAt = tokenizer.nextString();
+            } else if ("payload".equals(name) && value == JsonTokenizer.Token.BEGIN_OBJECT) {
+                // GitHub sends id, type, actor and repo before the payload, so most rejections happen here
+                if (filter.rejectsHeader(type, actor, repo, createdAt)) {
+                    tokenizer.skipValue();
+                    payload = Payload.SKIPPED;
+                } else {
+                    payload = Payload.read(tokenizer, keepRaw);
+                }
+            } else {
+                tokenizer.skipValue();
+            }
+        }
+        tokenizer.endObject();
+
+        return new GitHubEvent(id, EventType.fromApiName(type), type, actor, repo, createdAt, payload);
+    }
+
+    /** Reads a single string member of a nested object such as "repo" or "actor". */
+    private static String readMember(JsonTokenizer tokenizer, String member) {
+        String result = null;
+        tokenizer.beginObject();
+        while (tokenizer.hasNext()) {
+            String name = tokenizer.nextName();
+            if (member.equals(name) && tokenizer.peek() == JsonTokenizer.Token.STRING) {
+                result = tokenizer.nextString();
+            } else {
+                tokenizer.skipValue();
+            }
+        }
+        tokenizer.endObject();
+        return result;
+    }
+}
@@ -0,0 +1,406 @@
+package org.de013.githubuseractivity.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+/**
+ * Incremental pull tokenizer for JSON text.
+ * The input is read exactly once through a small sliding buffer, so a string held in memory
+ * and a network stream are handled the same way and no value is copied unless it is asked for.
+ */
+public class JsonTokenizer {
+
+    public enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int NAME_CACHE_SIZE = 128;
+
+    // Scopes kept on the nesting stack
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+
+    private final Reader reader;
+    private char[] buffer;
+    private int pos;
+    private int limit;
+    private long discarded;
+
+    private int[] stack = new int[32];
+    private int stackSize = 1;
+    private Token peeked;
+
+    private final StringBuilder scratch = new StringBuilder();
+    private final String[] nameCache = new String[NAME_CACHE_SIZE];
+    private StringBuilder capture;
+    private int captureFrom;
+
+    public JsonTokenizer(Reader reader) {
+        this.reader = reader;
+        this.buffer = new char[BUFFER_SIZE];
+    }
+
+    public JsonTokenizer(String json) {
+        this(json.toCharArray(), 0, json.length());
+    }
+
+    /** Tokenizes {@code length} characters of {@code chars} in place, without copying them. */
+    public JsonTokenizer(char[] chars, int offset, int length) {
+        this.reader = null;
+        this.buffer = chars;
+        this.pos = offset;
+        this.limit = offset + length;
+        this.discarded = -offset;
+    }
+
+    public Token peek() {
+        if (peeked != null) return peeked;
+
+        int top = stackSize - 1;
+        int scope = stack[top];
+        int c;
+        switch (scope) {
+            case EMPTY_ARRAY:
+                c = nextNonWhitespace(true);
+                stack[top] = NONEMPTY_ARRAY;
+                if (c == ']') return peeked = Token.END_ARRAY;
+                break;
+            case NONEMPTY_ARRAY:
+                c = nextNonWhitespace(true);
+                if (c == ']') return peeked = Token.END_ARRAY;
+                if (c != ',') throw syntaxError("Expected ',' or ']'");
+                pos++;
+                c = nextNonWhitespace(true);
+                break;
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                c = nextNonWhitespace(true);
+                if (c == '}') return peeked = Token.END_OBJECT;
+                if (scope == NONEMPTY_OBJECT) {
+                    if (c != ',') throw syntaxError("Expected ',' or '}'");
+                    pos++;
+                    c = nextNonWhitespace(true);
+                }
+                if (c != '"') throw syntaxError("Expected a name");
+                stack[top] = DANGLING_NAME;
+                return peeked = Token.NAME;
+            case DANGLING_NAME:
+                c = nextNonWhitespace(true);
+                if (c != ':') throw syntaxError("Expected ':'");
+                pos++;
+                stack[top] = NONEMPTY_OBJECT;
+                c = nextNonWhitespace(true);
+                break;
+            default:
+                // Top level: a single value, or a sequence of values such as NDJSON
+                c = nextNonWhitespace(false);
+                if (c == -1) return peeked = Token.END_DOCUMENT;
+                stack[top] = NONEMPTY_DOCUMENT;
+                break;
+        }
+
+        switch (c) {
+            case '{': return peeked = Token.BEGIN_OBJECT;
+            case '[': return peeked = Token.BEGIN_ARRAY;
+            case '"': return peeked = Token.STRING;
+            case 't':
+            case 'f': return peeked = Token.BOOLEAN;
+            case 'n': return peeked = Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) return peeked = Token.NUMBER;
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    public boolean hasNext() {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    public void beginObject() {
+        expect(Token.BEGIN_OBJECT);
+        pos++;
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() {
+        expect(Token.END_OBJECT);
+        pos++;
+        stackSize--;
+    }
+
+    public void beginArray() {
+        expect(Token.BEGIN_ARRAY);
+        pos++;
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() {
+        expect(Token.END_ARRAY);
+        pos++;
+        stackSize--;
+    }
+
+    /** Returns the next member name. Repeated names share one {@code String} instance. */
+    public String nextName() {
+        expect(Token.NAME);
+        return readQuoted(true);
+    }
+
+    /** Returns the next scalar as text; numbers and booleans are returned as written, {@code null} as null. */
+    public String nextString() {
+        Token token = peek();
+        peeked = null;
+        switch (token) {
+            case STRING: return readQuoted(false);
+            case NUMBER:
+            case BOOLEAN: return readLiteral();
+            case NULL: readLiteral(); return null;
+            default:
+                peeked = token;
+                throw syntaxError("Expected a string but was " + token);
+        }
+    }
+
+    /** Returns the next number, or {@code fallback} when the value is null or not a whole number. */
+    public long nextLong(long fallback) {
+        String text = nextString();
+        if (text == null) return fallback;
+        try {
+            return Long.parseLong(text.trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    /** Skips the next value, including everything nested inside it, without decoding it. */
+    public void skipValue() {
+        int depth = 0;
+        do {
+            Token token = peek();
+            peeked = null;
+            switch (token) {
+                case BEGIN_OBJECT: pos++; push(EMPTY_OBJECT); depth++; break;
+                case BEGIN_ARRAY: pos++; push(EMPTY_ARRAY); depth++; break;
+                case END_OBJECT:
+                case END_ARRAY: pos++; stackSize--; depth--; break;
+                case NAME:
+                case STRING: skipQuoted(); break;
+                case NUMBER:
+                case BOOLEAN:
+                case NULL: skipLiteral(); break;
+                default:
+                    peeked = token;
+                    throw syntaxError("Unexpected end of input");
+            }
+        } while (depth > 0);
+    }
+
+    /** Skips the next value and returns its raw JSON text, the only copy made of it. */
+    public String readRawValue() {
+        beginCapture();
+        String raw;
+        try {
+            skipValue();
+        } finally {
+            raw = endCapture();
+        }
+        return raw;
+    }
+
+    /**
+     * Starts recording the raw text of the next value, so a caller can decode it and keep it in one pass.
+     * Read exactly that value, then call {@link #endCapture()}, in a finally block if reading can fail.
+     */
+    public void beginCapture() {
+        peek();
+        capture = new StringBuilder();
+        captureFrom = pos;
+    }
+
+    /** Stops recording and returns the text read since {@link #beginCapture()}. */
+    public String endCapture() {
+        StringBuilder text = capture;
+        capture = null;
+        return text.append(buffer, captureFrom, pos - captureFrom).toString();
+    }
+
+    /** Counts the elements of the next array without decoding them. */
+    public int countArrayElements() {
+        int count = 0;
+        beginArray();
+        while (hasNext()) {
+            skipValue();
+            count++;
+        }
+        endArray();
+        return count;
+    }
+
+    private void expect(Token expected) {
+        Token token = peek();
+        if (token != expected) throw syntaxError("Expected " + expected + " but was " + token);
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (stackSize == stack.length) {
+            int[] grown = new int[stackSize * 2];
+            System.arraycopy(stack, 0, grown, 0, stackSize);
+            stack = grown;
+        }
+        stack[stackSize++] = scope;
+    }
+
+    private int nextNonWhitespace(boolean throwOnEof) {
+        while (true) {
+            if (pos == limit && !fill()) {
+                if (throwOnEof) throw syntaxError("Unexpected end of input");
+                return -1;
+            }
+            char c = buffer[pos];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') return c;
+            pos++;
+        }
+    }
+
+    private String readQuoted(boolean cacheable) {
+        pos++; // opening quote
+        int start = pos;
+        int hash = 0;
+        for (int p = start; p < limit; p++) {
+            char c = buffer[p];
+            if (c == '"') {
+                pos = p + 1;
+                return cacheable ? cachedName(start, p - start, hash) : new String(buffer, start, p - start);
+            }
+            if (c == '\\') break;
+            hash = 31 * hash + c;
+        }
+
+        // Slow path: the string spans a buffer refill or contains escapes
+        StringBuilder sb = scratch;
+        sb.setLength(0);
+        while (true) {
+            if (pos == limit && !fill()) throw syntaxError("Unterminated string");
+            char c = buffer[pos++];
+            if (c == '"') return sb.toString();
+            if (c == '\\') {
+                sb.append(readEscape());
+            } else {
+                sb.append(c);
+            }
+        }
+    }
+
+    private char readEscape() {
+        if (pos == limit && !fill()) throw syntaxError("Unterminated escape sequence");
+        char c = buffer[pos++];
+        switch (c) {
+            case 'n': return '\n';
+            case 't': return '\t';
+            case 'r': return '\r';
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'u': {
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    if (pos == limit && !fill()) throw syntaxError("Unterminated escape sequence");
+                    int digit = Character.digit(buffer[pos++], 16);
+                    if (digit < 0) throw syntaxError("Invalid unicode escape");
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            }
+            default:
+                return c; // \" \\ \/
+        }
+    }
+
+    private String cachedName(int start, int length, int hash) {
+        int slot = (hash ^ (hash >>> 16)) & (NAME_CACHE_SIZE - 1);
+        String cached = nameCache[slot];
+        if (cached != null && cached.length() == length) {
+            boolean same = true;
+            for (int i = 0; i < length; i++) {
+                if (cached.charAt(i) != buffer[start + i]) { same = false; break; }
+            }
+            if (same) return cached;
+        }
+        String name = new String(buffer, start, length);
+        nameCache[slot] = name;
+        return name;
+    }
+
+    private void skipQuoted() {
+        pos++; // opening quote
+        while (true) {
+            if (pos == limit && !fill()) throw syntaxError("Unterminated string");
+            char c = buffer[pos++];
+            if (c == '"') return;
+            if (c == '\\') {
+                if (pos == limit && !fill()) throw syntaxError("Unterminated escape sequence");
+                pos++;
+            }
+        }
+    }
+
+    private String readLiteral() {
+        StringBuilder sb = scratch;
+        sb.setLength(0);
+        while (true) {
+            if (pos == limit && !fill()) break;
+            char c = buffer[pos];
+            if (isDelimiter(c)) break;
+            sb.append(c);
+            pos++;
+        }
+        return sb.toString();
+    }
+
+    private void skipLiteral() {
+        while (true) {
+            if (pos == limit && !fill()) return;
+            if (isDelimiter(buffer[pos])) return;
+            pos++;
+        }
+    }
+
+    private static boolean isDelimiter(char c) {
+        return c == ',' || c == '}' || c == ']' || c == ':' || c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    /** Discards consumed characters and reads more input. Only called once {@code pos == limit}. */
+    private boolean fill() {
+        if (reader == null) return false;
+        if (capture != null) {
+            capture.append(buffer, captureFrom, pos - captureFrom);
+            captureFrom = 0;
+        }
+        discarded += pos;
+        pos = 0;
+        limit = 0;
+        try {
+            int read;
+            do {
+                read = reader.read(buffer, 0, buffer.length);
+            } while (read == 0);
+            if (read < 0) return false;
+            limit = read;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private IllegalStateException syntaxError(String message) {
+        return new IllegalStateException(message + " at offset " + (discarded + pos));
+    }
+}
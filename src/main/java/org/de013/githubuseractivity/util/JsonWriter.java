@@ -0,0 +1,136 @@
+package org.de013.githubuseractivity.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Minimal streaming JSON writer, the output-side counterpart of {@link JsonTokenizer}.
+ * Commas between members and elements are inserted automatically.
+ */
+public class JsonWriter {
+    private final Appendable out;
+    private boolean[] first = new boolean[16];
+    private int depth;
+    private boolean afterName;
+
+    public JsonWriter(Appendable out) {
+        this.out = out;
+        this.first[0] = true;
+    }
+
+    public JsonWriter beginObject() { return open('{'); }
+
+    public JsonWriter endObject() { return close('}'); }
+
+    public JsonWriter beginArray() { return open('['); }
+
+    public JsonWriter endArray() { return close(']'); }
+
+    public JsonWriter name(String name) {
+        separate();
+        writeQuoted(name);
+        append(':');
+        afterName = true;
+        return this;
+    }
+
+    /** Writes a string value, or {@code null} when it is null. */
+    public JsonWriter value(String value) {
+        separate();
+        if (value == null) append("null");
+        else writeQuoted(value);
+        return this;
+    }
+
+    public JsonWriter value(long value) {
+        separate();
+        append(Long.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(boolean value) {
+        separate();
+        append(value ? "true" : "false");
+        return this;
+    }
+
+    /** Writes already-encoded JSON, such as a captured payload, as the next value. */
+    public JsonWriter rawValue(String json) {
+        separate();
+        append(json);
+        return this;
+    }
+
+    /** Appends {@code value} to {@code sb} as a quoted, escaped JSON string. */
+    public static void quote(StringBuilder sb, String value) {
+        new JsonWriter(sb).writeQuoted(value);
+    }
+
+    private JsonWriter open(char c) {
+        separate();
+        append(c);
+        if (++depth == first.length) {
+            boolean[] grown = new boolean[depth * 2];
+            System.arraycopy(first, 0, grown, 0, depth);
+            first = grown;
+        }
+        first[depth] = true;
+        return this;
+    }
+
+    private JsonWriter close(char c) {
+        depth--;
+        append(c);
+        return this;
+    }
+
+    private void separate() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (!first[depth]) append(',');
+        first[depth] = false;
+    }
+
+    private void writeQuoted(String value) {
+        append('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escape;
+            if (c == '"') escape = "\\\"";
+            else if (c == '\\') escape = "\\\\";
+            else if (c == '\n') escape = "\\n";
+            else if (c == '\r') escape = "\\r";
+            else if (c == '\t') escape = "\\t";
+            else if (c < 0x20 || c == 0x2028 || c == 0x2029) escape = String.format("\\u%04x", (int) c);
+            else continue;
+            append(value, start, i);
+            append(escape);
+            start = i + 1;
+        }
+        append(value, start, value.length());
+        append('"');
+    }
+
+    private void append(char c) {
+        try {
+            out.append(c);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void append(CharSequence s) {
+        append(s, 0, s.length());
+    }
+
+    private void append(CharSequence s, int start, int end) {
+        try {
+            out.append(s, start, end);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
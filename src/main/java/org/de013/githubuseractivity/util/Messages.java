@@ -5,18 +5,33 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Bilingual message catalog. Class loading only records the raw texts; each template is compiled into
+ * literal segments and placeholder indexes the first time it is rendered in a language, since a run
+ * uses a handful of the messages. Compiled templates never change, so rendering is safe from any
+ * thread and each call can pick its own language.
+ */
 public class Messages {
     private static final Path CONFIG_FILE = Paths.get("language.config");
-    public static Language currentLanguage = Language.EN;
+    private static final Language[] LANGUAGES = Language.values();
+    private static final int MAX_RETAINED_BUILDER = 8192;
+
+    /** Language used by the overloads without a language parameter. */
+    public static volatile Language currentLanguage = Language.EN;
 
     public enum Language {
         VI, EN
     }
 
-    private static final Map<String, Map<Language, String>> messages = new HashMap<>();
+    // key -> texts and, once used, compiled templates per Language.ordinal()
+    private static final Map<String, Entry> messages = new HashMap<>(256);
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(256));
 
     static {
         loadLanguagePreference();
@@ -30,8 +45,31 @@ public class Messages {
         // Default command
         addMessage("error.default.missing_username", "Error: Missing Username. Usage: github-activity <username>", "Lỗi: Thiếu Username. Cách dùng: github-activity <username>");
 
+        addMessage("error.limit.invalid", "Error: Invalid limit '{0}'. Use a number between 1 and 300.", "Lỗi: Giới hạn '{0}' không hợp lệ. Dùng số từ 1 đến 300.");
+
+        addMessage("error.filter.invalid", "Error: Invalid filter term '{0}'. Use type, repo, action, actor, since or until, e.g. 'push repo=owner/*'.", "Lỗi: Điều kiện lọc '{0}' không hợp lệ. Dùng type, repo, action, actor, since hoặc until, ví dụ 'push repo=owner/*'.");
+        addMessage("error.format.invalid", "Error: Invalid format '{0}'. Use text, json, ndjson or csv.", "Lỗi: Định dạng '{0}' không hợp lệ. Dùng text, json, ndjson hoặc csv.");
+
+        addMessage("error.max_wait.invalid", "Error: Invalid max wait '{0}'. Use a number of seconds.", "Lỗi: Thời gian chờ tối đa '{0}' không hợp lệ. Dùng số giây.");
+        addMessage("error.api_url.invalid", "Error: Invalid API URL '{0}'. Use an http or https URL such as https://api.github.com", "Lỗi: Địa chỉ API '{0}' không hợp lệ. Dùng URL http hoặc https, ví dụ https://api.github.com");
+
+        // Batch command
+        addMessage("error.batch.no_users", "Error: No usernames given. Usage: github-activity --batch <username...> [--file <path|->]", "Lỗi: Chưa có username nào. Cách dùng: github-activity --batch <username...> [--file <path|->]");
+        addMessage("error.batch.file", "Error: Cannot read usernames from '{0}'.", "Lỗi: Không thể đọc danh sách username từ '{0}'.");
+        addMessage("error.batch.invalid_parallel", "Error: Invalid parallelism '{0}'. Use a positive number.", "Lỗi: Mức song song '{0}' không hợp lệ. Dùng số dương.");
+        addMessage("batch.header", "== {0} ==", "== {0} ==");
+        addMessage("batch.summary.header", "Summary:", "Tổng kết:");
+        addMessage("batch.summary.line", "  {0}: {1} ({2} event(s))", "  {0}: {1} ({2} sự kiện)");
+        addMessage("batch.summary.total", "{0} succeeded, {1} failed.", "{0} thành công, {1} thất bại.");
+        addMessage("batch.status.ok", "OK", "Thành công");
+        addMessage("batch.status.not_found", "not found", "không tìm thấy");
+        addMessage("batch.status.rate_limited", "rate limited", "bị giới hạn tốc độ");
+        addMessage("batch.status.http_error", "HTTP error", "lỗi HTTP");
+        addMessage("batch.status.connection_error", "connection error", "lỗi kết nối");
+
         // HTTP errors
         addMessage("error.http.not_found", "Error: User '{0}' not found.", "Lỗi: Không tìm thấy người dùng '{0}'.");
+        addMessage("rate_limit.waiting", "GitHub API rate limit reached, waiting {0}s before the next request...", "Đã chạm giới hạn GitHub API, chờ {0}s trước yêu cầu tiếp theo...");
         addMessage("error.http.rate_limit", "Error: GitHub API rate limit exceeded. Please try again later.", "Lỗi: Đã vượt quá giới hạn GitHub API. Vui lòng thử lại sau.");
         addMessage("error.http.generic", "Error: GitHub API returned status {0}.", "Lỗi: GitHub API trả về trạng thái {0}.");
         addMessage("error.http.connection", "Error: Could not connect to GitHub API. Check your internet connection.", "Lỗi: Không thể kết nối GitHub API. Kiểm tra kết nối mạng.");
@@ -45,11 +83,30 @@ public class Messages {
         addMessage("help.text",
                 "Usage: github-activity <command> [options]\n\n" +
                 "Commands:\n" +
-                "  <username>                         Fetch recent GitHub activity for a user\n\n" +
+                "  <username>                         Fetch recent GitHub activity for a user\n" +
+                "  -b, --batch <username...>          Fetch many users concurrently\n" +
+                "      --serve <port>                 Serve activity as a JSON API\n" +
+                "      --input <path|->               Format recorded events from a file or stdin\n" +
+                "      --archive <path...> --user <login>\n" +
+                "                                     Find a user's events in GH Archive .json.gz files\n\n" +
                 "Options:\n" +
                 "  -h, --help                         Show this help message\n" +
                 "  -l, --language <en|vi>             Switch display language (persisted)\n" +
-                "  -f, --filter <type>                Filter activity by event type\n\n" +
+                "  -f, --filter <expr>                Filter by type and by repo=, action=, actor=, since=, until=\n" +
+                "  -n, --limit <n>                    Fetch up to n events (default 30, max 300)\n" +
+                "      --all                          Fetch the full 300-event window\n" +
+                "  -w, --watch                        Keep polling and print only new events\n" +
+                "      --format <format>              Output as text, json, ndjson or csv (default text)\n" +
+                "      --summary                      Print counts per type, repo, day and hour instead of events\n" +
+                "      --history                      Read events kept by --store instead of fetching\n" +
+                "      --file <path|->                Batch: read usernames from a file or stdin\n" +
+                "  -p, --parallel <n>                 Batch: maximum concurrent fetches (default 8); input, archive: worker threads\n" +
+                "      --no-cache                     Always download instead of revalidating the disk cache\n" +
+                "      --store                        Keep every fetched event in a local history\n" +
+                "      --verbose                      Report responses and bytes received, compressed and decoded\n" +
+                "      --stats                        Print timings per phase (wait, headers, download, parse, format, output)\n" +
+                "      --max-wait <seconds>           Longest wait for the rate limit to reset (default 60; batch, watch, serve: 3600)\n" +
+                "      --api-url <url>                API root to use instead of https://api.github.com\n\n" +
                 "Event types for --filter:\n" +
                 "  push, watch, fork, create, delete,\n" +
                 "  issues, pullrequest, release,\n" +
@@ -57,15 +114,41 @@ public class Messages {
                 "Examples:\n" +
                 "  github-activity kamranahmedse\n" +
                 "  github-activity kamranahmedse --filter push\n" +
+                "  github-activity kamranahmedse --filter \"push,pullrequest repo=kamranahmedse/*\"\n" +
+                "  github-activity kamranahmedse --all --verbose\n" +
+                "  github-activity kamranahmedse --format ndjson\n" +
+                "  github-activity kamranahmedse --history --filter since=2024-01-01 --summary\n" +
+                "  github-activity --batch kamranahmedse torvalds --parallel 4 --stats\n" +
+                "  github-activity --input events.ndjson --summary\n" +
+                "  github-activity --archive gharchive/ --user kamranahmedse --filter push\n" +
                 "  github-activity --language vi\n" +
                 "  github-activity --help\n",
                 "Cách dùng: github-activity <lệnh> [tùy chọn]\n\n" +
                 "Lệnh:\n" +
-                "  <username>                         Lấy hoạt động GitHub gần đây của người dùng\n\n" +
+                "  <username>                         Lấy hoạt động GitHub gần đây của người dùng\n" +
+                "  -b, --batch <username...>          Lấy hoạt động của nhiều người dùng song song\n" +
+                "      --serve <port>                 Cung cấp hoạt động dưới dạng JSON API\n" +
+                "      --input <path|->               Định dạng sự kiện đã ghi từ tệp hoặc stdin\n" +
+                "      --archive <path...> --user <login>\n" +
+                "                                     Tìm sự kiện của người dùng trong tệp .json.gz của GH Archive\n\n" +
                 "Tùy chọn:\n" +
                 "  -h, --help                         Hiển thị trợ giúp này\n" +
                 "  -l, --language <en|vi>             Chuyển đổi ngôn ngữ hiển thị (được lưu lại)\n" +
-                "  -f, --filter <type>                Lọc hoạt động theo loại sự kiện\n\n" +
+                "  -f, --filter <expr>                Lọc theo loại và theo repo=, action=, actor=, since=, until=\n" +
+                "  -n, --limit <n>                    Lấy tối đa n sự kiện (mặc định 30, tối đa 300)\n" +
+                "      --all                          Lấy toàn bộ 300 sự kiện gần nhất\n" +
+                "  -w, --watch                        Tiếp tục theo dõi và chỉ in sự kiện mới\n" +
+                "      --format <format>              Xuất dạng text, json, ndjson hoặc csv (mặc định text)\n" +
+                "      --summary                      In thống kê theo loại, repo, ngày và giờ thay vì từng sự kiện\n" +
+                "      --history                      Đọc sự kiện đã lưu bằng --store thay vì tải mới\n" +
+                "      --file <path|->                Batch: đọc username từ tệp hoặc stdin\n" +
+                "  -p, --parallel <n>                 Batch: số lượt tải song song tối đa (mặc định 8); input, archive: số luồng xử lý\n" +
+                "      --no-cache                     Luôn tải mới thay vì xác thực lại bộ nhớ đệm trên đĩa\n" +
+                "      --store                        Lưu mọi sự kiện đã tải vào lịch sử cục bộ\n" +
+                "      --verbose                      Báo cáo số phản hồi và số byte đã nhận, nén và giải nén\n" +
+                "      --stats                        In thời gian theo từng giai đoạn (chờ, header, tải, phân tích, định dạng, xuất)\n" +
+                "      --max-wait <seconds>           Thời gian chờ tối đa để giới hạn tốc độ được đặt lại (mặc định 60; batch, watch, serve: 3600)\n" +
+                "      --api-url <url>                Địa chỉ API thay cho https://api.github.com\n\n" +
                 "Loại sự kiện cho --filter:\n" +
                 "  push, watch, fork, create, delete,\n" +
                 "  issues, pullrequest, release,\n" +
@@ -73,6 +156,13 @@ public class Messages {
                 "Ví dụ:\n" +
                 "  github-activity kamranahmedse\n" +
                 "  github-activity kamranahmedse --filter push\n" +
+                "  github-activity kamranahmedse --filter \"push,pullrequest repo=kamranahmedse/*\"\n" +
+                "  github-activity kamranahmedse --all --verbose\n" +
+                "  github-activity kamranahmedse --format ndjson\n" +
+                "  github-activity kamranahmedse --history --filter since=2024-01-01 --summary\n" +
+                "  github-activity --batch kamranahmedse torvalds --parallel 4 --stats\n" +
+                "  github-activity --input events.ndjson --summary\n" +
+                "  github-activity --archive gharchive/ --user kamranahmedse --filter push\n" +
                 "  github-activity --language vi\n" +
                 "  github-activity --help\n");
 
@@ -95,36 +185,85 @@ public class Messages {
         addMessage("event.public", "Made {0} public", "Đã công khai {0}");
         addMessage("event.unknown", "Did something in {0}", "Đã thực hiện hành động trong {0}");
 
+        // Serve command
+        addMessage("error.serve.invalid_port", "Error: Invalid port '{0}'. Usage: github-activity --serve <port>", "Lỗi: Cổng '{0}' không hợp lệ. Cách dùng: github-activity --serve <port>");
+        addMessage("error.serve.invalid_threads", "Error: Invalid thread count '{0}'. Use a positive number.", "Lỗi: Số luồng '{0}' không hợp lệ. Dùng số dương.");
+        addMessage("error.serve.bind", "Error: Cannot listen on port {0}: {1}", "Lỗi: Không thể lắng nghe trên cổng {0}: {1}");
+        addMessage("serve.started", "Serving on http://localhost:{0}/users/<name>/activity. Press Ctrl+C to stop.", "Đang phục vụ tại http://localhost:{0}/users/<name>/activity. Nhấn Ctrl+C để dừng.");
+
+        // Watch command
+        addMessage("watch.started", "Watching {0} for new activity. Press Ctrl+C to stop.", "Đang theo dõi hoạt động mới của {0}. Nhấn Ctrl+C để dừng.");
+
+        // Summary mode
+        addMessage("error.summary.watch", "Error: --summary cannot be combined with --watch.", "Lỗi: Không thể dùng --summary cùng với --watch.");
+        addMessage("error.input.missing", "Error: Missing input. Usage: github-activity --input <path|->", "Lỗi: Thiếu đầu vào. Cách dùng: github-activity --input <path|->");
+        addMessage("error.input.read", "Error: Cannot read '{0}': {1}", "Lỗi: Không thể đọc '{0}': {1}");
+        addMessage("error.input.parse", "Error: Invalid JSON in '{0}': {1}", "Lỗi: JSON không hợp lệ trong '{0}': {1}");
+        addMessage("error.archive.user", "Error: Invalid or missing login '{0}'. Usage: github-activity --archive <path...> --user <login>", "Lỗi: Login '{0}' không hợp lệ hoặc bị thiếu. Cách dùng: github-activity --archive <path...> --user <login>");
+        addMessage("error.archive.no_files", "Error: No archive files given. Pass .json.gz files or directories containing them.", "Lỗi: Chưa có tệp lưu trữ nào. Truyền các tệp .json.gz hoặc thư mục chứa chúng.");
+        addMessage("error.archive.read", "Error: Cannot read archive '{0}': {1}", "Lỗi: Không thể đọc tệp lưu trữ '{0}': {1}");
+        addMessage("archive.done", "Scanned {0} file(s), {1} MB decompressed, {2} event(s) matched in {3} ms.", "Đã quét {0} tệp, giải nén {1} MB, khớp {2} sự kiện trong {3} ms.");
+        addMessage("error.history.watch", "Error: --history cannot be combined with --watch.", "Lỗi: Không thể dùng --history cùng với --watch.");
+        addMessage("error.history.limit", "Error: Invalid limit '{0}'. Use a positive number.", "Lỗi: Giới hạn '{0}' không hợp lệ. Dùng số dương.");
+        addMessage("error.username.invalid", "Error: Invalid username '{0}'. A GitHub username has up to 39 letters, digits or hyphens.", "Lỗi: Username '{0}' không hợp lệ. Username GitHub gồm tối đa 39 chữ cái, chữ số hoặc dấu gạch ngang.");
+        addMessage("error.history.read", "Error: Cannot read stored history: {0}", "Lỗi: Không thể đọc lịch sử đã lưu: {0}");
+        addMessage("summary.total", "{0} event(s), {1} commit(s) pushed", "{0} sự kiện, {1} commit đã đẩy");
+        addMessage("summary.by_type", "By type:", "Theo loại:");
+        addMessage("summary.by_repo", "By repository:", "Theo repository:");
+        addMessage("summary.by_user", "By user:", "Theo người dùng:");
+        addMessage("summary.by_day", "By day (UTC):", "Theo ngày (UTC):");
+        addMessage("summary.by_hour", "By hour (UTC):", "Theo giờ (UTC):");
+
+        // Transfer statistics
+        addMessage("transfer.stats", "Received {0} response(s), {1} over HTTP/2: {2} bytes on the wire, {3} bytes decoded ({4}% saved by compression).", "Đã nhận {0} phản hồi, {1} qua HTTP/2: {2} byte trên đường truyền, {3} byte sau giải nén (nén tiết kiệm {4}%).");
+
+        // Phase timings
+        addMessage("stats.header", "Timings per phase:", "Thời gian theo giai đoạn:");
+        addMessage("stats.totals", "{0} request(s), {1} event(s) parsed from {2} body bytes, {3} ms in total.", "{0} yêu cầu, phân tích {1} sự kiện từ {2} byte nội dung, tổng cộng {3} ms.");
+        addMessage("stats.error", "{0} x {1}", "{0} x {1}");
+
         // Info messages
         addMessage("info.no_activity", "No recent activity found for '{0}'.", "Không tìm thấy hoạt động gần đây của '{0}'.");
     }
 
     private static void addMessage(String key, String en, String vi) {
-        Map<Language, String> translations = new HashMap<>();
-        translations.put(Language.EN, en);
-        translations.put(Language.VI, vi);
-        messages.put(key, translations);
+        String[] texts = new String[LANGUAGES.length];
+        texts[Language.EN.ordinal()] = en;
+        texts[Language.VI.ordinal()] = vi;
+        messages.put(key, new Entry(texts));
     }
 
     public static String get(String key, Object... params) {
-        Map<Language, String> translations = messages.get(key);
-        if (translations == null) {
-            return key;
-        }
+        return get(currentLanguage, key, params);
+    }
 
-        String message = translations.get(currentLanguage);
-        if (message == null) {
-            return key;
-        }
-
-        // Replace placeholders {0}, {1}, etc
-        for (int i = 0; i < params.length; i++) {
-            message = message.replace("{" + i + "}", String.valueOf(params[i]));
-        }
+    /** Renders {@code key} in the given language, replacing {0}, {1}, ... with {@code params}. */
+    public static String get(Language language, String key, Object... params) {
+        Template template = lookup(language, key);
+        if (template == null) return key;
+        if (template.params.length == 0) return template.literals[0];
 
+        StringBuilder sb = BUILDER.get();
+        sb.setLength(0);
+        template.render(sb, params);
+        String message = sb.toString();
+        if (sb.capacity() > MAX_RETAINED_BUILDER) BUILDER.remove();
         return message;
     }
 
+    /** Appends the rendered message to {@code out} without creating an intermediate string. */
+    public static StringBuilder append(StringBuilder out, Language language, String key, Object... params) {
+        Template template = lookup(language, key);
+        if (template == null) return out.append(key);
+        template.render(out, params);
+        return out;
+    }
+
+    private static Template lookup(Language language, String key) {
+        Entry entry = messages.get(key);
+        return entry != null ? entry.template(language) : null;
+    }
+
     public static void setLanguage(Language language) {
         currentLanguage = language;
         saveLanguagePreference();
@@ -157,4 +296,73 @@ public class Messages {
             System.err.println("Cannot save language preference: " + e.getMessage());
         }
     }
+
+    /** The texts of one key and the templates compiled from them so far. */
+    private static final class Entry {
+        final String[] texts;
+        final Template[] templates = new Template[LANGUAGES.length];
+
+        Entry(String[] texts) {
+            this.texts = texts;
+        }
+
+        // Racing threads may both compile; either result is equal and safely published by its final fields
+        Template template(Language language) {
+            int index = language.ordinal();
+            Template template = templates[index];
+            if (template == null) templates[index] = template = Template.compile(texts[index]);
+            return template;
+        }
+    }
+
+    /**
+     * A template split at its placeholders: {@code literals[i]} is followed by argument {@code params[i]},
+     * and the last literal ends the message.
+     */
+    private static final class Template {
+        final String[] literals;
+        final int[] params;
+
+        private Template(String[] literals, int[] params) {
+            this.literals = literals;
+            this.params = params;
+        }
+
+        static Template compile(String text) {
+            List<String> literals = new ArrayList<>();
+            int[] params = new int[4];
+            int count = 0;
+            int start = 0;
+            int open = text.indexOf('{');
+            while (open >= 0) {
+                int close = open + 1;
+                while (close < text.length() && Character.isDigit(text.charAt(close))) close++;
+                if (close > open + 1 && close < text.length() && text.charAt(close) == '}') {
+                    literals.add(text.substring(start, open));
+                    if (count == params.length) params = Arrays.copyOf(params, count * 2);
+                    params[count++] = Integer.parseInt(text.substring(open + 1, close));
+                    start = close + 1;
+                }
+                open = text.indexOf('{', close);
+            }
+            literals.add(text.substring(start));
+            return new Template(literals.toArray(new String[0]), Arrays.copyOf(params, count));
+        }
+
+        void render(StringBuilder sb, Object[] args) {
+            for (int i = 0; i < params.length; i++) {
+                sb.append(literals[i]);
+                int index = params[i];
+                if (index >= args.length) {
+                    // Missing argument: keep the placeholder as written
+                    sb.append('{').append(index).append('}');
+                } else if (args[index] instanceof Integer) {
+                    sb.append((int) (Integer) args[index]);
+                } else {
+                    sb.append(args[index]);
+                }
+            }
+            sb.append(literals[params.length]);
+        }
+    }
 }
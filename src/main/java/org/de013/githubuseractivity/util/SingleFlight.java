@@ -0,0 +1,141 @@
+package org.de013.githubuseractivity.util;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into one: the first caller runs the call, callers that
+ * arrive while it is in flight wait for its outcome, value or exception alike. A key is forgotten once
+ * its call completes, so nothing is cached beyond the call itself.
+ * <p>
+ * Every caller gets its own future. Cancelling it withdraws only that caller; the shared call, and the
+ * future it was started from, are cancelled once every caller has withdrawn.
+ */
+public final class SingleFlight<K, V> {
+    private final ConcurrentMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Joins the call in flight for {@code key}, or makes the caller its leader. The leader does the work
+     * itself and must settle the flight with {@link Flight#complete} or {@link Flight#fail}.
+     */
+    public Flight<V> join(K key) {
+        while (true) {
+            Flight<V> created = new Flight<>();
+            Flight<V> inFlight = flights.putIfAbsent(key, created);
+            if (inFlight == null) {
+                created.result = created.subscribe();
+                created.leader = true;
+                created.shared.whenComplete((value, error) -> flights.remove(key, created));
+                return created;
+            }
+            CompletableFuture<V> result = inFlight.subscribe();
+            if (result != null) {
+                Flight<V> follower = new Flight<>(inFlight.shared);
+                follower.result = result;
+                return follower;
+            }
+            // That flight completed or every caller withdrew from it; start a new one
+            flights.remove(key, inFlight);
+        }
+    }
+
+    /** Runs {@code call} unless a call for {@code key} is already in flight, and returns its outcome. */
+    public CompletableFuture<V> execute(K key, Supplier<? extends CompletableFuture<V>> call) {
+        Flight<V> flight = join(key);
+        if (flight.isLeader()) {
+            try {
+                flight.start(call.get());
+            } catch (RuntimeException | Error e) {
+                flight.fail(e);
+            }
+        }
+        return flight.result();
+    }
+
+    /** Calls in flight, for tests. */
+    int size() {
+        return flights.size();
+    }
+
+    /** One caller's view of a shared call. */
+    public static final class Flight<V> {
+        private final CompletableFuture<V> shared;
+        private CompletableFuture<V> result;
+        private boolean leader;
+        // Guarded by shared
+        private CompletableFuture<V> upstream;
+        private int subscribers;
+        private boolean abandoned;
+
+        private Flight() {
+            this(new CompletableFuture<>());
+        }
+
+        private Flight(CompletableFuture<V> shared) {
+            this.shared = shared;
+        }
+
+        /** Whether this caller runs the call rather than waiting for another's. */
+        public boolean isLeader() { return leader; }
+
+        /** The outcome of the shared call, for this caller alone to wait on or cancel. */
+        public CompletableFuture<V> result() { return result; }
+
+        /** Settles the shared call with a value. Only the leader calls this. */
+        public void complete(V value) {
+            shared.complete(value);
+        }
+
+        /** Settles the shared call with an error, which every waiting caller receives. Only the leader calls this. */
+        public void fail(Throwable error) {
+            shared.completeExceptionally(error);
+        }
+
+        private void start(CompletableFuture<V> call) {
+            boolean cancel;
+            synchronized (shared) {
+                upstream = call;
+                cancel = abandoned;
+            }
+            if (cancel) call.cancel(true);
+            call.whenComplete((value, error) -> {
+                if (error != null) shared.completeExceptionally(error);
+                else shared.complete(value);
+            });
+        }
+
+        /**
+         * A new caller's future, or null when the flight must not be joined: it was abandoned, or it has
+         * completed and is only waiting to be removed, which would hand out an old result without limit.
+         */
+        private CompletableFuture<V> subscribe() {
+            synchronized (shared) {
+                if (abandoned || shared.isDone()) return null;
+                subscribers++;
+            }
+            CompletableFuture<V> view = new CompletableFuture<>();
+            shared.whenComplete((value, error) -> {
+                if (error != null) view.completeExceptionally(error);
+                else view.complete(value);
+            });
+            view.whenComplete((value, error) -> {
+                if (error instanceof CancellationException && view.isCancelled()) withdraw();
+            });
+            return view;
+        }
+
+        private void withdraw() {
+            CompletableFuture<V> cancel;
+            synchronized (shared) {
+                if (--subscribers > 0 || shared.isDone()) return;
+                abandoned = true;
+                cancel = upstream;
+            }
+            shared.cancel(true);
+            if (cancel != null) cancel.cancel(true);
+        }
+    }
+}
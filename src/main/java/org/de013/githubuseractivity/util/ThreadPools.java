@@ -0,0 +1,32 @@
+package org.de013.githubuseractivity.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/** Executors for fan-out work such as fetching many users at once. */
+public class ThreadPools {
+
+    /**
+     * Returns a virtual-thread-per-task executor when the runtime has one (Java 21+), otherwise a
+     * fixed pool of {@code parallelism} platform threads. Callers that need a hard cap on concurrency
+     * must still bound it themselves, since virtual threads are unbounded.
+     */
+    public static ExecutorService newTaskExecutor(int parallelism) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return newFixedExecutor(parallelism);
+        }
+    }
+
+    /** A fixed pool of {@code parallelism} daemon threads, for CPU-bound work that must not oversubscribe. */
+    public static ExecutorService newFixedExecutor(int parallelism) {
+        return Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "github-activity-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package org.de013.githubuseractivity.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActivityCacheTest {
+
+    private long now;
+
+    @Test
+    void get_afterTtl_missesAndDropsEntry() {
+        // Arrange
+        ActivityCache cache = new ActivityCache(4, () -> now);
+        cache.put("octocat/30", List.of(), Duration.ofSeconds(60));
+
+        // Act
+        ActivityCache.Hit fresh = cache.get("octocat/30");
+        now += Duration.ofSeconds(60).toNanos();
+        ActivityCache.Hit expired = cache.get("octocat/30");
+
+        // Assert
+        assertNotNull(fresh);
+        assertEquals(Duration.ofSeconds(60), fresh.pollInterval());
+        assertNull(expired);
+        assertEquals(new ActivityCache.Stats(1, 1, 0, 0), cache.stats());
+    }
+
+    @Test
+    void put_overCapacity_evictsLeastRecentlyUsed() {
+        // Arrange
+        ActivityCache cache = new ActivityCache(2, () -> now);
+        cache.put("a", List.of(), Duration.ofMinutes(1));
+        cache.put("b", List.of(), Duration.ofMinutes(1));
+        cache.get("a");
+
+        // Act
+        cache.put("c", List.of(), Duration.ofMinutes(1));
+
+        // Assert
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.stats().evictions());
+    }
+}
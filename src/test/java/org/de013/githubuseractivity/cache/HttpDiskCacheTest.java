@@ -0,0 +1,105 @@
+package org.de013.githubuseractivity.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpDiskCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private static String readAll(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void record_thenLookup_returnsValidatorsAndBody() throws IOException {
+        // Arrange
+        HttpDiskCache cache = new HttpDiskCache(dir, HttpDiskCache.DEFAULT_MAX_BYTES);
+
+        // Act
+        readAll(cache.record("https://x/a", "\"etag-1\"", null, "<next>", body("[{\"id\":\"1\"}]")));
+        HttpDiskCache.Entry entry = cache.lookup("https://x/a");
+
+        // Assert
+        assertNotNull(entry);
+        assertEquals("\"etag-1\"", entry.etag());
+        assertNull(entry.lastModified());
+        assertEquals("<next>", entry.link());
+        assertEquals("[{\"id\":\"1\"}]", readAll(cache.openBody(entry)));
+    }
+
+    @Test
+    void record_closedBeforeEndOfBody_stillCommitsTrailingBytes() throws IOException {
+        // Arrange
+        HttpDiskCache cache = new HttpDiskCache(dir, HttpDiskCache.DEFAULT_MAX_BYTES);
+        InputStream recording = cache.record("https://x/a", "e", null, null, body("[1,2,3]\n"));
+
+        // Act – a parser stops reading at the closing bracket
+        recording.read(new byte[3]);
+        recording.close();
+
+        // Assert
+        assertEquals("[1,2,3]\n", readAll(cache.openBody(cache.lookup("https://x/a"))));
+    }
+
+    @Test
+    void lookup_unknownUrl_returnsNull() {
+        // Arrange
+        HttpDiskCache cache = new HttpDiskCache(dir, HttpDiskCache.DEFAULT_MAX_BYTES);
+
+        // Act
+        HttpDiskCache.Entry entry = cache.lookup("https://x/missing");
+
+        // Assert
+        assertNull(entry);
+    }
+
+    @Test
+    void record_underBudget_scansDirectoryOnlyOnFirstCommit() throws IOException {
+        // Arrange
+        HttpDiskCache cache = new HttpDiskCache(dir, HttpDiskCache.DEFAULT_MAX_BYTES);
+        readAll(cache.record("https://x/a", "e", null, null, body("aaaa")));
+        Path staleTemp = Files.createFile(dir.resolve("left-behind.tmp"));
+        Files.setLastModifiedTime(staleTemp, FileTime.fromMillis(0));
+
+        // Act
+        readAll(cache.record("https://x/b", "e", null, null, body("bbbb")));
+
+        // Assert
+        assertTrue(Files.exists(staleTemp));
+        assertNotNull(cache.lookup("https://x/b"));
+    }
+
+    @Test
+    void evict_overBudget_removesLeastRecentlyUsed() throws IOException {
+        // Arrange
+        HttpDiskCache cache = new HttpDiskCache(dir, 1);
+
+        // Act
+        readAll(cache.record("https://x/a", "e", null, null, body("aaaa")));
+        readAll(cache.record("https://x/b", "e", null, null, body("bbbb")));
+
+        // Assert
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+}
@@ -1,10 +1,20 @@
 package org.de013.githubuseractivity.cli;
 
+import org.de013.githubuseractivity.cli.command.BatchCommand;
 import org.de013.githubuseractivity.cli.command.Command;
 import org.de013.githubuseractivity.cli.command.DefaultCommand;
 import org.de013.githubuseractivity.cli.command.HelpCommand;
+import org.de013.githubuseractivity.cli.command.HistoryCommand;
 import org.de013.githubuseractivity.cli.command.LanguageCommand;
+import org.de013.githubuseractivity.cli.command.ReplayCommand;
+import org.de013.githubuseractivity.cli.command.ServeCommand;
+import org.de013.githubuseractivity.cli.command.WatchCommand;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -105,4 +115,209 @@ class CommandParserTest {
         // Assert
         assertInstanceOf(DefaultCommand.class, result);
     }
+
+    @Test
+    void parse_usernameWithAll_returnsDefaultCommand() {
+        // Arrange
+        CommandParser parser = new CommandParser(new String[]{"octocat", "--all", "-f", "push"});
+
+        // Act
+        Command result = parser.parse();
+
+        // Assert
+        assertInstanceOf(DefaultCommand.class, result);
+    }
+
+    @Test
+    void parse_invalidLimit_returnsNull() {
+        // Arrange
+        CommandParser parser = new CommandParser(new String[]{"octocat", "--limit", "abc"});
+
+        // Act
+        Command result = parser.parse();
+
+        // Assert
+        assertNull(result);
+    }
+
+    @Test
+    void parse_batchFlag_returnsBatchCommand() {
+        // Arrange
+        CommandParser parser = new CommandParser(new String[]{"--batch", "alice", "bob", "--parallel", "4"});
+
+        // Act
+        Command result = parser.parse();
+
+        // Assert
+        assertInstanceOf(BatchCommand.class, result);
+    }
+
+    @Test
+    void parse_batchWithMissingFile_returnsNull() {
+        // Arrange
+        CommandParser parser = new CommandParser(new String[]{"--batch", "--file", "does-not-exist.txt"});
+
+        // Act
+        Command result = parser.parse();
+
+        // Assert
+        assertNull(result);
+    }
+
+    @Test
+    void parse_usernameWithWatch_returnsWatchCommand() {
+        // Arrange
+        CommandParser parser = new CommandParser(new String[]{"octocat", "--watch"});
+
+        // Act
+        Command result = parser.parse();
+
+        // Assert
+        assertInstanceOf(WatchCommand.class, result);
+    }
+
+    @Test
+    void parse_serveWithPort_returnsServeCommand() {
+        // Arrange
+        CommandParser parser = new CommandParser(new String[]{"--serve", "8080", "--threads", "4"});
+
+        // Act
+        Command result = parser.parse();
+
+        // Assert
+        assertInstanceOf(ServeCommand.class, result);
+    }
+
+    @Test
+    void parse_serveWithInvalidPort_returnsNull() {
+        // Arrange
+        CommandParser parser = new CommandParser(new String[]{"--serve", "http"});
+
+        // Act
+        Command result = parser.parse();
+
+        // Assert
+        assertNull(result);
+    }
+
+    @Test
+    void parse_usernameWithFormat_returnsDefaultCommand() {
+        // Arrange
+        CommandParser parser = new CommandParser(new String[]{"octocat", "--format", "csv"});
+
+        // Act
+        Command result = parser.parse();
+
+        // Assert
+        assertInstanceOf(DefaultCommand.class, result);
+    }
+
+    @Test
+    void parse_unknownFormat_returnsNull() {
+        // Arrange
+        CommandParser parser = new CommandParser(new String[]{"--batch", "alice", "--format", "xml"});
+
+        // Act
+        Command result = parser.parse();
+
+        // Assert
+        assertNull(result);
+    }
+
+    @Test
+    void parse_summaryWithWatch_returnsNull() {
+        // Arrange
+        CommandParser parser = new CommandParser(new String[]{"octocat", "--summary", "--watch"});
+
+        // Act
+        Command result = parser.parse();
+
+        // Assert
+        assertNull(result);
+    }
+
+    @Test
+    void parse_history_returnsHistoryCommand() {
+        // Arrange
+        CommandParser parser = new CommandParser(new String[]{"octocat", "--history", "--limit", "1000", "--summary"});
+
+        // Act
+        Command result = parser.parse();
+
+        // Assert
+        assertInstanceOf(HistoryCommand.class, result);
+    }
+
+    @Test
+    void parse_historyWithWatch_returnsNull() {
+        // Arrange
+        CommandParser parser = new CommandParser(new String[]{"octocat", "--history", "--watch"});
+
+        // Act
+        Command result = parser.parse();
+
+        // Assert
+        assertNull(result);
+    }
+
+    @Test
+    void parse_usernameWithQuery_returnsNull() {
+        // Arrange
+        CommandParser parser = new CommandParser(new String[]{"octocat?per_page=1"});
+
+        // Act
+        Command result = parser.parse();
+
+        // Assert
+        assertNull(result);
+    }
+
+    @Test
+    void parse_batchFileWithInvalidUsername_returnsNull(@TempDir Path dir) throws IOException {
+        // Arrange
+        Path file = Files.writeString(dir.resolve("users.txt"), "# team\nalice\nbob/../x\n");
+        CommandParser parser = new CommandParser(new String[]{"--batch", "--file", file.toString()});
+
+        // Act
+        Command result = parser.parse();
+
+        // Assert
+        assertNull(result);
+    }
+
+    @Test
+    void parse_historyWithPathAsUsername_returnsNull() {
+        // Arrange
+        CommandParser parser = new CommandParser(new String[]{"../x", "--history"});
+
+        // Act
+        Command result = parser.parse();
+
+        // Assert
+        assertNull(result);
+    }
+
+    @Test
+    void parse_input_returnsReplayCommand() {
+        // Arrange
+        CommandParser parser = new CommandParser(new String[]{"--input", "-", "--format", "csv", "--parallel", "2"});
+
+        // Act
+        Command result = parser.parse();
+
+        // Assert
+        assertInstanceOf(ReplayCommand.class, result);
+    }
+
+    @Test
+    void parse_inputWithoutSource_returnsNull() {
+        // Arrange
+        CommandParser parser = new CommandParser(new String[]{"--input", "--summary"});
+
+        // Act
+        Command result = parser.parse();
+
+        // Assert
+        assertNull(result);
+    }
 }
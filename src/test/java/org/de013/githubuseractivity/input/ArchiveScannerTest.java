@@ -0,0 +1,121 @@
+package org.de013.githubuseractivity.input;
+
+import org.de013.githubuseractivity.model.GitHubEvent;
+import org.de013.githubuseractivity.util.EventFilter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchiveScannerTest {
+
+    @TempDir
+    Path dir;
+
+    private static String line(long id, String type, String actor, String payload) {
+        return "{\"id\":\"" + id + "\",\"type\":\"" + type + "\",\"actor\":{\"id\":1,\"login\":\"" + actor
+                + "\",\"display_login\":\"" + actor + "\"},\"repo\":{\"id\":2,\"name\":\"" + actor + "/repo\"},"
+                + "\"payload\":" + payload + ",\"public\":true,\"created_at\":\"2024-05-01T10:00:00Z\"}\n";
+    }
+
+    private static List<String> ids(List<GitHubEvent> events) {
+        return events.stream().map(GitHubEvent::id).toList();
+    }
+
+    @Test
+    void scan_keepsOnlyTheActorsEvents() throws Exception {
+        // Arrange
+        String ndjson = line(1, "PushEvent", "octocat", "{}")
+                + line(2, "IssuesEvent", "someone", "{\"issue\":{\"user\":{\"login\":\"octocat\"}}}")
+                + line(3, "WatchEvent", "OctoCat", "{}")
+                + line(4, "WatchEvent", "octocat2", "{}");
+        List<GitHubEvent> events = new ArrayList<>();
+
+        // Act
+        int matched = new ArchiveScanner("octocat", EventFilter.ALL)
+                .scan(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), events::add);
+
+        // Assert
+        assertEquals(2, matched);
+        assertEquals(List.of("1", "3"), ids(events));
+        assertEquals("octocat/repo", events.get(0).repo());
+    }
+
+    @Test
+    void scan_appliesFilter() throws Exception {
+        // Arrange
+        String ndjson = line(1, "PushEvent", "octocat", "{}") + line(2, "WatchEvent", "octocat", "{}");
+        List<GitHubEvent> events = new ArrayList<>();
+
+        // Act
+        new ArchiveScanner("octocat", EventFilter.compile("watch"))
+                .scan(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), events::add);
+
+        // Assert
+        assertEquals(List.of("2"), ids(events));
+    }
+
+    @Test
+    void scan_inputLargerThanBuffer_findsEventsAcrossReads() throws Exception {
+        // Arrange
+        StringBuilder ndjson = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 30_000; i++) {
+            boolean mine = i % 997 == 0;
+            ndjson.append(line(i, "PushEvent", mine ? "octocat" : "user" + i, "{\"size\":1}"));
+            if (mine) expected.add(String.valueOf(i));
+        }
+        List<GitHubEvent> events = new ArrayList<>();
+        ArchiveScanner scanner = new ArchiveScanner("octocat", EventFilter.ALL);
+
+        // Act
+        scanner.scan(new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)), events::add);
+
+        // Assert
+        assertEquals(expected, ids(events));
+        assertEquals(ndjson.length(), scanner.bytesScanned());
+    }
+
+    @Test
+    void scan_gzipWithSeveralMembers_readsAll() throws Exception {
+        // Arrange
+        Path file = dir.resolve("2024-05-01-10.json.gz");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (int member = 1; member <= 2; member++) {
+                GZIPOutputStream gzip = new GZIPOutputStream(out);
+                gzip.write(line(member, "PushEvent", "octocat", "{}").getBytes(StandardCharsets.UTF_8));
+                gzip.finish();
+            }
+        }
+        List<GitHubEvent> events = new ArrayList<>();
+
+        // Act
+        new ArchiveScanner("octocat", EventFilter.ALL).scan(file, events::add);
+
+        // Assert
+        assertEquals(List.of("1", "2"), ids(events));
+    }
+
+    @Test
+    void archiveFiles_expandsDirectoriesInHourOrder() throws Exception {
+        // Arrange
+        Files.createFile(dir.resolve("2024-05-01-11.json.gz"));
+        Files.createFile(dir.resolve("2024-05-01-2.json.gz"));
+        Files.createFile(dir.resolve("notes.txt"));
+
+        // Act
+        List<Path> files = ArchiveScanner.archiveFiles(List.of(dir.toString()));
+
+        // Assert
+        assertEquals(List.of(dir.resolve("2024-05-01-2.json.gz"), dir.resolve("2024-05-01-11.json.gz")), files);
+    }
+}
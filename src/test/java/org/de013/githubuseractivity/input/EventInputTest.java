@@ -0,0 +1,106 @@
+package org.de013.githubuseractivity.input;
+
+import org.de013.githubuseractivity.util.EventFilter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventInputTest {
+
+    @TempDir
+    Path dir;
+
+    private static String event(int id) {
+        return "{\"id\":\"" + id + "\",\"type\":\"PushEvent\",\"repo\":{\"name\":\"a/b\"},"
+                + "\"payload\":{\"note\":\"braces } ] { [ and \\\" quotes\"},\"created_at\":\"2024-05-01T00:00:00Z\"}";
+    }
+
+    private static List<String> readAll(EventInput input, List<Integer> chunkSizes) throws Exception {
+        List<String> ids = new ArrayList<>();
+        EventInput.Chunk chunk;
+        while ((chunk = input.next()) != null) {
+            int before = ids.size();
+            chunk.parse(EventFilter.ALL, e -> ids.add(e.id()));
+            chunkSizes.add(ids.size() - before);
+        }
+        input.close();
+        return ids;
+    }
+
+    private Path write(String content) throws Exception {
+        Path file = dir.resolve("events.json");
+        Files.writeString(file, content);
+        return file;
+    }
+
+    @Test
+    void next_array_splitsAtObjectBoundariesInOrder() throws Exception {
+        // Arrange
+        StringBuilder json = new StringBuilder("[\n");
+        for (int i = 1; i <= 10; i++) json.append(i > 1 ? ",\n" : "").append(event(i));
+        json.append("\n]\n");
+        List<Integer> sizes = new ArrayList<>();
+
+        // Act
+        List<String> ids = readAll(EventInput.of(write(json.toString()), 300), sizes);
+
+        // Assert
+        assertEquals(List.of("1", "2", "3", "4", "5", "6", "7", "8", "9", "10"), ids);
+        assertTrue(sizes.size() > 1);
+    }
+
+    @Test
+    void next_ndjsonFromStream_matchesFileInput() throws Exception {
+        // Arrange
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 1; i <= 7; i++) ndjson.append(event(i)).append('\n');
+        byte[] bytes = ndjson.toString().getBytes(StandardCharsets.UTF_8);
+
+        // Act
+        List<String> fromStream = readAll(EventInput.of(new ByteArrayInputStream(bytes), 300), new ArrayList<>());
+        List<String> fromFile = readAll(EventInput.of(write(ndjson.toString()), 300), new ArrayList<>());
+
+        // Assert
+        assertEquals(List.of("1", "2", "3", "4", "5", "6", "7"), fromStream);
+        assertEquals(fromStream, fromFile);
+    }
+
+    @Test
+    void next_concatenatedArrays_neverMixesArraysInOneChunk() throws Exception {
+        // Arrange
+        String json = "[" + event(1) + "," + event(2) + "]\n[" + event(3) + "]";
+
+        // Act
+        List<String> ids = readAll(EventInput.of(write(json), 1 << 20), new ArrayList<>());
+
+        // Assert
+        assertEquals(List.of("1", "2", "3"), ids);
+    }
+
+    @Test
+    void next_emptyInput_returnsNull() throws Exception {
+        // Act & Assert
+        try (EventInput input = EventInput.of(write("[]"), 300)) {
+            assertNull(input.next());
+        }
+    }
+
+    @Test
+    void parse_truncatedLastEvent_throws() throws Exception {
+        // Arrange
+        EventInput input = EventInput.of(write("[" + event(1) + ",{\"id\":\"2\",\"type\":"), 1 << 20);
+        EventInput.Chunk chunk = input.next();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> chunk.parse(EventFilter.ALL, e -> {}));
+        input.close();
+    }
+}
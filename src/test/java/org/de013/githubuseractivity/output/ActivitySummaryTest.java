@@ -0,0 +1,66 @@
+package org.de013.githubuseractivity.output;
+
+import org.de013.githubuseractivity.model.EventType;
+import org.de013.githubuseractivity.model.GitHubEvent;
+import org.de013.githubuseractivity.model.Payload;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActivitySummaryTest {
+
+    private static GitHubEvent event(String typeName, String repo, String createdAt, String payload) {
+        return new GitHubEvent("1", EventType.fromApiName(typeName), typeName, "octocat", repo, createdAt, new Payload(payload));
+    }
+
+    @Test
+    void add_countsTypesReposCommitsAndBuckets() {
+        // Arrange
+        ActivitySummary summary = new ActivitySummary();
+
+        // Act
+        summary.add("alice", event("PushEvent", "a/b", "2024-05-01T09:15:00Z", "{\"commits\":[{},{},{}]}"));
+        summary.add("alice", event("PushEvent", "a/b", "2024-05-03T09:45:00Z", "{\"size\":2}"));
+        summary.add("bob", event("WatchEvent", "c/d", "2024-04-30T23:00:00Z", "{}"));
+        summary.add("bob", event("SponsorshipEvent", "c/d", "2024-05-01T10:00:00Z", "{}"));
+
+        // Assert
+        assertEquals(4, summary.events());
+        assertEquals(5, summary.commits());
+        assertEquals(List.of(Map.entry("PushEvent", 2L), Map.entry("SponsorshipEvent", 1L), Map.entry("WatchEvent", 1L)),
+                summary.types());
+        assertEquals(List.of(Map.entry("a/b", 2L), Map.entry("c/d", 2L)), summary.repos());
+        assertEquals(List.of(Map.entry("alice", 2L), Map.entry("bob", 2L)), summary.users());
+        assertEquals(List.of(Map.entry("2024-04-30", 1L), Map.entry("2024-05-01", 2L), Map.entry("2024-05-03", 1L)),
+                summary.days());
+        assertEquals(2, summary.hours()[9]);
+        assertEquals(1, summary.hours()[23]);
+    }
+
+    @Test
+    void epochDay_matchesJavaTime() {
+        // Act & Assert
+        for (String date : new String[]{"1970-01-01", "2000-02-29", "2024-03-01", "2024-12-31", "1999-12-31"}) {
+            assertEquals(LocalDate.parse(date).toEpochDay(), ActivitySummary.epochDay(date + "T00:00:00Z"), date);
+        }
+        assertEquals(Integer.MIN_VALUE, ActivitySummary.epochDay("2024-13-01T00:00:00Z"));
+    }
+
+    @Test
+    void add_malformedTimestamp_isCountedWithoutBuckets() {
+        // Arrange
+        ActivitySummary summary = new ActivitySummary();
+
+        // Act
+        summary.add(null, event("ForkEvent", null, "yesterday", "{}"));
+
+        // Assert
+        assertEquals(1, summary.events());
+        assertTrue(summary.days().isEmpty());
+        assertTrue(summary.repos().isEmpty());
+    }
+}
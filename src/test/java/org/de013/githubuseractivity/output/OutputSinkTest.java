@@ -0,0 +1,243 @@
+package org.de013.githubuseractivity.output;
+
+import org.de013.githubuseractivity.model.EventType;
+import org.de013.githubuseractivity.model.GitHubEvent;
+import org.de013.githubuseractivity.model.Payload;
+import org.de013.githubuseractivity.service.FetchResult;
+import org.de013.githubuseractivity.service.FetchStatus;
+import org.de013.githubuseractivity.util.Messages;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutputSinkTest {
+
+    private static final FetchResult OK = new FetchResult(FetchStatus.OK, 200, 0, Duration.ofSeconds(60));
+
+    private final StringWriter out = new StringWriter();
+
+    @BeforeEach
+    void setUp() {
+        Messages.currentLanguage = Messages.Language.EN;
+    }
+
+    private static GitHubEvent event(String id, EventType type, String repo) {
+        return new GitHubEvent(id, type, type.apiName(), "octocat", repo, "2024-01-01T00:00:00Z", Payload.EMPTY);
+    }
+
+    private OutputSink sink(OutputFormat format) {
+        return OutputSink.create(format, out, Messages.Language.EN);
+    }
+
+    @Test
+    void text_writesHeadingLinesAndNoActivity() {
+        // Arrange
+        OutputSink sink = sink(OutputFormat.TEXT);
+        OutputSink.Group first = sink.newGroup("alice").heading();
+        first.event(event("1", EventType.WATCH, "a/b"));
+        first.finish(OK);
+        OutputSink.Group second = sink.newGroup("bob").heading();
+        second.finish(OK);
+
+        // Act
+        sink.write(first);
+        sink.write(second);
+        sink.close();
+
+        // Assert
+        String nl = System.lineSeparator();
+        assertEquals("== alice ==" + nl + "- Starred a/b" + nl +
+                "== bob ==" + nl + "No recent activity found for 'bob'." + nl, out.toString());
+    }
+
+    @Test
+    void streamingGroup_writesEachEventBeforeTheGroupFinishes() {
+        // Arrange
+        OutputSink sink = sink(OutputFormat.JSON);
+        OutputSink.Group group = sink.newGroup("alice").streaming();
+
+        // Act
+        group.event(event("1", EventType.WATCH, "a/b"));
+        String afterFirst = out.toString();
+        group.event(event("2", EventType.FORK, "c/d"));
+        group.finish(OK);
+        sink.write(group);
+        sink.close();
+
+        // Assert
+        assertTrue(afterFirst.startsWith("["));
+        assertTrue(afterFirst.contains("\"id\":\"1\""));
+        assertFalse(afterFirst.contains("\"id\":\"2\""));
+        assertEquals(2, out.toString().split("\"id\"", -1).length - 1);
+        assertTrue(out.toString().trim().endsWith("]"));
+    }
+
+    @Test
+    void finish_duringFlightRecording_emitsRenderEvent(@TempDir Path dir) throws Exception {
+        // Arrange
+        Path file = dir.resolve("render.jfr");
+        OutputSink sink = OutputSink.create(OutputFormat.CSV, out, Messages.Language.VI);
+
+        // Act
+        try (Recording recording = new Recording()) {
+            recording.enable("org.de013.githubuseractivity.Render");
+            recording.start();
+            OutputSink.Group group = sink.newGroup("alice");
+            group.event(event("1", EventType.WATCH, "a/b"));
+            group.event(event("2", EventType.FORK, "c/d"));
+            group.finish(OK);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // Assert
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertEquals(1, events.size());
+        RecordedEvent render = events.get(0);
+        assertEquals("alice", render.getString("user"));
+        assertEquals("CsvSink", render.getString("sink"));
+        assertEquals("vi", render.getString("locale"));
+        assertEquals(2, render.getInt("lines"));
+    }
+
+    @Test
+    void text_nothingReachesWriterBeforeWrite() {
+        // Arrange
+        OutputSink sink = sink(OutputFormat.TEXT);
+        OutputSink.Group group = sink.newGroup("alice");
+
+        // Act
+        group.event(event("1", EventType.WATCH, "a/b"));
+
+        // Assert
+        assertEquals("", out.toString());
+        assertEquals(1, group.eventCount());
+    }
+
+    @Test
+    void json_groupsFormOneArray() {
+        // Arrange
+        OutputSink sink = sink(OutputFormat.JSON);
+        OutputSink.Group first = sink.newGroup("alice");
+        first.event(event("1", EventType.WATCH, "a/b"));
+        OutputSink.Group empty = sink.newGroup("carol");
+        empty.finish(OK);
+        OutputSink.Group second = sink.newGroup("bob");
+        second.event(event("2", EventType.FORK, "c/d"));
+
+        // Act
+        sink.write(first);
+        sink.write(empty);
+        sink.write(second);
+        sink.close();
+
+        // Assert
+        assertEquals("[\n" +
+                "{\"user\":\"alice\",\"id\":\"1\",\"type\":\"WatchEvent\",\"actor\":\"octocat\",\"repo\":\"a/b\"," +
+                "\"created_at\":\"2024-01-01T00:00:00Z\",\"text\":\"Starred a/b\",\"payload\":{}},\n" +
+                "{\"user\":\"bob\",\"id\":\"2\",\"type\":\"ForkEvent\",\"actor\":\"octocat\",\"repo\":\"c/d\"," +
+                "\"created_at\":\"2024-01-01T00:00:00Z\",\"text\":\"Forked c/d\",\"payload\":{}}\n" +
+                "]\n", out.toString());
+    }
+
+    @Test
+    void json_withoutEvents_writesEmptyArray() {
+        // Act
+        sink(OutputFormat.JSON).close();
+
+        // Assert
+        assertEquals("[]\n", out.toString());
+    }
+
+    @Test
+    void ndjson_writesOneObjectPerLine() {
+        // Arrange
+        OutputSink sink = sink(OutputFormat.NDJSON);
+        OutputSink.Group group = sink.newGroup("alice");
+        group.event(event("1", EventType.WATCH, "a/b"));
+        group.event(event("2", EventType.FORK, "c/d"));
+
+        // Act
+        sink.write(group);
+        sink.close();
+
+        // Assert
+        String[] lines = out.toString().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"user\":\"alice\",\"id\":\"1\""));
+        assertTrue(lines[1].startsWith("{\"user\":\"alice\",\"id\":\"2\""));
+    }
+
+    @Test
+    void csv_writesHeaderAndQuotesWhenNeeded() {
+        // Arrange
+        OutputSink sink = sink(OutputFormat.CSV);
+        OutputSink.Group group = sink.newGroup("alice");
+        group.event(new GitHubEvent("1", EventType.WATCH, "WatchEvent", "octocat", "a/b,\"c\"", "2024-01-01T00:00:00Z", Payload.EMPTY));
+
+        // Act
+        sink.write(group);
+        sink.close();
+
+        // Assert
+        assertEquals("user,id,type,actor,repo,created_at,text\n" +
+                "alice,1,WatchEvent,octocat,\"a/b,\"\"c\"\"\",2024-01-01T00:00:00Z,\"Starred a/b,\"\"c\"\"\"\n", out.toString());
+    }
+
+    @Test
+    void fromName_isCaseInsensitiveAndRejectsUnknown() {
+        // Act & Assert
+        assertEquals(OutputFormat.NDJSON, OutputFormat.fromName("NDJson"));
+        assertNull(OutputFormat.fromName("xml"));
+    }
+
+    @Test
+    void summary_aggregatesGroupsAndWritesOnClose() {
+        // Arrange
+        OutputSink sink = OutputSink.summary(OutputFormat.JSON, out, Messages.Language.EN);
+        OutputSink.Group first = sink.newGroup("alice");
+        first.event(event("1", EventType.WATCH, "a/b"));
+        OutputSink.Group second = sink.newGroup("bob");
+        second.event(event("2", EventType.WATCH, "a/b"));
+
+        // Act
+        sink.write(first);
+        sink.write(second);
+        String beforeClose = out.toString();
+        sink.close();
+
+        // Assert
+        assertEquals("", beforeClose);
+        assertTrue(out.toString().startsWith("{\"events\":2,\"commits\":0,\"types\":{\"WatchEvent\":2}," +
+                "\"repos\":{\"a/b\":2},\"users\":{\"alice\":1,\"bob\":1},\"days\":{\"2024-01-01\":2},\"hours\":[2,0,"));
+    }
+
+    @Test
+    void summary_text_listsSections() {
+        // Arrange
+        OutputSink sink = OutputSink.summary(OutputFormat.TEXT, out, Messages.Language.EN);
+        OutputSink.Group group = sink.newGroup("alice");
+        group.event(event("1", EventType.FORK, "a/b"));
+
+        // Act
+        sink.write(group);
+        sink.close();
+
+        // Assert
+        String text = out.toString();
+        assertTrue(text.startsWith("1 event(s), 0 commit(s) pushed"));
+        assertTrue(text.contains("By repository:"));
+        assertTrue(text.contains("  a/b  1"));
+        assertFalse(text.contains("By user:"));
+    }
+}
@@ -0,0 +1,177 @@
+package org.de013.githubuseractivity.server;
+
+import org.de013.githubuseractivity.cache.ActivityCache;
+import org.de013.githubuseractivity.model.EventType;
+import org.de013.githubuseractivity.model.GitHubEvent;
+import org.de013.githubuseractivity.model.Payload;
+import org.de013.githubuseractivity.service.FetchResult;
+import org.de013.githubuseractivity.service.FetchStatus;
+import org.de013.githubuseractivity.service.UserActivityService;
+import org.de013.githubuseractivity.util.EventFilter;
+import org.de013.githubuseractivity.util.Messages;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class ActivityServerTest {
+
+    private UserActivityService service;
+    private ActivityServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Messages.currentLanguage = Messages.Language.EN;
+        service = Mockito.mock(UserActivityService.class);
+        server = new ActivityServer(service, new ActivityCache(ActivityCache.DEFAULT_MAX_ENTRIES), 0, 4);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.port() + path)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static GitHubEvent event(String id, EventType type, String repo) {
+        return new GitHubEvent(id, type, type.apiName(), "octocat", repo, "2024-01-01T00:00:00Z", Payload.EMPTY);
+    }
+
+    /** Answers like the real service: only events matching the filter reach the consumer. */
+    private static FetchResult serve(EventFilter filter, Consumer<GitHubEvent> consumer, GitHubEvent... events) {
+        int matched = 0;
+        for (GitHubEvent event : events) {
+            if (filter.test(event)) {
+                consumer.accept(event);
+                matched++;
+            }
+        }
+        return new FetchResult(FetchStatus.OK, 200, matched, Duration.ofSeconds(60));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void activity_ok_returnsFilteredEventsAsJson() throws Exception {
+        // Arrange
+        doAnswer(invocation -> serve(invocation.getArgument(2), invocation.getArgument(3),
+                event("1", EventType.WATCH, "a/b"), event("2", EventType.FORK, "c/d")))
+                .when(service).fetchEvents(eq("octocat"), eq(50), any(EventFilter.class), any(Consumer.class));
+
+        // Act
+        HttpResponse<String> response = get("/users/octocat/activity?filter=watch&limit=50");
+
+        // Assert
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("application/json"));
+        assertEquals("{\"user\":\"octocat\",\"count\":1,\"events\":[{\"id\":\"1\",\"type\":\"WatchEvent\"," +
+                "\"actor\":\"octocat\",\"repo\":\"a/b\",\"created_at\":\"2024-01-01T00:00:00Z\"," +
+                "\"text\":\"Starred a/b\",\"payload\":{}}]}", response.body());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void activity_langParameter_rendersTextInThatLanguage() throws Exception {
+        // Arrange
+        doAnswer(invocation -> serve(invocation.getArgument(2), invocation.getArgument(3), event("1", EventType.WATCH, "a/b")))
+                .when(service).fetchEvents(eq("octocat"), anyInt(), any(EventFilter.class), any(Consumer.class));
+
+        // Act
+        HttpResponse<String> response = get("/users/octocat/activity?lang=vi");
+
+        // Assert
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"text\":\"Đã gắn sao a/b\""));
+        assertEquals(Messages.Language.EN, Messages.currentLanguage);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void activity_userNotFound_returns404() throws Exception {
+        // Arrange
+        doReturn(new FetchResult(FetchStatus.NOT_FOUND, 404, 0, null))
+                .when(service).fetchEvents(eq("ghost"), anyInt(), any(EventFilter.class), any(Consumer.class));
+
+        // Act
+        HttpResponse<String> response = get("/users/ghost/activity");
+
+        // Assert
+        assertEquals(404, response.statusCode());
+        assertTrue(response.body().contains("\"error\":\"not_found\""));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void activity_rateLimited_returns429() throws Exception {
+        // Arrange
+        doReturn(new FetchResult(FetchStatus.RATE_LIMITED, 429, 0, null))
+                .when(service).fetchEvents(eq("octocat"), anyInt(), any(EventFilter.class), any(Consumer.class));
+
+        // Act
+        HttpResponse<String> response = get("/users/octocat/activity");
+
+        // Assert
+        assertEquals(429, response.statusCode());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void activity_invalidLimit_returns400WithoutFetching() throws Exception {
+        // Act
+        HttpResponse<String> response = get("/users/octocat/activity?limit=1000");
+
+        // Assert
+        assertEquals(400, response.statusCode());
+        verify(service, never()).fetchEvents(any(), anyInt(), any(EventFilter.class), any(Consumer.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void activity_invalidFilter_returns400WithoutFetching() throws Exception {
+        // Act
+        HttpResponse<String> response = get("/users/octocat/activity?filter=color%3Dred");
+
+        // Assert
+        assertEquals(400, response.statusCode());
+        verify(service, never()).fetchEvents(any(), anyInt(), any(EventFilter.class), any(Consumer.class));
+    }
+
+    @Test
+    void unknownPath_returns404() throws Exception {
+        // Act
+        HttpResponse<String> response = get("/users/octocat/repos");
+
+        // Assert
+        assertEquals(404, response.statusCode());
+    }
+
+    @Test
+    void stats_returnsCacheCounters() throws Exception {
+        // Act
+        HttpResponse<String> response = get("/stats");
+
+        // Assert
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"cache\":{\"hits\":0,\"misses\":0,\"evictions\":0,\"size\":0}}", response.body());
+    }
+}
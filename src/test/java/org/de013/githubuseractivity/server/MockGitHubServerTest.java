@@ -0,0 +1,159 @@
+package org.de013.githubuseractivity.server;
+
+import org.de013.githubuseractivity.cache.HttpDiskCache;
+import org.de013.githubuseractivity.model.GitHubEvent;
+import org.de013.githubuseractivity.service.FetchResult;
+import org.de013.githubuseractivity.service.FetchStatus;
+import org.de013.githubuseractivity.service.HttpTransport;
+import org.de013.githubuseractivity.service.RateLimiter;
+import org.de013.githubuseractivity.service.UserActivityServiceImpl;
+import org.de013.githubuseractivity.store.EventStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Runs the real service against the mock server over HTTP. */
+class MockGitHubServerTest {
+
+    private MockGitHubServer mock;
+
+    @AfterEach
+    void tearDown() {
+        if (mock != null) mock.stop();
+    }
+
+    private UserActivityServiceImpl service(long rateLimit, HttpDiskCache diskCache) throws Exception {
+        return service(Duration.ZERO, rateLimit, diskCache);
+    }
+
+    private UserActivityServiceImpl service(Duration latency, long rateLimit, HttpDiskCache diskCache) throws Exception {
+        mock = new MockGitHubServer(0, MockGitHubServer.DEFAULT_EVENTS_PER_USER, latency, rateLimit);
+        mock.start();
+        return new UserActivityServiceImpl(new HttpTransport(), mock.baseUrl(), diskCache, null,
+                new RateLimiter(1000, 1000, Duration.ofSeconds(1)), null, null);
+    }
+
+    @Test
+    void fetchEvents_fullWindow_followsLinkHeaderAcrossPages() throws Exception {
+        // Arrange
+        UserActivityServiceImpl service = service(Long.MAX_VALUE, null);
+        List<GitHubEvent> events = new ArrayList<>();
+
+        // Act
+        FetchResult result = service.fetchEvents("octocat", 300, events::add);
+
+        // Assert
+        assertEquals(FetchStatus.OK, result.status());
+        assertEquals(300, events.size());
+        assertEquals(300, events.stream().map(GitHubEvent::id).distinct().count());
+        assertEquals(3, mock.requests());
+        assertTrue(service.getTransferStats().wireBytes() < service.getTransferStats().decodedBytes());
+    }
+
+    @Test
+    void fetchEvents_concurrentForSameUser_shareEachPageRequest() throws Exception {
+        // Arrange
+        UserActivityServiceImpl service = service(Duration.ofMillis(300), Long.MAX_VALUE, null);
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+
+        // Act
+        List<Future<FetchResult>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(callers.submit(() -> service.fetchEvents("octocat", 300, event -> {})));
+        }
+        List<FetchResult> fetched = new ArrayList<>();
+        for (Future<FetchResult> result : results) fetched.add(result.get());
+        callers.shutdown();
+
+        // Assert
+        for (FetchResult result : fetched) {
+            assertEquals(FetchStatus.OK, result.status());
+            assertEquals(300, result.eventCount());
+        }
+        assertEquals(3, mock.requests());
+    }
+
+    @Test
+    void fetchEvents_concurrentForSameUser_storeTheWindowOnce(@TempDir Path storeDir) throws Exception {
+        // Arrange
+        mock = new MockGitHubServer(0, MockGitHubServer.DEFAULT_EVENTS_PER_USER, Duration.ofMillis(300), Long.MAX_VALUE);
+        mock.start();
+        AtomicInteger appends = new AtomicInteger();
+        EventStore store = new EventStore(storeDir) {
+            @Override
+            public int append(String username, List<GitHubEvent> events) throws IOException {
+                appends.incrementAndGet();
+                return super.append(username, events);
+            }
+        };
+        UserActivityServiceImpl service = new UserActivityServiceImpl(new HttpTransport(), mock.baseUrl(), null, null,
+                new RateLimiter(1000, 1000, Duration.ofSeconds(1)), store, null);
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+
+        // Act
+        List<Future<FetchResult>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(callers.submit(() -> service.fetchEvents("octocat", 300, event -> {})));
+        }
+        for (Future<FetchResult> result : results) assertEquals(FetchStatus.OK, result.get().status());
+        callers.shutdown();
+
+        // Assert
+        assertEquals(3, mock.requests());
+        assertEquals(1, appends.get());
+        assertEquals(300, store.count("octocat"));
+    }
+
+    @Test
+    void fetchEvents_repeatedWithDiskCache_revalidatesWithEtag(@TempDir Path cacheDir) throws Exception {
+        // Arrange
+        UserActivityServiceImpl service = service(Long.MAX_VALUE, new HttpDiskCache(cacheDir, HttpDiskCache.DEFAULT_MAX_BYTES));
+        service.fetchEvents("octocat", 30, event -> {});
+        List<GitHubEvent> events = new ArrayList<>();
+
+        // Act
+        FetchResult result = service.fetchEvents("octocat", 30, events::add);
+
+        // Assert
+        assertEquals(FetchStatus.OK, result.status());
+        assertEquals(30, events.size());
+        assertEquals(1, mock.notModified());
+    }
+
+    @Test
+    void fetchEvents_rateLimitSpent_reportsRateLimited() throws Exception {
+        // Arrange
+        UserActivityServiceImpl service = service(1, null);
+        service.fetchEvents("octocat", 30, event -> {});
+
+        // Act
+        FetchResult result = service.fetchEvents("torvalds", 30, event -> {});
+
+        // Assert
+        assertEquals(FetchStatus.RATE_LIMITED, result.status());
+    }
+
+    @Test
+    void fetchEvents_missingUser_reportsNotFound() throws Exception {
+        // Arrange
+        UserActivityServiceImpl service = service(Long.MAX_VALUE, null);
+
+        // Act
+        FetchResult result = service.fetchEvents(MockGitHubServer.MISSING_USER, 30, event -> {});
+
+        // Assert
+        assertEquals(FetchStatus.NOT_FOUND, result.status());
+    }
+}
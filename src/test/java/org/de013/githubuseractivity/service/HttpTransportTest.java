@@ -0,0 +1,135 @@
+package org.de013.githubuseractivity.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verify;
+
+class HttpTransportTest {
+
+    private static final String JSON = "[" + "{\"type\":\"WatchEvent\",\"repo\":{\"name\":\"a/b\"},\"payload\":{}},".repeat(50)
+            + "{\"type\":\"ForkEvent\",\"repo\":{\"name\":\"c/d\"},\"payload\":{}}]";
+
+    private HttpClient mockClient;
+    private HttpTransport transport;
+
+    @BeforeEach
+    void setUp() {
+        mockClient = Mockito.mock(HttpClient.class);
+        transport = new HttpTransport(() -> mockClient);
+    }
+
+    private static byte[] gzip(String text) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpResponse<InputStream> mockResponse(byte[] body, Map<String, List<String>> headers,
+                                                          HttpClient.Version version) {
+        HttpResponse<InputStream> response = Mockito.mock(HttpResponse.class);
+        doReturn(200).when(response).statusCode();
+        doReturn(HttpHeaders.of(headers, (name, value) -> true)).when(response).headers();
+        doReturn(version).when(response).version();
+        doReturn(new ByteArrayInputStream(body)).when(response).body();
+        return response;
+    }
+
+    private static HttpRequest request() {
+        return HttpRequest.newBuilder(URI.create("https://example.com/events")).header("Accept", "application/json").build();
+    }
+
+    @Test
+    void send_asksForGzipAndKeepsTheRequestHeaders() throws Exception {
+        // Arrange
+        doReturn(mockResponse(new byte[0], Map.of(), HttpClient.Version.HTTP_2))
+                .when(mockClient).send(any(HttpRequest.class), any());
+
+        // Act
+        transport.send(request()).body().close();
+
+        // Assert
+        verify(mockClient).send(argThat(r -> r != null
+                && "gzip".equals(r.headers().firstValue("Accept-Encoding").orElse(null))
+                && "application/json".equals(r.headers().firstValue("Accept").orElse(null))), any());
+    }
+
+    @Test
+    void send_gzipBody_decodesAndCountsBothSizes() throws Exception {
+        // Arrange
+        byte[] compressed = gzip(JSON);
+        doReturn(mockResponse(compressed, Map.of("Content-Encoding", List.of("gzip")), HttpClient.Version.HTTP_2))
+                .when(mockClient).send(any(HttpRequest.class), any());
+
+        // Act
+        Transport.Reply reply = transport.send(request());
+        String body;
+        try (InputStream in = reply.body()) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        // Assert
+        TransferStats stats = transport.stats();
+        assertEquals(JSON, body);
+        assertEquals(compressed.length, stats.wireBytes());
+        assertEquals(JSON.length(), stats.decodedBytes());
+        assertTrue(stats.savedPercent() > 50);
+        assertEquals(1, stats.responses());
+        assertEquals(1, stats.http2Responses());
+    }
+
+    @Test
+    void send_identityBody_passesThroughUnchanged() throws Exception {
+        // Arrange
+        doReturn(mockResponse(JSON.getBytes(StandardCharsets.UTF_8), Map.of(), HttpClient.Version.HTTP_1_1))
+                .when(mockClient).send(any(HttpRequest.class), any());
+
+        // Act
+        Transport.Reply reply = transport.send(request());
+        String body = new String(reply.body().readAllBytes(), StandardCharsets.UTF_8);
+
+        // Assert
+        TransferStats stats = transport.stats();
+        assertEquals(JSON, body);
+        assertEquals(JSON.length(), stats.wireBytes());
+        assertEquals(JSON.length(), stats.decodedBytes());
+        assertEquals(0, stats.savedPercent());
+        assertEquals(0, stats.http2Responses());
+    }
+
+    @Test
+    void sendAsync_gzipBody_decodes() throws Exception {
+        // Arrange
+        HttpResponse<InputStream> response = mockResponse(gzip(JSON), Map.of("Content-Encoding", List.of("GZIP")),
+                HttpClient.Version.HTTP_2);
+        doReturn(CompletableFuture.completedFuture(response)).when(mockClient).sendAsync(any(HttpRequest.class), any());
+
+        // Act
+        Transport.Reply reply = transport.sendAsync(request()).join();
+
+        // Assert
+        assertEquals(JSON, new String(reply.body().readAllBytes(), StandardCharsets.UTF_8));
+    }
+}
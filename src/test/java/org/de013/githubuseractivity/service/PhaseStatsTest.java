@@ -0,0 +1,74 @@
+package org.de013.githubuseractivity.service;
+
+import org.de013.githubuseractivity.util.Messages;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhaseStatsTest {
+
+    @BeforeEach
+    void setUp() {
+        Messages.currentLanguage = Messages.Language.EN;
+    }
+
+    @Test
+    void percentile_usesNearestRank() {
+        // Arrange
+        PhaseStats stats = new PhaseStats();
+        for (int i = 100; i >= 1; i--) stats.record(PhaseStats.Phase.HEADERS, i);
+
+        // Act & Assert
+        assertEquals(50, stats.percentile(PhaseStats.Phase.HEADERS, 50));
+        assertEquals(90, stats.percentile(PhaseStats.Phase.HEADERS, 90));
+        assertEquals(100, stats.percentile(PhaseStats.Phase.HEADERS, 100));
+        assertEquals(1, stats.percentile(PhaseStats.Phase.HEADERS, 0));
+        assertEquals(0, stats.percentile(PhaseStats.Phase.PARSE, 50));
+    }
+
+    @Test
+    void print_listsRecordedPhasesTotalsAndRootCauses() {
+        // Arrange
+        PhaseStats stats = new PhaseStats();
+        stats.recordRequest();
+        stats.record(PhaseStats.Phase.HEADERS, 2_000_000);
+        stats.recordEvents(30);
+        stats.recordBodyBytes(4096);
+        stats.recordError(new IOException("wrapped", new ConnectException("Connection refused")));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        // Act
+        stats.print(new PrintStream(bytes, true, StandardCharsets.UTF_8), 5_000_000);
+
+        // Assert
+        String output = bytes.toString(StandardCharsets.UTF_8);
+        assertTrue(output.contains("headers"));
+        assertFalse(output.contains("download"));
+        assertTrue(output.contains("1 request(s), 30 event(s) parsed from 4096 body bytes, 5.0 ms in total."));
+        assertTrue(output.contains("1 x java.net.ConnectException: Connection refused"));
+    }
+
+    @Test
+    void timeOutput_recordsOneSamplePerWrite() throws IOException {
+        // Arrange
+        PhaseStats stats = new PhaseStats();
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+
+        // Act
+        try (var out = stats.timeOutput(target)) {
+            out.write("hello".getBytes(StandardCharsets.UTF_8));
+            out.write('\n');
+        }
+
+        // Assert
+        assertEquals("hello\n", target.toString(StandardCharsets.UTF_8));
+        assertEquals(2, stats.count(PhaseStats.Phase.OUTPUT));
+    }
+}
@@ -0,0 +1,144 @@
+package org.de013.githubuseractivity.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private long nanos;
+    private long millis = 1_700_000_000_000L;
+
+    private RateLimiter limiter(int burst, double perSecond, Duration maxWait) {
+        return new RateLimiter(burst, perSecond, maxWait, () -> nanos, () -> millis);
+    }
+
+    private static HttpHeaders headers(String... pairs) {
+        Map<String, List<String>> map = new HashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) map.put(pairs[i], List.of(pairs[i + 1]));
+        return HttpHeaders.of(map, (a, b) -> true);
+    }
+
+    @Test
+    void reserve_afterBurst_spacesRequestsByRate() {
+        // Arrange
+        RateLimiter limiter = limiter(2, 10, Duration.ofMinutes(1));
+
+        // Act
+        long first = limiter.reserve();
+        long second = limiter.reserve();
+        long third = limiter.reserve();
+        long fourth = limiter.reserve();
+
+        // Assert
+        assertEquals(0, first);
+        assertEquals(0, second);
+        assertEquals(0, third);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), fourth);
+    }
+
+    @Test
+    void update_exhaustedRemaining_holdsRequestsUntilReset() {
+        // Arrange
+        RateLimiter limiter = limiter(10, 10, Duration.ofMinutes(1));
+        long resetEpochSeconds = millis / 1000 + 30;
+
+        // Act
+        long retry = limiter.update(200, headers("X-RateLimit-Remaining", "0", "X-RateLimit-Reset", String.valueOf(resetEpochSeconds)));
+        long wait = limiter.reserve();
+
+        // Assert
+        assertEquals(-1, retry);
+        assertEquals(TimeUnit.SECONDS.toNanos(30), wait);
+        assertEquals(0, limiter.remaining());
+    }
+
+    @Test
+    void update_remainingBudget_spreadsRequestsUntilReset() {
+        // Arrange
+        RateLimiter limiter = limiter(10, 10, Duration.ofMinutes(1));
+        long resetEpochSeconds = millis / 1000 + 60;
+        limiter.update(200, headers("X-RateLimit-Remaining", "4", "X-RateLimit-Reset", String.valueOf(resetEpochSeconds)));
+
+        // Act
+        long[] waits = new long[6];
+        for (int i = 0; i < waits.length; i++) waits[i] = limiter.reserve();
+
+        // Assert
+        assertArrayEquals(new long[] {0, 0, 0, 0, 0, TimeUnit.SECONDS.toNanos(15)}, waits);
+    }
+
+    @Test
+    void update_retryAfterOn429_returnsDelay() {
+        // Arrange
+        RateLimiter limiter = limiter(10, 10, Duration.ofMinutes(1));
+
+        // Act
+        long retry = limiter.update(429, headers("Retry-After", "5"));
+
+        // Assert
+        assertEquals(TimeUnit.SECONDS.toNanos(5), retry);
+    }
+
+    @Test
+    void reserve_waitBeyondMaximum_returnsMinusOne() {
+        // Arrange
+        RateLimiter limiter = limiter(10, 10, Duration.ofSeconds(10));
+        limiter.update(403, headers("Retry-After", "3600"));
+
+        // Act
+        long wait = limiter.reserve();
+
+        // Assert
+        assertEquals(-1, wait);
+    }
+
+    @Test
+    void update_403WithoutRateLimitHeaders_isNotRetried() {
+        // Arrange
+        RateLimiter limiter = limiter(10, 10, Duration.ofMinutes(1));
+
+        // Act
+        long retry = limiter.update(403, null);
+
+        // Assert
+        assertEquals(-1, retry);
+    }
+
+    @Test
+    void reserve_longGateWait_notifiesOncePerWaitingPeriod() {
+        // Arrange
+        List<Duration> notices = new ArrayList<>();
+        RateLimiter limiter = limiter(10, 10, Duration.ofMinutes(1)).onLongWait(notices::add);
+        limiter.update(429, headers("Retry-After", "30"));
+
+        // Act
+        limiter.reserve();
+        limiter.reserve();
+        limiter.reserve();
+
+        // Assert
+        assertEquals(List.of(Duration.ofSeconds(30)), notices);
+    }
+
+    @Test
+    void reserve_shortPacingWaits_doNotNotify() {
+        // Arrange
+        List<Duration> notices = new ArrayList<>();
+        RateLimiter limiter = limiter(1, 10, Duration.ofMinutes(1)).onLongWait(notices::add);
+
+        // Act
+        for (int i = 0; i < 5; i++) limiter.reserve();
+
+        // Assert
+        assertTrue(notices.isEmpty());
+    }
+}
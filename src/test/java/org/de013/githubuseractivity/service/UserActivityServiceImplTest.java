@@ -1,20 +1,48 @@
 package org.de013.githubuseractivity.service;
 
+import org.de013.githubuseractivity.cache.ActivityCache;
+import org.de013.githubuseractivity.cache.HttpDiskCache;
+import org.de013.githubuseractivity.cli.command.DefaultCommand;
+import org.de013.githubuseractivity.model.GitHubEvent;
+import org.de013.githubuseractivity.util.EventFilter;
 import org.de013.githubuseractivity.util.Messages;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mockito;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintStream;
+import java.io.SequenceInputStream;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 class UserActivityServiceImplTest {
 
@@ -33,13 +61,41 @@ class UserActivityServiceImplTest {
     }
 
     @SuppressWarnings("unchecked")
-    private HttpResponse<String> mockResponse(int status, String body) {
-        HttpResponse<String> response = Mockito.mock(HttpResponse.class);
+    private HttpResponse<InputStream> mockResponse(int status, String body) {
+        HttpResponse<InputStream> response = Mockito.mock(HttpResponse.class);
         doReturn(status).when(response).statusCode();
-        doReturn(body).when(response).body();
+        doReturn(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))).when(response).body();
         return response;
     }
 
+    /** Runs the command the CLI would, which prints the events and any error. */
+    private void run(String username) {
+        run(username, null);
+    }
+
+    private void run(String username, String filter) {
+        run(username, filter, UserActivityService.DEFAULT_LIMIT);
+    }
+
+    private void run(String username, String filter, int limit) {
+        new DefaultCommand(username, filter, limit).excute(service);
+    }
+
+    /** Three pages of 100 answered asynchronously, the second repeating an event of the first. */
+    private void mockThreePagesAsync() {
+        HttpResponse<InputStream> first = mockResponse(200, "[" + event("1", "a/one") + "," + event("2", "a/two") + "]");
+        String link = "<https://api.github.com/user/1/events?per_page=100&page=2>; rel=\"next\", "
+                + "<https://api.github.com/user/1/events?per_page=100&page=3>; rel=\"last\"";
+        doReturn(HttpHeaders.of(Map.of("Link", List.of(link)), (a, b) -> true)).when(first).headers();
+        HttpResponse<InputStream> second = mockResponse(200, "[" + event("2", "a/two") + "," + event("3", "a/three") + "]");
+        HttpResponse<InputStream> third = mockResponse(200, "[" + event("4", "a/four") + "]");
+        for (int page = 1; page <= 3; page++) {
+            String suffix = "page=" + page;
+            doReturn(CompletableFuture.completedFuture(List.of(first, second, third).get(page - 1))).when(mockClient)
+                    .sendAsync(argThat(r -> r != null && r.uri().toString().endsWith(suffix)), any());
+        }
+    }
+
     @Test
     void fetchUserActivity_200_printsFormattedEvents() throws Exception {
         // Arrange
@@ -47,7 +103,7 @@ class UserActivityServiceImplTest {
         doReturn(mockResponse(200, json)).when(mockClient).send(any(HttpRequest.class), any());
 
         // Act
-        service.fetchUserActivity("octocat");
+        run("octocat");
 
         // Assert
         assertTrue(outContent.toString().contains("Starred user/repo"));
@@ -63,7 +119,7 @@ class UserActivityServiceImplTest {
         doReturn(mockResponse(200, json)).when(mockClient).send(any(HttpRequest.class), any());
 
         // Act
-        service.fetchUserActivity("octocat", "ForkEvent");
+        run("octocat", "ForkEvent");
 
         // Assert
         String output = outContent.toString();
@@ -71,13 +127,35 @@ class UserActivityServiceImplTest {
         assertFalse(output.contains("Starred a/b"));
     }
 
+    @Test
+    void fetchUserActivity_200_printsEventsBeforeBodyCompletes() throws Exception {
+        // Arrange – the connection drops after the first event has arrived
+        byte[] first = "[{\"type\":\"WatchEvent\",\"repo\":{\"name\":\"a/b\"},\"payload\":{}},".getBytes(StandardCharsets.UTF_8);
+        InputStream broken = new SequenceInputStream(new ByteArrayInputStream(first), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        });
+        HttpResponse<InputStream> response = mockResponse(200, "");
+        doReturn(broken).when(response).body();
+        doReturn(response).when(mockClient).send(any(HttpRequest.class), any());
+
+        // Act
+        run("octocat");
+
+        // Assert
+        assertTrue(outContent.toString().contains("Starred a/b"));
+        assertTrue(errContent.toString().contains("Could not connect"));
+    }
+
     @Test
     void fetchUserActivity_200_emptyEvents_printsNoActivity() throws Exception {
         // Arrange
         doReturn(mockResponse(200, "[]")).when(mockClient).send(any(HttpRequest.class), any());
 
         // Act
-        service.fetchUserActivity("octocat");
+        run("octocat");
 
         // Assert
         assertTrue(outContent.toString().contains("No recent activity found for 'octocat'"));
@@ -89,7 +167,7 @@ class UserActivityServiceImplTest {
         doReturn(mockResponse(404, "")).when(mockClient).send(any(HttpRequest.class), any());
 
         // Act
-        service.fetchUserActivity("ghost");
+        run("ghost");
 
         // Assert
         assertTrue(errContent.toString().contains("User 'ghost' not found"));
@@ -101,7 +179,7 @@ class UserActivityServiceImplTest {
         doReturn(mockResponse(403, "")).when(mockClient).send(any(HttpRequest.class), any());
 
         // Act
-        service.fetchUserActivity("octocat");
+        run("octocat");
 
         // Assert
         assertTrue(errContent.toString().contains("rate limit"));
@@ -113,7 +191,7 @@ class UserActivityServiceImplTest {
         doReturn(mockResponse(429, "")).when(mockClient).send(any(HttpRequest.class), any());
 
         // Act
-        service.fetchUserActivity("octocat");
+        run("octocat");
 
         // Assert
         assertTrue(errContent.toString().contains("rate limit"));
@@ -125,7 +203,7 @@ class UserActivityServiceImplTest {
         doReturn(mockResponse(500, "")).when(mockClient).send(any(HttpRequest.class), any());
 
         // Act
-        service.fetchUserActivity("octocat");
+        run("octocat");
 
         // Assert
         assertTrue(errContent.toString().contains("500"));
@@ -137,9 +215,362 @@ class UserActivityServiceImplTest {
         doThrow(new RuntimeException("timeout")).when(mockClient).send(any(HttpRequest.class), any());
 
         // Act
-        service.fetchUserActivity("octocat");
+        run("octocat");
+
+        // Assert
+        assertTrue(errContent.toString().contains("Could not connect"));
+    }
+
+    @Test
+    void fetchUserActivity_withLimit_fetchesRemainingPagesInOrderAndDeduplicates() throws Exception {
+        // Arrange
+        HttpResponse<InputStream> first = mockResponse(200, "[" + event("1", "a/one") + "," + event("2", "a/two") + "]");
+        String link = "<https://api.github.com/user/1/events?per_page=100&page=2>; rel=\"next\", "
+                + "<https://api.github.com/user/1/events?per_page=100&page=3>; rel=\"last\"";
+        doReturn(HttpHeaders.of(Map.of("Link", List.of(link)), (a, b) -> true)).when(first).headers();
+        doReturn(first).when(mockClient).send(any(HttpRequest.class), any());
+
+        HttpResponse<InputStream> second = mockResponse(200, "[" + event("2", "a/two") + "," + event("3", "a/three") + "]");
+        HttpResponse<InputStream> third = mockResponse(200, "[" + event("4", "a/four") + "]");
+        doReturn(CompletableFuture.completedFuture(second)).when(mockClient)
+                .sendAsync(argThat(r -> r != null && r.uri().toString().endsWith("page=2")), any());
+        doReturn(CompletableFuture.completedFuture(third)).when(mockClient)
+                .sendAsync(argThat(r -> r != null && r.uri().toString().endsWith("page=3")), any());
+
+        // Act
+        run("octocat", null, 300);
+
+        // Assert
+        String output = outContent.toString();
+        assertEquals(4, output.lines().count());
+        assertTrue(output.indexOf("a/one") < output.indexOf("a/two"));
+        assertTrue(output.indexOf("a/two") < output.indexOf("a/three"));
+        assertTrue(output.indexOf("a/three") < output.indexOf("a/four"));
+    }
+
+    @Test
+    void fetchUserActivity_304_servesBodyFromDiskCache(@TempDir Path cacheDir) throws Exception {
+        // Arrange
+        service = new UserActivityServiceImpl(mockClient, new HttpDiskCache(cacheDir, HttpDiskCache.DEFAULT_MAX_BYTES), null);
+        HttpResponse<InputStream> fresh = mockResponse(200, "[" + event("1", "a/cached") + "]");
+        doReturn(HttpHeaders.of(Map.of("ETag", List.of("\"v1\"")), (a, b) -> true)).when(fresh).headers();
+        HttpResponse<InputStream> notModified = mockResponse(304, "");
+        doReturn(fresh).doReturn(notModified).when(mockClient).send(any(HttpRequest.class), any());
+        run("octocat");
+        outContent.reset();
+
+        // Act
+        run("octocat");
+
+        // Assert
+        assertTrue(outContent.toString().contains("Starred a/cached"));
+        verify(mockClient).send(argThat(r -> r != null && r.headers().firstValue("If-None-Match").isPresent()), any());
+    }
+
+    @Test
+    void fetchUserActivity_gzipBody_decodedForOutputAndDiskCache(@TempDir Path cacheDir) throws Exception {
+        // Arrange
+        service = new UserActivityServiceImpl(mockClient, new HttpDiskCache(cacheDir, HttpDiskCache.DEFAULT_MAX_BYTES), null);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(("[" + event("1", "a/zipped") + "]").getBytes(StandardCharsets.UTF_8));
+        }
+        HttpResponse<InputStream> fresh = mockResponse(200, "");
+        doReturn(new ByteArrayInputStream(compressed.toByteArray())).when(fresh).body();
+        doReturn(HttpHeaders.of(Map.of("ETag", List.of("\"v1\""), "Content-Encoding", List.of("gzip")),
+                (a, b) -> true)).when(fresh).headers();
+        HttpResponse<InputStream> notModified = mockResponse(304, "");
+        doReturn(fresh).doReturn(notModified).when(mockClient).send(any(HttpRequest.class), any());
+
+        // Act
+        run("octocat");
+        run("octocat");
 
         // Assert
+        assertEquals(2, outContent.toString().split("Starred a/zipped", -1).length - 1);
+        assertEquals(compressed.size(), service.getTransferStats().wireBytes());
+        verify(mockClient, times(2)).send(argThat(r -> r != null
+                && "gzip".equals(r.headers().firstValue("Accept-Encoding").orElse(null))), any());
+    }
+
+    @Test
+    void fetchUserActivity_withPhaseStats_recordsEveryPhaseOfTheRequest() throws Exception {
+        // Arrange
+        PhaseStats stats = new PhaseStats();
+        service = new UserActivityServiceImpl(mockClient, null, null, new RateLimiter(), null, stats);
+        doReturn(mockResponse(200, "[" + event("1", "a/b") + "," + event("2", "c/d") + "]"))
+                .when(mockClient).send(any(HttpRequest.class), any());
+
+        // Act
+        run("octocat");
+
+        // Assert
+        for (PhaseStats.Phase phase : List.of(PhaseStats.Phase.WAIT, PhaseStats.Phase.HEADERS,
+                PhaseStats.Phase.DOWNLOAD, PhaseStats.Phase.PARSE, PhaseStats.Phase.FORMAT)) {
+            assertEquals(1, stats.count(phase), phase.name());
+        }
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        stats.print(new PrintStream(report, true, StandardCharsets.UTF_8), 0);
+        assertTrue(report.toString(StandardCharsets.UTF_8).contains("1 request(s), 2 event(s) parsed"));
+    }
+
+    @Test
+    void fetchUserActivity_withPhaseStats_keepsTheConnectionErrorCause() throws Exception {
+        // Arrange
+        PhaseStats stats = new PhaseStats();
+        service = new UserActivityServiceImpl(mockClient, null, null, new RateLimiter(), null, stats);
+        doThrow(new IOException("handshake failed")).when(mockClient).send(any(HttpRequest.class), any());
+
+        // Act
+        run("octocat");
+
+        // Assert
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        stats.print(new PrintStream(report, true, StandardCharsets.UTF_8), 0);
         assertTrue(errContent.toString().contains("Could not connect"));
+        assertTrue(report.toString(StandardCharsets.UTF_8).contains("1 x java.io.IOException: handshake failed"));
+    }
+
+    @Test
+    void fetchEvents_interrupted_throwsCancellationAndRestoresInterruptFlag() throws Exception {
+        // Arrange
+        PhaseStats stats = new PhaseStats();
+        service = new UserActivityServiceImpl(mockClient, null, null, new RateLimiter(), null, stats);
+        doThrow(new InterruptedException()).when(mockClient).send(any(HttpRequest.class), any());
+
+        // Act
+        assertThrows(CancellationException.class, () -> service.fetchEvents("octocat", 30, event -> {}));
+        boolean interrupted = Thread.interrupted();
+
+        // Assert
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        stats.print(new PrintStream(report, true, StandardCharsets.UTF_8), 0);
+        assertTrue(interrupted);
+        assertFalse(report.toString(StandardCharsets.UTF_8).contains("InterruptedException"));
+    }
+
+    @Test
+    void fetchUserActivity_duringFlightRecording_emitsFetchAndParseEvents(@TempDir Path dir) throws Exception {
+        // Arrange
+        String json = "[" + event("1", "a/b") + "," + event("2", "c/d") + "]";
+        HttpResponse<InputStream> response = mockResponse(200, json);
+        doReturn(HttpHeaders.of(Map.of("X-RateLimit-Remaining", List.of("57")), (a, b) -> true)).when(response).headers();
+        doReturn(response).when(mockClient).send(any(HttpRequest.class), any());
+        Path file = dir.resolve("fetch.jfr");
+
+        // Act
+        try (Recording recording = new Recording()) {
+            recording.enable("org.de013.githubuseractivity.Fetch");
+            recording.enable("org.de013.githubuseractivity.Parse");
+            recording.start();
+            run("octocat");
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // Assert
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent fetch = events.stream()
+                .filter(e -> e.getEventType().getName().endsWith(".Fetch")).findFirst().orElseThrow();
+        RecordedEvent parse = events.stream()
+                .filter(e -> e.getEventType().getName().endsWith(".Parse")).findFirst().orElseThrow();
+        assertTrue(fetch.getString("url").contains("/users/octocat/events"));
+        assertEquals(200, fetch.getInt("status"));
+        assertEquals(json.length(), fetch.getLong("bytes"));
+        assertEquals(57, fetch.getLong("rateLimitRemaining"));
+        assertEquals(2, parse.getLong("events"));
+        assertEquals(json.length(), parse.getLong("bytes"));
+    }
+
+    @Test
+    void fetchUserActivity_repeatedWithinPollInterval_servedFromActivityCache() throws Exception {
+        // Arrange
+        ActivityCache activityCache = new ActivityCache(ActivityCache.DEFAULT_MAX_ENTRIES);
+        service = new UserActivityServiceImpl(mockClient, null, activityCache);
+        HttpResponse<InputStream> response = mockResponse(200, "[" + event("1", "a/b") + "]");
+        doReturn(HttpHeaders.of(Map.of("X-Poll-Interval", List.of("60")), (a, b) -> true)).when(response).headers();
+        doReturn(response).when(mockClient).send(any(HttpRequest.class), any());
+
+        // Act
+        run("octocat");
+        run("OctoCat");
+
+        // Assert
+        verify(mockClient, times(1)).send(any(HttpRequest.class), any());
+        assertEquals(2, outContent.toString().split("Starred a/b", -1).length - 1);
+        assertEquals(1, activityCache.stats().hits());
+        assertEquals(1, activityCache.stats().misses());
+    }
+
+    @Test
+    void fetchEvents_activityCacheHit_returnsStoredPollInterval() throws Exception {
+        // Arrange
+        service = new UserActivityServiceImpl(mockClient, null, new ActivityCache(ActivityCache.DEFAULT_MAX_ENTRIES));
+        HttpResponse<InputStream> response = mockResponse(200, "[" + event("1", "a/b") + "]");
+        doReturn(HttpHeaders.of(Map.of("X-Poll-Interval", List.of("120")), (a, b) -> true)).when(response).headers();
+        doReturn(response).when(mockClient).send(any(HttpRequest.class), any());
+        service.fetchEvents("octocat", 30, event -> {});
+
+        // Act
+        FetchResult cached = service.fetchEvents("octocat", 30, event -> {});
+        ActivityResult cachedAsync = service.fetchActivityAsync("octocat", 30, EventFilter.ALL).join();
+
+        // Assert
+        verify(mockClient, times(1)).send(any(HttpRequest.class), any());
+        assertEquals(Duration.ofSeconds(120), cached.pollInterval());
+        assertEquals(Duration.ofSeconds(120), cachedAsync.pollInterval());
+    }
+
+    @Test
+    void fetchUserActivity_429WithRetryAfter_retriesInsteadOfFailing() throws Exception {
+        // Arrange
+        HttpResponse<InputStream> limited = mockResponse(429, "");
+        doReturn(HttpHeaders.of(Map.of("Retry-After", List.of("0")), (a, b) -> true)).when(limited).headers();
+        HttpResponse<InputStream> ok = mockResponse(200, "[" + event("1", "a/b") + "]");
+        doReturn(limited).doReturn(ok).when(mockClient).send(any(HttpRequest.class), any());
+
+        // Act
+        run("octocat");
+
+        // Assert
+        assertTrue(outContent.toString().contains("Starred a/b"));
+        assertEquals("", errContent.toString());
+        verify(mockClient, times(2)).send(any(HttpRequest.class), any());
+    }
+
+    @Test
+    void fetchActivityAsync_200_completesWithEveryPageInOrder() {
+        // Arrange
+        mockThreePagesAsync();
+
+        // Act
+        ActivityResult result = service.fetchActivityAsync("octocat", 300, EventFilter.ALL).join();
+
+        // Assert
+        assertEquals("octocat", result.username());
+        assertEquals(List.of("1", "2", "3", "4"), result.events().stream().map(GitHubEvent::id).toList());
+    }
+
+    @Test
+    void fetchActivityAsync_404_failsWithNotFound() {
+        // Arrange
+        doReturn(CompletableFuture.completedFuture(mockResponse(404, ""))).when(mockClient)
+                .sendAsync(any(HttpRequest.class), any());
+
+        // Act
+        CompletionException error = assertThrows(CompletionException.class,
+                () -> service.fetchActivityAsync("ghost", 30, EventFilter.ALL).join());
+
+        // Assert
+        ActivityException failure = assertInstanceOf(ActivityException.class, error.getCause());
+        assertEquals(FetchStatus.NOT_FOUND, failure.status());
+        assertEquals(404, failure.httpStatus());
+        assertEquals("", errContent.toString());
+    }
+
+    @Test
+    void fetchActivityAsync_networkFailure_failsWithConnectionErrorAndCause() {
+        // Arrange
+        doReturn(CompletableFuture.failedFuture(new IOException("connection refused"))).when(mockClient)
+                .sendAsync(any(HttpRequest.class), any());
+
+        // Act
+        CompletionException error = assertThrows(CompletionException.class,
+                () -> service.fetchActivityAsync("octocat", 30, EventFilter.ALL).join());
+
+        // Assert
+        ActivityException failure = assertInstanceOf(ActivityException.class, error.getCause());
+        assertEquals(FetchStatus.CONNECTION_ERROR, failure.status());
+        assertInstanceOf(IOException.class, failure.getCause());
+    }
+
+    @Test
+    void publishEvents_fetchesTheNextPageOnlyWhenRequested() {
+        // Arrange
+        mockThreePagesAsync();
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        service.publishEvents("octocat", 300, EventFilter.ALL).subscribe(subscriber);
+
+        // Act
+        subscriber.subscription.request(2);
+        List<String> afterFirstRequest = List.copyOf(subscriber.ids);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        // Assert
+        assertEquals(List.of("1", "2"), afterFirstRequest);
+        assertEquals(List.of("1", "2", "3", "4"), subscriber.ids);
+        assertTrue(subscriber.completed);
+        verify(mockClient, times(3)).sendAsync(any(HttpRequest.class), any());
+    }
+
+    @Test
+    void publishEvents_partialRead_requestsOnlyTheFirstPage() {
+        // Arrange
+        mockThreePagesAsync();
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        service.publishEvents("octocat", 300, EventFilter.ALL).subscribe(subscriber);
+
+        // Act
+        subscriber.subscription.request(1);
+        subscriber.subscription.cancel();
+
+        // Assert
+        assertEquals(List.of("1"), subscriber.ids);
+        assertFalse(subscriber.completed);
+        verify(mockClient, times(1)).sendAsync(any(HttpRequest.class), any());
+    }
+
+    @Test
+    void publishEvents_rateLimited_signalsTypedError() {
+        // Arrange
+        doReturn(CompletableFuture.completedFuture(mockResponse(403, ""))).when(mockClient)
+                .sendAsync(any(HttpRequest.class), any());
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        service.publishEvents("octocat", 30, EventFilter.ALL).subscribe(subscriber);
+
+        // Act
+        subscriber.subscription.request(10);
+
+        // Assert
+        ActivityException failure = assertInstanceOf(ActivityException.class, subscriber.error);
+        assertEquals(FetchStatus.RATE_LIMITED, failure.status());
+    }
+
+    @Test
+    void publishEvents_nonPositiveRequestWhilePageInFlight_signalsIllegalArgument() {
+        // Arrange
+        doReturn(new CompletableFuture<>()).when(mockClient).sendAsync(any(HttpRequest.class), any());
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        service.publishEvents("octocat", 30, EventFilter.ALL).subscribe(subscriber);
+        subscriber.subscription.request(1);
+
+        // Act
+        subscriber.subscription.request(0);
+
+        // Assert
+        assertInstanceOf(IllegalArgumentException.class, subscriber.error);
+    }
+
+    private static final class RecordingSubscriber implements Flow.Subscriber<GitHubEvent> {
+        private final List<String> ids = new ArrayList<>();
+        private Flow.Subscription subscription;
+        private Throwable error;
+        private boolean completed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) { this.subscription = subscription; }
+
+        @Override
+        public void onNext(GitHubEvent event) { ids.add(event.id()); }
+
+        @Override
+        public void onError(Throwable error) { this.error = error; }
+
+        @Override
+        public void onComplete() { completed = true; }
+    }
+
+    private static String event(String id, String repo) {
+        return "{\"id\":\"" + id + "\",\"type\":\"WatchEvent\",\"repo\":{\"name\":\"" + repo + "\"},\"payload\":{}}";
     }
 }
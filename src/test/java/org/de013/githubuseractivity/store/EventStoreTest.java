@@ -0,0 +1,218 @@
+package org.de013.githubuseractivity.store;
+
+import org.de013.githubuseractivity.model.EventType;
+import org.de013.githubuseractivity.model.GitHubEvent;
+import org.de013.githubuseractivity.model.Payload;
+import org.de013.githubuseractivity.util.EventFilter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private static GitHubEvent event(String id, String typeName, String createdAt) {
+        return new GitHubEvent(id, EventType.fromApiName(typeName), typeName, "octocat", "octocat/hello",
+                createdAt, new Payload("{\"action\":\"opened\",\"commits\":[{}]}"));
+    }
+
+    private static List<String> ids(EventStore store, EventFilter filter, int limit) throws Exception {
+        List<String> ids = new ArrayList<>();
+        store.query("octocat", filter, limit, e -> ids.add(e.id()));
+        return ids;
+    }
+
+    @Test
+    void append_thenQuery_returnsNewestFirstWithPayload() throws Exception {
+        // Arrange
+        EventStore store = new EventStore(dir);
+        List<GitHubEvent> found = new ArrayList<>();
+
+        // Act
+        store.append("octocat", List.of(
+                event("3", "PushEvent", "2024-05-03T00:00:00Z"),
+                event("1", "WatchEvent", "2024-05-01T00:00:00Z"),
+                event("2", "IssuesEvent", "2024-05-02T00:00:00Z")));
+        store.query("OctoCat", EventFilter.ALL, Integer.MAX_VALUE, found::add);
+
+        // Assert
+        assertEquals(List.of("3", "2", "1"), found.stream().map(GitHubEvent::id).toList());
+        assertEquals(EventType.ISSUES, found.get(1).type());
+        assertEquals("octocat/hello", found.get(1).repo());
+        assertEquals("opened", found.get(1).payload().action());
+        assertEquals(1, found.get(0).payload().commitCount());
+    }
+
+    @Test
+    void append_overlappingWindows_storesEachEventOnce() throws Exception {
+        // Arrange
+        EventStore store = new EventStore(dir);
+        store.append("octocat", List.of(
+                event("2", "PushEvent", "2024-05-02T00:00:00Z"),
+                event("1", "PushEvent", "2024-05-01T00:00:00Z")));
+
+        // Act
+        int added = store.append("octocat", List.of(
+                event("3", "PushEvent", "2024-05-03T00:00:00Z"),
+                event("2", "PushEvent", "2024-05-02T00:00:00Z"),
+                event("3", "PushEvent", "2024-05-03T00:00:00Z")));
+
+        // Assert
+        assertEquals(1, added);
+        assertEquals(3, store.count("octocat"));
+        assertEquals(List.of("3", "2", "1"), ids(store, EventFilter.ALL, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void append_olderBatch_isMergedInTimeOrder() throws Exception {
+        // Arrange
+        EventStore store = new EventStore(dir);
+        store.append("octocat", List.of(event("5", "PushEvent", "2024-05-05T00:00:00Z")));
+
+        // Act
+        store.append("octocat", List.of(
+                event("6", "PushEvent", "2024-05-06T00:00:00Z"),
+                event("4", "PushEvent", "2024-05-04T00:00:00Z")));
+
+        // Assert
+        assertEquals(List.of("6", "5", "4"), ids(store, EventFilter.ALL, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void append_afterTornIndexEntry_keepsEveryEntryReadable() throws Exception {
+        // Arrange
+        EventStore store = new EventStore(dir);
+        store.append("octocat", List.of(event("1", "PushEvent", "2024-05-01T00:00:00Z")));
+        // An append interrupted while writing its index entry
+        Files.write(dir.resolve("octocat").resolve("index"), new byte[13], StandardOpenOption.APPEND);
+
+        // Act
+        store.append("octocat", List.of(event("2", "WatchEvent", "2024-05-02T00:00:00Z")));
+        store.append("octocat", List.of(event("3", "IssuesEvent", "2024-05-03T00:00:00Z")));
+
+        // Assert
+        assertEquals(3, store.count("octocat"));
+        assertEquals(List.of("3", "2", "1"), ids(store, EventFilter.ALL, Integer.MAX_VALUE));
+        assertEquals(List.of("2"), ids(store, EventFilter.compile("watch"), 10));
+    }
+
+    @Test
+    void query_appliesTimeRangeTypeAndLimit() throws Exception {
+        // Arrange
+        EventStore store = new EventStore(dir);
+        store.append("octocat", List.of(
+                event("1", "PushEvent", "2024-05-01T00:00:00Z"),
+                event("2", "WatchEvent", "2024-05-02T00:00:00Z"),
+                event("3", "PushEvent", "2024-05-03T00:00:00Z"),
+                event("4", "PushEvent", "2024-05-04T00:00:00Z"),
+                event("5", "PushEvent", "2024-05-05T00:00:00Z")));
+
+        // Act & Assert
+        assertEquals(List.of("4", "3"), ids(store, EventFilter.compile("push since=2024-05-02 until=2024-05-04"), 10));
+        assertEquals(List.of("5", "4"), ids(store, EventFilter.compile("push"), 2));
+        assertEquals(List.of("2"), ids(store, EventFilter.compile("watch"), 10));
+        assertEquals(List.of(), ids(store, EventFilter.compile("since=2024-06-01"), 10));
+    }
+
+    @Test
+    void append_rollsOverToNewSegment() throws Exception {
+        // Arrange
+        EventStore store = new EventStore(dir, 200);
+
+        // Act
+        store.append("octocat", List.of(
+                event("1", "PushEvent", "2024-05-01T00:00:00Z"),
+                event("2", "PushEvent", "2024-05-02T00:00:00Z"),
+                event("3", "PushEvent", "2024-05-03T00:00:00Z")));
+
+        // Assert
+        assertTrue(Files.exists(dir.resolve("octocat").resolve("00003.seg")));
+        assertEquals(List.of("3", "2", "1"), ids(store, EventFilter.ALL, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void append_concurrentlyForSameUserInOneProcess_storesEveryEvent() throws Exception {
+        // Arrange
+        EventStore first = new EventStore(dir);
+        EventStore second = new EventStore(dir);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> appends = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 20; i++) {
+            EventStore store = i % 2 == 0 ? first : second;
+            GitHubEvent event = event(String.valueOf(i + 1), "PushEvent", String.format("2024-05-%02dT00:00:00Z", i + 1));
+            appends.add(executor.submit(() -> store.append("octocat", List.of(event))));
+        }
+        int added = 0;
+        for (Future<Integer> append : appends) added += append.get();
+        executor.shutdown();
+
+        // Assert
+        assertEquals(20, added);
+        assertEquals(20, first.count("octocat"));
+    }
+
+    @Test
+    void append_usernameOutsideStore_isRejected() {
+        // Arrange
+        EventStore store = new EventStore(dir.resolve("store"));
+        List<GitHubEvent> events = List.of(event("1", "PushEvent", "2024-05-01T00:00:00Z"));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> store.append("../escaped", events));
+        assertFalse(Files.exists(dir.resolve("escaped")));
+    }
+
+    @Test
+    void append_writesFormatVersionAndStableTypeCode() throws Exception {
+        // Arrange
+        EventStore store = new EventStore(dir);
+
+        // Act
+        store.append("octocat", List.of(event("1", "WatchEvent", "2024-05-01T00:00:00Z")));
+
+        // Assert
+        ByteBuffer index = ByteBuffer.wrap(Files.readAllBytes(dir.resolve("octocat").resolve("index")));
+        assertEquals(1, index.getInt(4));
+        assertEquals(EventType.WATCH.code(), index.getShort(8 + 26));
+    }
+
+    @Test
+    void count_indexFromNewerVersion_fails() throws Exception {
+        // Arrange
+        EventStore store = new EventStore(dir);
+        store.append("octocat", List.of(event("1", "PushEvent", "2024-05-01T00:00:00Z")));
+        Path indexFile = dir.resolve("octocat").resolve("index");
+        byte[] bytes = Files.readAllBytes(indexFile);
+        ByteBuffer.wrap(bytes).putInt(4, 99);
+        Files.write(indexFile, bytes);
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> store.count("octocat"));
+    }
+
+    @Test
+    void query_unknownUser_returnsNothing() throws Exception {
+        // Arrange
+        EventStore store = new EventStore(dir);
+
+        // Act & Assert
+        assertEquals(0, store.count("nobody"));
+        assertEquals(List.of(), ids(store, EventFilter.ALL, 10));
+    }
+}
@@ -0,0 +1,55 @@
+package org.de013.githubuseractivity.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedIdSetTest {
+
+    @Test
+    void add_duplicate_returnsFalse() {
+        // Arrange
+        BoundedIdSet set = new BoundedIdSet(8);
+
+        // Act
+        boolean first = set.add("40512345678");
+        boolean second = set.add("40512345678");
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+    }
+
+    @Test
+    void add_beyondCapacity_forgetsOldestOnly() {
+        // Arrange
+        BoundedIdSet set = new BoundedIdSet(3);
+        set.add(1);
+        set.add(2);
+        set.add(3);
+
+        // Act
+        set.add(4);
+
+        // Assert
+        assertEquals(3, set.size());
+        assertFalse(set.contains(1));
+        assertTrue(set.contains(2));
+        assertTrue(set.contains(3));
+        assertTrue(set.contains(4));
+    }
+
+    @Test
+    void add_manyCollidingIds_keepsLookupsConsistent() {
+        // Arrange
+        BoundedIdSet set = new BoundedIdSet(100);
+
+        // Act
+        for (long id = 1; id <= 10_000; id++) set.add(id * 1024);
+
+        // Assert
+        assertEquals(100, set.size());
+        for (long id = 9_901; id <= 10_000; id++) assertTrue(set.contains(id * 1024));
+        assertFalse(set.contains(9_900 * 1024));
+    }
+}
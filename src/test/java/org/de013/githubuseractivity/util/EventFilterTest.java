@@ -0,0 +1,129 @@
+package org.de013.githubuseractivity.util;
+
+import org.de013.githubuseractivity.model.EventType;
+import org.de013.githubuseractivity.model.GitHubEvent;
+import org.de013.githubuseractivity.model.Payload;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventFilterTest {
+
+    private static GitHubEvent event(String typeName, String actor, String repo, String createdAt, String payload) {
+        return new GitHubEvent("1", EventType.fromApiName(typeName), typeName, actor, repo, createdAt, new Payload(payload));
+    }
+
+    private static GitHubEvent event(String typeName, String repo) {
+        return event(typeName, "octocat", repo, "2024-05-10T12:00:00Z", "{}");
+    }
+
+    @Test
+    void compile_bareTypes_matchAnyListedType() {
+        // Arrange
+        EventFilter filter = EventFilter.compile("push,PullRequestEvent");
+
+        // Act & Assert
+        assertTrue(filter.test(event("PushEvent", "a/b")));
+        assertTrue(filter.test(event("PullRequestEvent", "a/b")));
+        assertFalse(filter.test(event("WatchEvent", "a/b")));
+    }
+
+    @Test
+    void compile_unknownType_matchesByNormalizedName() {
+        // Arrange
+        EventFilter filter = EventFilter.compile("sponsorship");
+
+        // Act & Assert
+        assertTrue(filter.test(event("SponsorshipEvent", "a/b")));
+        assertFalse(filter.test(event("PushEvent", "a/b")));
+    }
+
+    @Test
+    void compile_repoGlob_isCaseInsensitive() {
+        // Arrange
+        EventFilter filter = EventFilter.compile("repo=kamranahmedse/*,*/linux");
+
+        // Act & Assert
+        assertTrue(filter.test(event("PushEvent", "KamranAhmedSe/developer-roadmap")));
+        assertTrue(filter.test(event("PushEvent", "torvalds/linux")));
+        assertFalse(filter.test(event("PushEvent", "torvalds/linux-docs")));
+        assertFalse(filter.test(event("PushEvent", null)));
+    }
+
+    @Test
+    void compile_termsAreCombinedWithAnd() {
+        // Arrange
+        EventFilter filter = EventFilter.compile("pullrequest action=opened actor=OctoCat");
+
+        // Act & Assert
+        assertTrue(filter.test(event("PullRequestEvent", "octocat", "a/b", "2024-05-10T12:00:00Z", "{\"action\":\"opened\"}")));
+        assertFalse(filter.test(event("PullRequestEvent", "octocat", "a/b", "2024-05-10T12:00:00Z", "{\"action\":\"closed\"}")));
+        assertFalse(filter.test(event("PullRequestEvent", "someone", "a/b", "2024-05-10T12:00:00Z", "{\"action\":\"opened\"}")));
+    }
+
+    @Test
+    void compile_dateRange_untilDateCoversWholeDay() {
+        // Arrange
+        EventFilter filter = EventFilter.compile("since=2024-05-01 until=2024-05-10");
+
+        // Act & Assert
+        assertTrue(filter.test(event("PushEvent", "octocat", "a/b", "2024-05-01T00:00:00Z", "{}")));
+        assertTrue(filter.test(event("PushEvent", "octocat", "a/b", "2024-05-10T23:59:59Z", "{}")));
+        assertFalse(filter.test(event("PushEvent", "octocat", "a/b", "2024-04-30T23:59:59Z", "{}")));
+        assertFalse(filter.test(event("PushEvent", "octocat", "a/b", "2024-05-11T00:00:00Z", "{}")));
+    }
+
+    @Test
+    void rejectsHeader_ignoresFieldsNotReadYet() {
+        // Arrange
+        EventFilter filter = EventFilter.compile("push repo=a/*");
+
+        // Act & Assert
+        assertFalse(filter.rejectsHeader("PushEvent", null, null, null));
+        assertTrue(filter.rejectsHeader("WatchEvent", null, null, null));
+        assertTrue(filter.rejectsHeader("PushEvent", "octocat", "b/c", null));
+    }
+
+    @Test
+    void test_actionOnlyDecodesPayloadOfHeaderMatches() {
+        // Arrange
+        EventFilter filter = EventFilter.compile("issues action=opened");
+        GitHubEvent push = event("PushEvent", "octocat", "a/b", "2024-05-10T12:00:00Z", "{\"action\":\"opened\"}");
+
+        // Act
+        boolean matches = filter.test(push);
+
+        // Assert
+        assertFalse(matches);
+        assertFalse(push.payload().isDecoded());
+    }
+
+    @Test
+    void and_runsExtraPredicateOnlyForMatches() {
+        // Arrange
+        int[] calls = {0};
+        EventFilter filter = EventFilter.compile("push").and(event -> ++calls[0] > 0);
+
+        // Act
+        filter.test(event("WatchEvent", "a/b"));
+        boolean matches = filter.test(event("PushEvent", "a/b"));
+
+        // Assert
+        assertTrue(matches);
+        assertEquals(1, calls[0]);
+        assertFalse(EventFilter.ALL.checksHeader());
+        assertTrue(filter.checksHeader());
+    }
+
+    @Test
+    void compile_invalidTerm_throwsWithTerm() {
+        // Act
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> EventFilter.compile("push color=red"));
+
+        // Assert
+        assertEquals("color=red", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> EventFilter.compile("since=yesterday"));
+        assertThrows(IllegalArgumentException.class, () -> EventFilter.compile("repo="));
+    }
+}
@@ -47,6 +47,19 @@ class EventFormatterTest {
         assertEquals("Pushed 5 commit(s) to user/repo", result.get(0));
     }
 
+    @Test
+    void format_pushEvent_ignoresNestedTypeKey() {
+        // Arrange – payload appears before the event's own "type"
+        String json = "[{\"payload\":{\"type\":\"WatchEvent\",\"commits\":[{\"message\":\"fix \\\"}\\\" bug\"}]},"
+                + "\"type\":\"PushEvent\",\"repo\":{\"name\":\"user/repo\"}}]";
+
+        // Act
+        List<String> result = EventFormatter.format(json);
+
+        // Assert
+        assertEquals(List.of("Pushed 1 commit(s) to user/repo"), result);
+    }
+
     // ---- WatchEvent / ForkEvent ----
 
     @Test
@@ -0,0 +1,104 @@
+package org.de013.githubuseractivity.util;
+
+import org.de013.githubuseractivity.model.EventType;
+import org.de013.githubuseractivity.model.GitHubEvent;
+import org.de013.githubuseractivity.model.Payload;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventParserTest {
+
+    @BeforeEach
+    void setUp() {
+        Messages.currentLanguage = Messages.Language.EN;
+    }
+
+    @Test
+    void parse_readsHeaderFields() {
+        // Arrange
+        String json = "[{\"id\":\"42\",\"type\":\"ForkEvent\",\"actor\":{\"id\":1,\"login\":\"octocat\"},"
+                + "\"repo\":{\"id\":2,\"name\":\"a/b\"},\"payload\":{},\"public\":true,"
+                + "\"created_at\":\"2024-05-01T10:00:00Z\"}]";
+
+        // Act
+        List<GitHubEvent> events = EventParser.parse(json);
+
+        // Assert
+        assertEquals(1, events.size());
+        GitHubEvent event = events.get(0);
+        assertEquals("42", event.id());
+        assertEquals(EventType.FORK, event.type());
+        assertEquals("octocat", event.actor());
+        assertEquals("a/b", event.repo());
+        assertEquals("2024-05-01T10:00:00Z", event.createdAt());
+    }
+
+    @Test
+    void parse_decodesPayloadFieldsWhileParsing() {
+        // Arrange
+        String json = "[{\"type\":\"PushEvent\",\"repo\":{\"name\":\"a/b\"},"
+                + "\"payload\":{\"size\":2,\"commits\":[{\"sha\":\"1\"},{\"sha\":\"2\"}]}}]";
+
+        // Act
+        List<GitHubEvent> events = EventParser.parse(json);
+
+        // Assert
+        Payload payload = events.get(0).payload();
+        assertTrue(payload.isDecoded());
+        assertEquals(2, payload.size());
+        assertEquals(2, payload.commitCount());
+        assertEquals("{\"size\":2,\"commits\":[{\"sha\":\"1\"},{\"sha\":\"2\"}]}", payload.raw());
+    }
+
+    @Test
+    void parse_withoutKeepRaw_decodesFieldsButDropsRawJson() {
+        // Arrange
+        String json = "[{\"type\":\"IssuesEvent\",\"repo\":{\"name\":\"c/d\"},\"payload\":{\"action\":\"opened\"}}]";
+        List<GitHubEvent> events = new ArrayList<>();
+
+        // Act
+        EventParser.parse(new JsonTokenizer(json), EventFilter.ALL, false, events::add);
+
+        // Assert
+        Payload payload = events.get(0).payload();
+        assertEquals("opened", payload.action());
+        assertFalse(payload.hasRaw());
+        assertThrows(IllegalStateException.class, payload::raw);
+    }
+
+    @Test
+    void parse_unknownType_keepsRawName() {
+        // Arrange
+        String json = "{\"type\":\"SponsorshipEvent\",\"repo\":{\"name\":\"a/b\"}}";
+
+        // Act
+        GitHubEvent event = EventParser.parse(json).get(0);
+
+        // Assert
+        assertEquals(EventType.UNKNOWN, event.type());
+        assertEquals("SponsorshipEvent", event.typeName());
+    }
+
+    @Test
+    void parse_withFilter_skipsPayloadOfRejectedEvents() {
+        // Arrange
+        String json = "[" +
+                "{\"id\":\"1\",\"type\":\"PushEvent\",\"repo\":{\"name\":\"a/b\"},\"payload\":{\"size\":3}}," +
+                "{\"id\":\"2\",\"type\":\"WatchEvent\",\"repo\":{\"name\":\"a/b\"},\"payload\":{\"action\":\"started\"}}" +
+                "]";
+        List<GitHubEvent> events = new ArrayList<>();
+
+        // Act
+        int count = EventParser.parse(new JsonTokenizer(json), EventFilter.compile("watch"), events::add);
+
+        // Assert
+        assertEquals(2, count);
+        assertSame(Payload.SKIPPED, events.get(0).payload());
+        assertEquals("{\"action\":\"started\"}", events.get(1).payload().raw());
+    }
+}
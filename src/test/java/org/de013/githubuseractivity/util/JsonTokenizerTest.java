@@ -0,0 +1,92 @@
+package org.de013.githubuseractivity.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonTokenizerTest {
+
+    @Test
+    void nextString_decodesEscapes() {
+        // Arrange
+        JsonTokenizer tokenizer = new JsonTokenizer("[\"a\\\"b\\\\c\\u0041\\n\"]");
+
+        // Act
+        tokenizer.beginArray();
+        String value = tokenizer.nextString();
+        tokenizer.endArray();
+
+        // Assert
+        assertEquals("a\"b\\cA\n", value);
+        assertEquals(JsonTokenizer.Token.END_DOCUMENT, tokenizer.peek());
+    }
+
+    @Test
+    void skipValue_skipsNestedStructuresAndQuotedBraces() {
+        // Arrange
+        JsonTokenizer tokenizer = new JsonTokenizer("{\"a\":{\"b\":[1,{\"c\":\"}]\"}]},\"d\":true}");
+
+        // Act
+        tokenizer.beginObject();
+        String first = tokenizer.nextName();
+        tokenizer.skipValue();
+        String second = tokenizer.nextName();
+        String value = tokenizer.nextString();
+        tokenizer.endObject();
+
+        // Assert
+        assertEquals("a", first);
+        assertEquals("d", second);
+        assertEquals("true", value);
+    }
+
+    @Test
+    void readRawValue_returnsExactTextAcrossBufferRefills() {
+        // Arrange
+        String big = "x".repeat(20_000);
+        String raw = "{\"body\":\"" + big + "\",\"n\":[1, 2]}";
+        JsonTokenizer tokenizer = new JsonTokenizer(new StringReader("{\"payload\":" + raw + ",\"id\":\"7\"}"));
+
+        // Act
+        tokenizer.beginObject();
+        tokenizer.nextName();
+        String captured = tokenizer.readRawValue();
+        tokenizer.nextName();
+        String id = tokenizer.nextString();
+
+        // Assert
+        assertEquals(raw, captured);
+        assertEquals("7", id);
+    }
+
+    @Test
+    void peek_readsSequenceOfTopLevelValues() {
+        // Arrange
+        JsonTokenizer tokenizer = new JsonTokenizer(new StringReader("{\"a\":1}\n{\"a\":2}\n"));
+
+        // Act
+        int count = 0;
+        while (tokenizer.hasNext()) {
+            tokenizer.skipValue();
+            count++;
+        }
+
+        // Assert
+        assertEquals(2, count);
+    }
+
+    @Test
+    void peek_malformedInput_throws() {
+        // Arrange
+        JsonTokenizer tokenizer = new JsonTokenizer("{\"a\" 1}");
+
+        // Act
+        tokenizer.beginObject();
+        tokenizer.nextName();
+
+        // Assert
+        assertThrows(IllegalStateException.class, tokenizer::peek);
+    }
+}
@@ -0,0 +1,101 @@
+package org.de013.githubuseractivity.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessagesTest {
+
+    @BeforeEach
+    void setUp() {
+        Messages.currentLanguage = Messages.Language.EN;
+    }
+
+    @Test
+    void get_withLanguage_ignoresCurrentLanguage() {
+        // Act
+        String vi = Messages.get(Messages.Language.VI, "event.watch", "a/b");
+        String en = Messages.get("event.watch", "a/b");
+
+        // Assert
+        assertEquals("Đã gắn sao a/b", vi);
+        assertEquals("Starred a/b", en);
+    }
+
+    @Test
+    void get_replacesEveryPlaceholder() {
+        // Act
+        String message = Messages.get("event.push", 3, "a/b");
+
+        // Assert
+        assertEquals("Pushed 3 commit(s) to a/b", message);
+    }
+
+    @Test
+    void get_argumentContainingPlaceholder_isNotExpandedAgain() {
+        // Act
+        String message = Messages.get("event.create", "{1}", "a/b");
+
+        // Assert
+        assertEquals("Created {1} in a/b", message);
+    }
+
+    @Test
+    void get_missingArgument_keepsPlaceholder() {
+        // Act
+        String message = Messages.get("event.push", 3);
+
+        // Assert
+        assertEquals("Pushed 3 commit(s) to {1}", message);
+    }
+
+    @Test
+    void get_unknownKey_returnsKey() {
+        // Act & Assert
+        assertEquals("does.not.exist", Messages.get(Messages.Language.VI, "does.not.exist"));
+    }
+
+    @Test
+    void append_writesIntoGivenBuilder() {
+        // Arrange
+        StringBuilder sb = new StringBuilder("- ");
+
+        // Act
+        Messages.append(sb, Messages.Language.EN, "event.fork", "a/b");
+
+        // Assert
+        assertEquals("- Forked a/b", sb.toString());
+    }
+
+    @Test
+    void get_concurrentCallsInDifferentLanguages_doNotInterfere() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < 8; t++) {
+            Messages.Language language = t % 2 == 0 ? Messages.Language.EN : Messages.Language.VI;
+            String expected = language == Messages.Language.EN ? "Pushed 7 commit(s) to a/b" : "Đã đẩy 7 commit lên a/b";
+            results.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    if (!expected.equals(Messages.get(language, "event.push", 7, "a/b"))) return false;
+                }
+                return true;
+            }));
+        }
+
+        // Assert
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get());
+        }
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,84 @@
+package org.de013.githubuseractivity.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void execute_concurrentCallsForSameKey_runOnceAndShareTheValue() {
+        // Arrange
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        CompletableFuture<String> first = flights.execute("octocat", () -> { calls.incrementAndGet(); return upstream; });
+        CompletableFuture<String> second = flights.execute("octocat", () -> { calls.incrementAndGet(); return upstream; });
+        upstream.complete("page");
+
+        // Assert
+        assertEquals(1, calls.get());
+        assertEquals("page", first.join());
+        assertEquals("page", second.join());
+        assertEquals(0, flights.size());
+    }
+
+    @Test
+    void join_leaderFails_everyCallerGetsTheError() {
+        // Arrange
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        SingleFlight.Flight<String> leader = flights.join("octocat");
+        SingleFlight.Flight<String> follower = flights.join("octocat");
+
+        // Act
+        leader.fail(new IOException("connection reset"));
+
+        // Assert
+        assertTrue(leader.isLeader());
+        assertFalse(follower.isLeader());
+        CompletionException error = assertThrows(CompletionException.class, () -> follower.result().join());
+        assertInstanceOf(IOException.class, error.getCause());
+    }
+
+    @Test
+    void execute_oneCallerCancels_othersStillGetTheValue() {
+        // Arrange
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CompletableFuture<String> first = flights.execute("octocat", () -> upstream);
+        CompletableFuture<String> second = flights.execute("octocat", () -> upstream);
+
+        // Act
+        first.cancel(true);
+        upstream.complete("page");
+
+        // Assert
+        assertFalse(upstream.isCancelled());
+        assertEquals("page", second.join());
+    }
+
+    @Test
+    void execute_everyCallerCancels_cancelsTheCallAndStartsAnewNextTime() {
+        // Arrange
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CompletableFuture<String> first = flights.execute("octocat", () -> upstream);
+        CompletableFuture<String> second = flights.execute("octocat", () -> upstream);
+
+        // Act
+        first.cancel(true);
+        second.cancel(true);
+        CompletableFuture<String> third = flights.execute("octocat", () -> CompletableFuture.completedFuture("fresh"));
+
+        // Assert
+        assertTrue(upstream.isCancelled());
+        assertEquals("fresh", third.join());
+    }
+}